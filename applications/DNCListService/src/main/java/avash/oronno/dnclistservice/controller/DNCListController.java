@@ -2,13 +2,22 @@ package avash.oronno.dnclistservice.controller;
 
 import avash.oronno.dnclistservice.dto.DNCCheckRequest;
 import avash.oronno.dnclistservice.dto.DNCCheckResponse;
+import avash.oronno.dnclistservice.dto.DNCDelta;
+import avash.oronno.dnclistservice.dto.DNCFilterStats;
+import avash.oronno.dnclistservice.dto.DNCSyncError;
+import avash.oronno.dnclistservice.exception.DNCSyncException;
 import avash.oronno.dnclistservice.service.DNCListService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @Slf4j
@@ -26,10 +35,25 @@ public class DNCListController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Screens a dial list: NDJSON numbers in, NDJSON suppressed numbers and a summary line out,
+     * streamed in both directions.
+     */
+    @PostMapping(value = "/check/batch",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> checkBatch(InputStream numbers) {
+        log.info("Received batch DNC check request");
+        StreamingResponseBody body = output -> dncListService.checkBatch(numbers, output);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping("/add")
     public ResponseEntity<Void> addToDNC(
             @RequestParam String phoneNumber,
-            @RequestParam(defaultValue = "CUSTOM") String source) {
+            @RequestParam(defaultValue = "CUSTOM")
+            @Pattern(regexp = "[A-Za-z][A-Za-z0-9_-]{0,31}", message = "Source must be a short identifier, e.g. CUSTOM")
+            String source) {
         log.info("Adding phone number to DNC list: {}, Source: {}", phoneNumber, source);
         dncListService.addToDNC(phoneNumber, source);
         return ResponseEntity.ok().build();
@@ -55,10 +79,58 @@ public class DNCListController {
     }
 
     @PostMapping("/sync/national")
-    public ResponseEntity<Void> syncNationalDNC() {
+    public ResponseEntity<Void> syncNationalDNC(@RequestParam(required = false) String version) {
         log.info("Syncing national DNC list");
-        dncListService.syncNationalDNC();
+        dncListService.syncNationalDNC(version);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/sync/delta")
+    public ResponseEntity<List<DNCDelta>> syncDeltaDNC() {
+        log.info("Applying national DNC deltas");
+        return ResponseEntity.ok(dncListService.syncDeltaDNC());
+    }
+
+    /**
+     * Deltas that bring a node at {@code since} up to this node's list version; 404 if this node
+     * cannot tell, in which case the caller needs a national sync.
+     */
+    @GetMapping("/sync/deltas")
+    public ResponseEntity<List<DNCDelta>> getDeltasSince(@RequestParam String since) {
+        return ResponseEntity.of(dncListService.getDeltasSince(since));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<DNCFilterStats> getFilterStats() {
+        return ResponseEntity.ok(dncListService.getFilterStats());
+    }
+
+    /**
+     * Input the list rejects, such as a value that is not a phone number.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        log.debug("Rejected DNC request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    /**
+     * A sync that cannot run: 409 while another sync is running, 412 if only a national sync can
+     * bring the list up to date, 501 if this node has no source for it. The body names the reason,
+     * so callers can tell these apart from a failed sync.
+     */
+    @ExceptionHandler(DNCSyncException.class)
+    public ResponseEntity<DNCSyncError> syncRefused(DNCSyncException e) {
+        log.info("Refused DNC sync: {}", e.getMessage());
+        HttpStatus status = switch (e.getReason()) {
+            case SYNC_RUNNING -> HttpStatus.CONFLICT;
+            case NATIONAL_SYNC_REQUIRED -> HttpStatus.PRECONDITION_FAILED;
+            case NOT_CONFIGURED -> HttpStatus.NOT_IMPLEMENTED;
+        };
+        DNCSyncError error = new DNCSyncError();
+        error.setReason(e.getReason());
+        error.setMessage(e.getMessage());
+        return ResponseEntity.status(status).body(error);
+    }
 }
 
@@ -0,0 +1,12 @@
+package avash.oronno.dnclistservice.dto;
+
+import lombok.Data;
+
+@Data
+public class DNCBatchSummary {
+    private long total;
+    private long suppressed; // on the DNC list
+    private long invalid; // not a phone number; also suppressed
+    private long filtered; // cleared by the Bloom filter without a list lookup
+    private long elapsedMillis;
+}
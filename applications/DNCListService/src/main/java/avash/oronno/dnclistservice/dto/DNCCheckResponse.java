@@ -1,5 +1,6 @@
 package avash.oronno.dnclistservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -7,9 +8,11 @@ import java.time.LocalDateTime;
 @Data
 public class DNCCheckResponse {
     private String phoneNumber;
-    private boolean isDNC;
+    @JsonProperty("isDNC")
+    private boolean isDNC; // Lombok accessors: isDNC() / setDNC()
     private String source; // NATIONAL, CUSTOM, etc.
     private LocalDateTime checkedAt;
-    private String listVersion;
+    private String listVersion; // version of the list that was checked
+    private String addedInVersion; // list version that added the number, if listed
 }
 
@@ -0,0 +1,16 @@
+package avash.oronno.dnclistservice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class DNCDelta {
+    private String fromVersion;
+    private String toVersion;
+    private String additionsSource; // change file the additions were read from
+    private String removalsSource;
+    private long additions;
+    private long removals;
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,19 @@
+package avash.oronno.dnclistservice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class DNCFilterStats {
+    private boolean enabled;
+    private long capacity;
+    private long entries;
+    private int hashes;
+    private long memoryBytes;
+    private double targetFalsePositiveRate;
+    private double expectedFalsePositiveRate;
+    private long checks;
+    private long filtered; // answered by the filter without a store lookup
+    private LocalDateTime builtAt;
+}
@@ -0,0 +1,10 @@
+package avash.oronno.dnclistservice.dto;
+
+import avash.oronno.dnclistservice.exception.DNCSyncException;
+import lombok.Data;
+
+@Data
+public class DNCSyncError {
+    private DNCSyncException.Reason reason;
+    private String message;
+}
@@ -0,0 +1,27 @@
+package avash.oronno.dnclistservice.exception;
+
+/**
+ * A DNC sync that cannot run, for a reason the caller can act on; not a fault in the sync itself.
+ */
+public class DNCSyncException extends RuntimeException {
+
+    public enum Reason {
+        /** The sync's source is not configured on this node. */
+        NOT_CONFIGURED,
+        /** Another sync is running on this node; retry once it is done. */
+        SYNC_RUNNING,
+        /** The list's version is not on the delta chain; only a national sync can bring it up to date. */
+        NATIONAL_SYNC_REQUIRED
+    }
+
+    private final Reason reason;
+
+    public DNCSyncException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,170 @@
+package avash.oronno.dnclistservice.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blocked Bloom filter over E.164 numbers. Every number maps to one 512-bit block, a single cache
+ * line, and sets all of its bits there, so a lookup costs one memory access however many hash bits
+ * are tested. Numbers can be added concurrently with lookups; they cannot be removed, so a number
+ * taken off the list stays a false positive until the filter is rebuilt.
+ *
+ * A negative answer is exact, which is what lets a filter miss skip the DNC store. Blocking makes
+ * some blocks fuller than others, which costs more at low false positive rates than the classic
+ * Bloom formula suggests, so the filter is sized with the block load taken into account.
+ */
+public final class BlockedBloomFilter {
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS = WORDS_PER_BLOCK * Long.SIZE;
+    private static final int MAX_HASHES = 14;
+    // Each bit position within a block takes 9 bits of a 64-bit hash, so one hash yields 7 positions
+    // before it is rehashed
+    private static final int BITS_PER_POSITION = Integer.numberOfTrailingZeros(BLOCK_BITS);
+    private static final int HASHES_PER_WORD = Long.SIZE / BITS_PER_POSITION;
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+
+    /**
+     * @param capacity numbers the filter was sized for
+     * @param entries numbers added that set at least one new bit
+     * @param hashes bits set per number
+     * @param memoryBytes size of the bit array
+     * @param targetFalsePositiveRate rate the filter was sized for
+     * @param expectedFalsePositiveRate estimated rate at the current number of entries
+     */
+    public record Stats(long capacity, long entries, int hashes, long memoryBytes,
+                        double targetFalsePositiveRate, double expectedFalsePositiveRate) {
+    }
+
+    private final AtomicLongArray words;
+    private final int blocks;
+    private final int hashes;
+    private final long capacity;
+    private final double targetFalsePositiveRate;
+    private final LongAdder entries = new LongAdder();
+
+    /**
+     * @param capacity numbers the filter is expected to hold
+     * @param falsePositiveRate acceptable rate of clean numbers reported as possibly listed
+     */
+    public BlockedBloomFilter(long capacity, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long n = Math.max(1, capacity);
+        // Start from the classic size and grow until the blocked estimate meets the target
+        double bitsPerNumber = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int k = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerNumber * Math.log(2))));
+        while (falsePositiveRate(BLOCK_BITS / bitsPerNumber, k) > falsePositiveRate) {
+            bitsPerNumber *= 1.02;
+        }
+        long blockCount = (long) Math.ceil(n * bitsPerNumber / BLOCK_BITS);
+        if (blockCount > Integer.MAX_VALUE / WORDS_PER_BLOCK) {
+            throw new IllegalArgumentException("Bloom filter for " + capacity + " numbers is too large");
+        }
+        this.blocks = (int) Math.max(1, blockCount);
+        this.hashes = k;
+        this.words = new AtomicLongArray(blocks * WORDS_PER_BLOCK);
+        this.capacity = capacity;
+        this.targetFalsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Adds a number. It only counts towards {@link #isSaturated()} if it set a bit, so adding a
+     * number again, as a rebuild racing with live additions does, does not use up capacity.
+     */
+    public void put(long number) {
+        long hash = mix(number);
+        int base = block(hash);
+        long bits = mix(hash);
+        boolean flipped = false;
+        for (int i = 0; i < hashes; i++) {
+            if (i == HASHES_PER_WORD) {
+                bits = mix(hash ^ SECOND_HASH_SEED);
+            }
+            int bit = (int) bits & (BLOCK_BITS - 1);
+            bits >>>= BITS_PER_POSITION;
+            int word = base + (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            if ((current & mask) == 0) {
+                flipped |= (words.getAndAccumulate(word, mask, (value, m) -> value | m) & mask) == 0;
+            }
+        }
+        if (flipped) {
+            entries.increment();
+        }
+    }
+
+    /**
+     * @return false if the number was never added; true if it probably was
+     */
+    public boolean mightContain(long number) {
+        long hash = mix(number);
+        int base = block(hash);
+        long bits = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            if (i == HASHES_PER_WORD) {
+                bits = mix(hash ^ SECOND_HASH_SEED);
+            }
+            int bit = (int) bits & (BLOCK_BITS - 1);
+            bits >>>= BITS_PER_POSITION;
+            if ((words.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether more numbers were added than the filter was sized for
+     */
+    public boolean isSaturated() {
+        return entries.sum() > capacity;
+    }
+
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public Stats stats() {
+        long n = entries.sum();
+        double expected = falsePositiveRate((double) n / blocks, hashes);
+        return new Stats(capacity, n, hashes, memoryBytes(), targetFalsePositiveRate, expected);
+    }
+
+    /**
+     * False positive rate with {@code numbersPerBlock} numbers per block on average. Block loads are
+     * Poisson distributed; a block holding j numbers answers a false positive with the classic
+     * probability for j numbers in 512 bits.
+     */
+    private static double falsePositiveRate(double numbersPerBlock, int hashes) {
+        double rate = 0;
+        double poisson = Math.exp(-numbersPerBlock);
+        int limit = (int) (numbersPerBlock + 10 * Math.sqrt(numbersPerBlock) + 10);
+        for (int j = 0; j <= limit; j++) {
+            if (j > 0) {
+                poisson *= numbersPerBlock / j;
+            }
+            double bitSet = 1 - Math.pow(1 - 1.0 / BLOCK_BITS, (double) j * hashes);
+            rate += poisson * Math.pow(bitSet, hashes);
+        }
+        return rate;
+    }
+
+    private int block(long hash) {
+        // Multiply-shift maps the high bits onto [0, blocks) without a division
+        return (int) (((hash >>> 32) * blocks) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    private static long mix(long number) {
+        // MurmurHash3 finalizer: numbers on the list are dense in places, so spread every bit
+        long h = number;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
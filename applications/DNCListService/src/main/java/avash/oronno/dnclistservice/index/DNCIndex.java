@@ -0,0 +1,368 @@
+package avash.oronno.dnclistservice.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable DNC list held in primitive arrays: E.164 numbers sorted ascending in a {@code long[]},
+ * and a parallel {@code short[]} pointing each number at its (source, version) pair in a small
+ * dictionary. That is 10 bytes per number with no per-entry objects, so a national list of a few
+ * hundred million numbers fits in a few gigabytes of heap. Lookups need no locking: a binary search
+ * over every 64th number, small enough to stay mostly in cache, picks the block, then a binary
+ * search within the block finds the number.
+ *
+ * Indexes are built with a {@link Builder} or derived from another index with {@link #merge}; either
+ * way the original is left untouched, so readers holding it keep a consistent view.
+ */
+public final class DNCIndex {
+
+    /** Distinct (source, version) pairs an index can hold. */
+    public static final int MAX_ATTRIBUTES = 1 << 13;
+
+    private static final int ATTRIBUTE_BITS = 13;
+    private static final long ATTRIBUTE_MASK = MAX_ATTRIBUTES - 1;
+    private static final int BLOCK = 64;
+
+    /**
+     * Where a number on the list came from.
+     *
+     * @param source List the number is on, e.g. NATIONAL or CUSTOM
+     * @param version List version that added it
+     */
+    public record Attributes(String source, String version) {
+    }
+
+    private final String version;
+    private final long[] numbers;
+    private final short[] attributeIds;
+    private final Attributes[] attributes;
+    // First number of each block
+    private final long[] fences;
+
+    private DNCIndex(String version, long[] numbers, short[] attributeIds, Attributes[] attributes) {
+        this.version = version;
+        this.numbers = numbers;
+        this.attributeIds = attributeIds;
+        this.attributes = attributes;
+        this.fences = new long[(numbers.length + BLOCK - 1) / BLOCK];
+        for (int block = 0; block < fences.length; block++) {
+            fences[block] = numbers[block * BLOCK];
+        }
+    }
+
+    public static DNCIndex empty(String version) {
+        return new DNCIndex(version, new long[0], new short[0], new Attributes[0]);
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public int size() {
+        return numbers.length;
+    }
+
+    /**
+     * @return Approximate heap used by the index
+     */
+    public long memoryBytes() {
+        return (long) numbers.length * Long.BYTES + (long) attributeIds.length * Short.BYTES
+                + (long) fences.length * Long.BYTES;
+    }
+
+    public boolean contains(long number) {
+        return indexOf(number) >= 0;
+    }
+
+    /**
+     * @return Position of the number, or a negative value if it is not on the list
+     */
+    public int indexOf(long number) {
+        int fence = Arrays.binarySearch(fences, number);
+        if (fence >= 0) {
+            return fence * BLOCK;
+        }
+        int block = -fence - 2;
+        if (block < 0) {
+            return -1;
+        }
+        int from = block * BLOCK;
+        return Arrays.binarySearch(numbers, from, Math.min(numbers.length, from + BLOCK), number);
+    }
+
+    /**
+     * Looks up many numbers in one pass. Each search starts where the previous one ended and gallops
+     * forward, so a sorted batch costs about one scan of the part of the index it spans.
+     *
+     * @param sortedNumbers Numbers to look up, sorted ascending
+     * @param count How many of them to look up
+     * @param listed Set to whether each number is on the list
+     */
+    public void containsAll(long[] sortedNumbers, int count, boolean[] listed) {
+        int from = 0;
+        for (int q = 0; q < count; q++) {
+            long number = sortedNumbers[q];
+            int step = 1;
+            while (from + step < numbers.length && numbers[from + step] < number) {
+                step <<= 1;
+            }
+            int position = Arrays.binarySearch(numbers, from + (step >> 1), Math.min(numbers.length, from + step + 1), number);
+            listed[q] = position >= 0;
+            from = position >= 0 ? position : -position - 1;
+        }
+    }
+
+    public long numberAt(int position) {
+        return numbers[position];
+    }
+
+    public Attributes attributesAt(int position) {
+        return attributes[attributeIds[position]];
+    }
+
+    /**
+     * Derives a new index in one pass over this one. Both arrays must be sorted ascending; a number
+     * in both is removed. The new index's dictionary holds only the attributes its numbers use.
+     *
+     * @param additions Numbers to add, replacing the attributes of numbers already present; of a
+     *                  number added more than once, the last addition wins
+     * @param additionAttributes Attributes of each added number
+     * @param removals Numbers to remove
+     * @param scope If not null, only numbers listed from this source are replaced or removed; numbers
+     *              listed from other sources are left as they are
+     * @param newVersion Version of the new index
+     */
+    public DNCIndex merge(long[] additions, Attributes[] additionAttributes, long[] removals, String scope,
+                          String newVersion) {
+        Map<Attributes, Short> dictionary = new HashMap<>();
+        List<Attributes> merged = new ArrayList<>();
+        // This index's attribute ids in the new dictionary, assigned on first use
+        short[] remap = new short[attributes.length];
+        Arrays.fill(remap, (short) -1);
+
+        long[] mergedNumbers = new long[numbers.length + additions.length];
+        short[] mergedIds = new short[mergedNumbers.length];
+        int size = 0;
+        // Whether the last number written is one listed from outside the scope, kept over an addition
+        boolean keptOutOfScope = false;
+        int i = 0;
+        int a = 0;
+        int r = 0;
+        while (i < numbers.length || a < additions.length) {
+            long number;
+            // Either the attributes of an addition, or the id of a number already listed
+            Attributes added = null;
+            short existing = -1;
+            if (a >= additions.length || (i < numbers.length && numbers[i] < additions[a])) {
+                number = numbers[i];
+                existing = attributeIds[i++];
+            } else {
+                number = additions[a];
+                added = additionAttributes[a++];
+                if (i < numbers.length && numbers[i] == number) {
+                    if (!inScope(attributes[attributeIds[i]], scope)) {
+                        added = null;
+                        existing = attributeIds[i];
+                    }
+                    i++;
+                }
+            }
+            while (r < removals.length && removals[r] < number) {
+                r++;
+            }
+            if (r < removals.length && removals[r] == number
+                    && inScope(added != null ? added : attributes[existing], scope)) {
+                continue;
+            }
+            short id;
+            if (added != null) {
+                id = attributeId(added, dictionary, merged);
+            } else {
+                if (remap[existing] < 0) {
+                    remap[existing] = attributeId(attributes[existing], dictionary, merged);
+                }
+                id = remap[existing];
+            }
+            if (size > 0 && mergedNumbers[size - 1] == number) {
+                // A repeated addition; the later one wins, unless the number is not the scope's to replace
+                if (!keptOutOfScope) {
+                    mergedIds[size - 1] = id;
+                }
+                continue;
+            }
+            keptOutOfScope = added == null && a > 0 && additions[a - 1] == number;
+            mergedNumbers[size] = number;
+            mergedIds[size++] = id;
+        }
+        return new DNCIndex(newVersion, trim(mergedNumbers, size), trim(mergedIds, size),
+                merged.toArray(Attributes[]::new));
+    }
+
+    private static boolean inScope(Attributes attributes, String scope) {
+        return scope == null || scope.equals(attributes.source());
+    }
+
+    private static long[] trim(long[] array, int size) {
+        return array.length == size ? array : Arrays.copyOf(array, size);
+    }
+
+    private static short[] trim(short[] array, int size) {
+        return array.length == size ? array : Arrays.copyOf(array, size);
+    }
+
+    private static short attributeId(Attributes value, Map<Attributes, Short> dictionary, List<Attributes> attributes) {
+        return dictionary.computeIfAbsent(value, key -> {
+            if (attributes.size() == MAX_ATTRIBUTES) {
+                throw new IllegalStateException("DNC index holds more than " + MAX_ATTRIBUTES + " source/version pairs");
+            }
+            attributes.add(key);
+            return (short) (attributes.size() - 1);
+        });
+    }
+
+    /**
+     * Sorts without the extra array {@link Arrays#parallelSort} needs, which would add 8 bytes per
+     * number to the peak memory of a build: one in-place pass partitions the values into buckets by
+     * range, and the buckets are then sorted in parallel.
+     *
+     * @param from First index to sort, inclusive
+     * @param to Last index to sort, exclusive
+     */
+    static void sortInPlace(long[] values, int from, int to) {
+        int buckets = 1024;
+        if (to - from < buckets * 64) {
+            Arrays.sort(values, from, to);
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        double scale = buckets / ((double) max - min + 1);
+        int[] starts = new int[buckets + 1];
+        starts[0] = from;
+        for (int i = from; i < to; i++) {
+            starts[bucket(values[i], min, scale, buckets) + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            starts[b + 1] += starts[b];
+        }
+        int[] next = Arrays.copyOf(starts, buckets);
+        for (int b = 0; b < buckets; b++) {
+            while (next[b] < starts[b + 1]) {
+                long value = values[next[b]];
+                int target = bucket(value, min, scale, buckets);
+                while (target != b) {
+                    long displaced = values[next[target]];
+                    values[next[target]++] = value;
+                    value = displaced;
+                    target = bucket(value, min, scale, buckets);
+                }
+                values[next[b]++] = value;
+            }
+        }
+        IntStream.range(0, buckets).parallel().forEach(b -> Arrays.sort(values, starts[b], starts[b + 1]));
+    }
+
+    private static int bucket(long value, long min, double scale, int buckets) {
+        return Math.min(buckets - 1, (int) ((value - min) * scale));
+    }
+
+    /**
+     * Collects numbers in any order and builds a sorted index. Each number is packed with its
+     * attribute id into a single {@code long} while collecting, and sorted in place, so a build
+     * peaks at 10 bytes per number, plus 8 per distinct number when the builder's capacity has to be
+     * trimmed at the end. A number added twice keeps the attributes registered first.
+     */
+    public static final class Builder {
+
+        private final Map<Attributes, Short> dictionary = new HashMap<>();
+        private final List<Attributes> attributes = new ArrayList<>();
+        private long[] packed;
+        private int size;
+        // Consecutive numbers usually share attributes
+        private String lastSource;
+        private String lastVersion;
+        private short lastId;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            packed = new long[Math.max(16, expectedSize)];
+        }
+
+        /**
+         * @param number E.164 number from {@link PhoneNumbers#parse}
+         */
+        public Builder add(long number, String source, String version) {
+            if (size == 0 || source != lastSource || version != lastVersion) {
+                lastId = attributeId(new Attributes(source, version), dictionary, attributes);
+                lastSource = source;
+                lastVersion = version;
+            }
+            ensureCapacity(size + 1);
+            packed[size++] = number << ATTRIBUTE_BITS | lastId;
+            return this;
+        }
+
+        /**
+         * Adds every number of another builder, e.g. one that parsed a different part of the same file.
+         */
+        public Builder addAll(Builder other) {
+            short[] ids = new short[other.attributes.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = attributeId(other.attributes.get(i), dictionary, attributes);
+            }
+            ensureCapacity(size + other.size);
+            for (int i = 0; i < other.size; i++) {
+                long entry = other.packed[i];
+                packed[size++] = (entry & ~ATTRIBUTE_MASK) | ids[(int) (entry & ATTRIBUTE_MASK)];
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > packed.length) {
+                packed = Arrays.copyOf(packed, Math.max(capacity, packed.length + (packed.length >> 1)));
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public DNCIndex build(String version) {
+            // Sorted and de-duplicated in place: numbers overwrite the packed entries they came from
+            long[] numbers = packed;
+            packed = null;
+            sortInPlace(numbers, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || numbers[i - 1] >>> ATTRIBUTE_BITS != numbers[i] >>> ATTRIBUTE_BITS) {
+                    distinct++;
+                }
+            }
+            short[] ids = new short[distinct];
+            distinct = 0;
+            for (int i = 0; i < size; i++) {
+                long entry = numbers[i];
+                long number = entry >>> ATTRIBUTE_BITS;
+                // Entries sort by attribute id within a number, so the first one seen was registered first
+                if (distinct == 0 || numbers[distinct - 1] != number) {
+                    numbers[distinct] = number;
+                    ids[distinct++] = (short) (entry & ATTRIBUTE_MASK);
+                }
+            }
+            // The only copy, and none when the builder was sized exactly
+            return new DNCIndex(version, trim(numbers, distinct), ids, attributes.toArray(Attributes[]::new));
+        }
+    }
+}
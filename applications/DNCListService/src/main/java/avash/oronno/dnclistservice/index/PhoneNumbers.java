@@ -0,0 +1,91 @@
+package avash.oronno.dnclistservice.index;
+
+/**
+ * E.164 phone numbers as {@code long}s: the country code and subscriber digits, without the plus.
+ */
+public final class PhoneNumbers {
+
+    /** Returned by {@link #parse} for input that is not a phone number. */
+    public static final long INVALID = -1;
+
+    private static final int MAX_DIGITS = 15;
+    private static final int MIN_DIGITS = 7;
+    // Longest national number written without its country code
+    private static final int MAX_NATIONAL_DIGITS = 10;
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * Normalizes a phone number to E.164. Spaces, dashes, dots and parentheses are ignored. Numbers
+     * starting with {@code +} or {@code 00} are international, and invalid if the country code
+     * starts with 0. Any other number is national: a leading trunk prefix 0 is dropped, as in
+     * "07700 900123", and {@code defaultCountryCode} is prepended, unless the number is longer than
+     * a national number and already starts with it.
+     *
+     * @param phoneNumber Phone number as written
+     * @param defaultCountryCode Country code for national numbers, e.g. "1"
+     * @return The number, or {@link #INVALID}
+     */
+    public static long parse(CharSequence phoneNumber, String defaultCountryCode) {
+        if (phoneNumber == null) {
+            return INVALID;
+        }
+        boolean international = false;
+        boolean internationalPrefix = false;
+        boolean trunkPrefix = false;
+        long number = 0;
+        int digits = 0;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS + 2) {
+                    return INVALID;
+                }
+                // Leading zeros are dropped from the value, so a country code starting with one would collide
+                if (c == '0' && (international && digits == 1 || internationalPrefix && digits == 3)) {
+                    return INVALID;
+                }
+                number = number * 10 + (c - '0');
+                if (digits == 1 && number == 0 && !international) {
+                    trunkPrefix = true;
+                } else if (digits == 2 && number == 0 && !international) {
+                    internationalPrefix = true;
+                }
+            } else if (c == '+' && digits == 0 && !international) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return INVALID;
+            }
+        }
+        if (internationalPrefix) {
+            international = true;
+            digits -= 2;
+        } else if (trunkPrefix) {
+            digits--;
+        }
+        if (!international && defaultCountryCode != null
+                && (digits <= MAX_NATIONAL_DIGITS || !String.valueOf(number).startsWith(defaultCountryCode))) {
+            long countryCode = Long.parseLong(defaultCountryCode);
+            number = countryCode * pow10(digits) + number;
+            digits += defaultCountryCode.length();
+        }
+        return digits >= MIN_DIGITS && digits <= MAX_DIGITS ? number : INVALID;
+    }
+
+    /**
+     * @param number E.164 number from {@link #parse}
+     * @return The number with its leading plus
+     */
+    public static String format(long number) {
+        return "+" + number;
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+}
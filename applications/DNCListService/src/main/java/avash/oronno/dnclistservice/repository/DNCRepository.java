@@ -1,15 +1,33 @@
 package avash.oronno.dnclistservice.repository;
 
 import avash.oronno.dnclistservice.dto.DNCCheckResponse;
+import avash.oronno.dnclistservice.index.DNCIndex;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
 public interface DNCRepository {
     void addToDNC(String phoneNumber, String source);
     boolean isDNC(String phoneNumber);
+    /** Checks E.164 numbers sorted ascending, setting {@code listed[i]} for each of the first {@code count}. */
+    void isDNC(long[] sortedNumbers, int count, boolean[] listed);
     Optional<DNCCheckResponse> checkDNC(String phoneNumber);
     void removeFromDNC(String phoneNumber);
     List<String> getAllDNC();
+    long countDNC();
+    /** Passes every listed number, normalized to E.164, to the action. */
+    void forEachDNC(LongConsumer action);
+    /**
+     * The whole list as an index, with changes made since it was built folded in. Changes made from
+     * here on are kept until the next {@link #replaceIndex}.
+     */
+    DNCIndex getIndex();
+    /**
+     * Makes {@code index} the list in one step. Numbers added or removed after the {@link #getIndex()}
+     * it was derived from are applied on top of it. Passing back the {@code getIndex()} result itself
+     * abandons a derived index without losing any change.
+     */
+    void replaceIndex(DNCIndex index);
 }
 
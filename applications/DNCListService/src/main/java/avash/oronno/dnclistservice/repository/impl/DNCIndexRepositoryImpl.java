@@ -0,0 +1,243 @@
+package avash.oronno.dnclistservice.repository.impl;
+
+import avash.oronno.dnclistservice.dto.DNCCheckResponse;
+import avash.oronno.dnclistservice.index.DNCIndex;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
+import avash.oronno.dnclistservice.repository.DNCRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * DNC repository backed by a {@link DNCIndex}: numbers normalized to E.164 {@code long}s in sorted
+ * primitive arrays, about 10 bytes per number.
+ *
+ * Reads never lock. They see one immutable index plus a small overlay of numbers added or removed
+ * since it was built; once the overlay reaches {@code dnc.index.compact-threshold} entries it is
+ * merged into a new index, which replaces the old one in a single volatile write.
+ *
+ * Changes made after {@link #getIndex()} are also journaled until the derived index is passed to
+ * {@link #replaceIndex}, which replays them on top of it; the overlay alone is not enough, since a
+ * compaction during a sync folds it into an index that the sync's result replaces.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "dnc.repository", havingValue = "index", matchIfMissing = true)
+public class DNCIndexRepositoryImpl implements DNCRepository {
+
+    private record State(DNCIndex index, Map<Long, String> additions, Set<Long> removals) {
+
+        static State of(DNCIndex index) {
+            return new State(index, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    private volatile State state = State.of(DNCIndex.empty(null));
+    // Changes since the last getIndex(): number to the source it was added with, or null if removed
+    private Map<Long, String> changesSinceSnapshot;
+
+    @Value("${dnc.default-country-code:1}")
+    private String defaultCountryCode;
+
+    @Value("${dnc.index.compact-threshold:10000}")
+    private int compactThreshold;
+
+    // Each source takes an entry per list version in the index's attribute dictionary, which is bounded
+    @Value("${dnc.index.max-sources:256}")
+    private int maxSources;
+
+    private final Set<String> sources = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public synchronized void addToDNC(String phoneNumber, String source) {
+        long number = parse(phoneNumber);
+        if (!sources.contains(source) && sources.size() >= maxSources) {
+            throw new IllegalArgumentException("Too many distinct DNC sources; not adding source " + source);
+        }
+        sources.add(source);
+        State current = state;
+        current.additions().put(number, source);
+        current.removals().remove(number);
+        if (changesSinceSnapshot != null) {
+            changesSinceSnapshot.put(number, source);
+        }
+        compactIfNeeded(current);
+        log.debug("Added phone number to DNC list: {}", phoneNumber);
+    }
+
+    @Override
+    public boolean isDNC(String phoneNumber) {
+        long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+        boolean isDNC = number != PhoneNumbers.INVALID && contains(state, number);
+        log.debug("Checked DNC status for phone number: {} - Result: {}", phoneNumber, isDNC);
+        return isDNC;
+    }
+
+    @Override
+    public void isDNC(long[] sortedNumbers, int count, boolean[] listed) {
+        State current = state;
+        current.index().containsAll(sortedNumbers, count, listed);
+        if (current.additions().isEmpty() && current.removals().isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            long number = sortedNumbers[i];
+            listed[i] = !current.removals().contains(number)
+                    && (listed[i] || current.additions().containsKey(number));
+        }
+    }
+
+    @Override
+    public Optional<DNCCheckResponse> checkDNC(String phoneNumber) {
+        DNCCheckResponse response = new DNCCheckResponse();
+        response.setPhoneNumber(phoneNumber);
+        response.setCheckedAt(LocalDateTime.now());
+
+        long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+        State current = state;
+        response.setListVersion(current.index().version());
+        if (number != PhoneNumbers.INVALID && !current.removals().contains(number)) {
+            String addedSource = current.additions().get(number);
+            int position = current.index().indexOf(number);
+            if (addedSource != null) {
+                response.setDNC(true);
+                response.setSource(addedSource);
+            } else if (position >= 0) {
+                DNCIndex.Attributes attributes = current.index().attributesAt(position);
+                response.setDNC(true);
+                response.setSource(attributes.source());
+                response.setAddedInVersion(attributes.version());
+            }
+        }
+        log.debug("Checked DNC for phone number: {}", phoneNumber);
+        return Optional.of(response);
+    }
+
+    @Override
+    public synchronized void removeFromDNC(String phoneNumber) {
+        long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+        if (number == PhoneNumbers.INVALID) {
+            return;
+        }
+        State current = state;
+        current.removals().add(number);
+        current.additions().remove(number);
+        if (changesSinceSnapshot != null) {
+            changesSinceSnapshot.put(number, null);
+        }
+        compactIfNeeded(current);
+        log.debug("Removed phone number from DNC list: {}", phoneNumber);
+    }
+
+    @Override
+    public List<String> getAllDNC() {
+        State current = state;
+        List<String> numbers = new ArrayList<>(current.index().size() + current.additions().size());
+        for (int i = 0; i < current.index().size(); i++) {
+            long number = current.index().numberAt(i);
+            if (!current.removals().contains(number) && !current.additions().containsKey(number)) {
+                numbers.add(PhoneNumbers.format(number));
+            }
+        }
+        current.additions().keySet().forEach(number -> numbers.add(PhoneNumbers.format(number)));
+        log.debug("Retrieving all DNC phone numbers, count: {}", numbers.size());
+        return numbers;
+    }
+
+    @Override
+    public long countDNC() {
+        State current = state;
+        // The overlay is bounded by the compaction threshold, so checking it against the index is cheap
+        long count = current.index().size();
+        for (long number : current.additions().keySet()) {
+            if (!current.index().contains(number)) {
+                count++;
+            }
+        }
+        for (long number : current.removals()) {
+            if (current.index().contains(number)) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void forEachDNC(LongConsumer action) {
+        State current = state;
+        for (int i = 0; i < current.index().size(); i++) {
+            long number = current.index().numberAt(i);
+            if (!current.removals().contains(number) && !current.additions().containsKey(number)) {
+                action.accept(number);
+            }
+        }
+        current.additions().keySet().forEach(action::accept);
+    }
+
+    @Override
+    public synchronized DNCIndex getIndex() {
+        compact(state);
+        changesSinceSnapshot = new HashMap<>();
+        return state.index();
+    }
+
+    @Override
+    public synchronized void replaceIndex(DNCIndex index) {
+        State current = state;
+        if (changesSinceSnapshot == null) {
+            state = new State(index, current.additions(), current.removals());
+        } else {
+            State next = State.of(index);
+            changesSinceSnapshot.forEach((number, source) -> {
+                if (source != null) {
+                    next.additions().put(number, source);
+                } else {
+                    next.removals().add(number);
+                }
+            });
+            changesSinceSnapshot = null;
+            state = next;
+        }
+        compactIfNeeded(state);
+        log.info("DNC list is now version {} with {} numbers", index.version(), index.size());
+    }
+
+    private static boolean contains(State state, long number) {
+        return !state.removals().contains(number)
+                && (state.additions().containsKey(number) || state.index().contains(number));
+    }
+
+    private long parse(String phoneNumber) {
+        long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+        if (number == PhoneNumbers.INVALID) {
+            throw new IllegalArgumentException("Not a phone number: " + phoneNumber);
+        }
+        return number;
+    }
+
+    private void compactIfNeeded(State current) {
+        if (current.additions().size() + current.removals().size() >= compactThreshold) {
+            compact(current);
+        }
+    }
+
+    private void compact(State current) {
+        if (current.additions().isEmpty() && current.removals().isEmpty()) {
+            return;
+        }
+        long[] additions = current.additions().keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        DNCIndex.Attributes[] attributes = new DNCIndex.Attributes[additions.length];
+        for (int i = 0; i < additions.length; i++) {
+            attributes[i] = new DNCIndex.Attributes(current.additions().get(additions[i]), current.index().version());
+        }
+        long[] removals = current.removals().stream().mapToLong(Long::longValue).sorted().toArray();
+        state = State.of(current.index().merge(additions, attributes, removals, null, current.index().version()));
+        log.debug("Compacted DNC index to {} numbers", state.index().size());
+    }
+}
@@ -1,25 +1,34 @@
 package avash.oronno.dnclistservice.repository.impl;
 
 import avash.oronno.dnclistservice.dto.DNCCheckResponse;
+import avash.oronno.dnclistservice.index.DNCIndex;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
 import avash.oronno.dnclistservice.repository.DNCRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 
 @Slf4j
 @Repository
+@ConditionalOnProperty(name = "dnc.repository", havingValue = "map")
 public class DNCRepositoryImpl implements DNCRepository {
     
     private final Map<String, DNCCheckResponse> store = new ConcurrentHashMap<>();
 
+    @Value("${dnc.default-country-code:1}")
+    private String defaultCountryCode;
+
     @Override
     public void addToDNC(String phoneNumber, String source) {
         DNCCheckResponse response = new DNCCheckResponse();
         response.setPhoneNumber(phoneNumber);
-        response.setIsDNC(true);
+        response.setDNC(true);
         response.setSource(source);
         response.setCheckedAt(LocalDateTime.now());
         store.put(phoneNumber, response);
@@ -29,18 +38,26 @@ public class DNCRepositoryImpl implements DNCRepository {
     @Override
     public boolean isDNC(String phoneNumber) {
         DNCCheckResponse response = store.get(phoneNumber);
-        boolean isDNC = response != null && response.isIsDNC();
+        boolean isDNC = response != null && response.isDNC();
         log.debug("Checked DNC status for phone number: {} - Result: {}", phoneNumber, isDNC);
         return isDNC;
     }
 
+    @Override
+    public void isDNC(long[] sortedNumbers, int count, boolean[] listed) {
+        // Numbers are stored as they were added, so only ones added in E.164 form are found
+        for (int i = 0; i < count; i++) {
+            listed[i] = isDNC(PhoneNumbers.format(sortedNumbers[i]));
+        }
+    }
+
     @Override
     public Optional<DNCCheckResponse> checkDNC(String phoneNumber) {
         DNCCheckResponse response = store.get(phoneNumber);
         if (response == null) {
             response = new DNCCheckResponse();
             response.setPhoneNumber(phoneNumber);
-            response.setIsDNC(false);
+            response.setDNC(false);
             response.setCheckedAt(LocalDateTime.now());
         }
         log.debug("Checked DNC for phone number: {}", phoneNumber);
@@ -58,5 +75,50 @@ public class DNCRepositoryImpl implements DNCRepository {
         log.debug("Retrieving all DNC phone numbers, count: {}", store.size());
         return new ArrayList<>(store.keySet());
     }
+
+    @Override
+    public long countDNC() {
+        return store.size();
+    }
+
+    @Override
+    public DNCIndex getIndex() {
+        DNCIndex.Builder builder = new DNCIndex.Builder(store.size());
+        store.forEach((phoneNumber, response) -> {
+            long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+            if (number != PhoneNumbers.INVALID) {
+                builder.add(number, response.getSource(), response.getAddedInVersion());
+            }
+        });
+        return builder.build(null);
+    }
+
+    @Override
+    public void replaceIndex(DNCIndex index) {
+        // Not atomic, and changes made while the index was built are lost; fine for development use
+        Map<String, DNCCheckResponse> replacement = new HashMap<>();
+        for (int i = 0; i < index.size(); i++) {
+            DNCCheckResponse response = new DNCCheckResponse();
+            response.setPhoneNumber(PhoneNumbers.format(index.numberAt(i)));
+            response.setDNC(true);
+            response.setSource(index.attributesAt(i).source());
+            response.setListVersion(index.version());
+            response.setAddedInVersion(index.attributesAt(i).version());
+            response.setCheckedAt(LocalDateTime.now());
+            replacement.put(response.getPhoneNumber(), response);
+        }
+        store.clear();
+        store.putAll(replacement);
+    }
+
+    @Override
+    public void forEachDNC(LongConsumer action) {
+        for (String phoneNumber : store.keySet()) {
+            long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+            if (number != PhoneNumbers.INVALID) {
+                action.accept(number);
+            }
+        }
+    }
 }
 
@@ -1,8 +1,14 @@
 package avash.oronno.dnclistservice.service;
 
+import avash.oronno.dnclistservice.dto.DNCBatchSummary;
 import avash.oronno.dnclistservice.dto.DNCCheckRequest;
 import avash.oronno.dnclistservice.dto.DNCCheckResponse;
+import avash.oronno.dnclistservice.dto.DNCDelta;
+import avash.oronno.dnclistservice.dto.DNCFilterStats;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +17,11 @@ public interface DNCListService {
     void addToDNC(String phoneNumber, String source);
     void removeFromDNC(String phoneNumber);
     boolean isDNC(String phoneNumber);
+    DNCBatchSummary checkBatch(InputStream numbers, OutputStream suppressed) throws IOException;
     List<String> getAllDNC();
-    void syncNationalDNC();
+    void syncNationalDNC(String version);
+    List<DNCDelta> syncDeltaDNC();
+    Optional<List<DNCDelta>> getDeltasSince(String version);
+    DNCFilterStats getFilterStats();
 }
 
@@ -1,23 +1,125 @@
 package avash.oronno.dnclistservice.service.impl;
 
+import avash.oronno.dnclistservice.dto.DNCBatchSummary;
 import avash.oronno.dnclistservice.dto.DNCCheckRequest;
 import avash.oronno.dnclistservice.dto.DNCCheckResponse;
+import avash.oronno.dnclistservice.dto.DNCDelta;
+import avash.oronno.dnclistservice.dto.DNCFilterStats;
+import avash.oronno.dnclistservice.exception.DNCSyncException;
+import avash.oronno.dnclistservice.index.BlockedBloomFilter;
+import avash.oronno.dnclistservice.index.DNCIndex;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
 import avash.oronno.dnclistservice.repository.DNCRepository;
 import avash.oronno.dnclistservice.service.DNCListService;
+import avash.oronno.dnclistservice.sync.DeltaDNCLoader;
+import avash.oronno.dnclistservice.sync.NationalDNCLoader;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 @Slf4j
 @Service
 public class DNCListServiceImpl implements DNCListService {
-    
+
+    // Numbers looked up together in a batch check; a chunk position fits in the bits below a number
+    private static final int BATCH_CHUNK = 8192;
+    private static final int CHUNK_POSITION_BITS = 13;
+    private static final byte CLEAN = 0;
+    private static final byte LISTED = 1;
+    private static final byte INVALID = 2;
+    private static final DateTimeFormatter LIST_VERSION = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
     private final DNCRepository dncRepository;
+    private final ObjectMapper objectMapper;
+    private final NationalDNCLoader nationalDNCLoader;
+    private final DeltaDNCLoader deltaDNCLoader;
+    // Guards filter and list swaps against concurrent additions, which must land in the new filter
+    private final Object filterLock = new Object();
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    // Numbers added while a sync builds the next list, for its filter; guarded by filterLock
+    private List<Long> additionsDuringSync;
+    // Numbers added while the filter is rebuilt, for the rebuilt filter; guarded by filterLock
+    private List<Long> additionsDuringRebuild;
+    // One rebuild at a time; held for the whole rebuild, but never by a request
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService filterRebuilds = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dnc-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder filterChecks = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private volatile BlockedBloomFilter filter;
+    private volatile LocalDateTime filterBuiltAt;
+    private volatile String listVersion;
+    // Deltas applied on this node, oldest first; guarded by itself
+    private final Deque<DNCDelta> appliedDeltas = new ArrayDeque<>();
+
+    @Value("${dnc.default-country-code:1}")
+    private String defaultCountryCode;
+
+    @Value("${dnc.filter.enabled:true}")
+    private boolean filterEnabled;
+
+    @Value("${dnc.filter.false-positive-rate:0.01}")
+    private double filterFalsePositiveRate;
+
+    // Room for numbers added between rebuilds, as a fraction of the list
+    @Value("${dnc.filter.growth-allowance:0.1}")
+    private double filterGrowthAllowance;
 
-    public DNCListServiceImpl(DNCRepository dncRepository) {
+    @Value("${dnc.sync.delta.history:1000}")
+    private int deltaHistory;
+
+    public DNCListServiceImpl(DNCRepository dncRepository, ObjectMapper objectMapper,
+                              NationalDNCLoader nationalDNCLoader, DeltaDNCLoader deltaDNCLoader) {
         this.dncRepository = dncRepository;
+        this.objectMapper = objectMapper;
+        this.nationalDNCLoader = nationalDNCLoader;
+        this.deltaDNCLoader = deltaDNCLoader;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuildFilter();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        filterRebuilds.shutdownNow();
     }
 
     @Override
@@ -27,7 +129,7 @@ public class DNCListServiceImpl implements DNCListService {
         return response.orElseGet(() -> {
             DNCCheckResponse newResponse = new DNCCheckResponse();
             newResponse.setPhoneNumber(request.getPhoneNumber());
-            newResponse.setIsDNC(false);
+            newResponse.setDNC(false);
             return newResponse;
         });
     }
@@ -35,32 +137,475 @@ public class DNCListServiceImpl implements DNCListService {
     @Override
     public void addToDNC(String phoneNumber, String source) {
         log.info("Adding phone number to DNC list: {}, Source: {}", phoneNumber, source);
-        dncRepository.addToDNC(phoneNumber, source);
+        synchronized (filterLock) {
+            // Into the filter first, so no lookup can find the number listed but filtered out
+            BlockedBloomFilter current = filter;
+            long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+            if (current != null && number != PhoneNumbers.INVALID) {
+                current.put(number);
+            }
+            if (additionsDuringSync != null && number != PhoneNumbers.INVALID) {
+                additionsDuringSync.add(number);
+            }
+            if (additionsDuringRebuild != null && number != PhoneNumbers.INVALID) {
+                additionsDuringRebuild.add(number);
+            }
+            dncRepository.addToDNC(phoneNumber, source);
+            // A saturated filter only lets more clean numbers through to the list; it never misses a listed one
+            if (current != null && current.isSaturated()) {
+                scheduleFilterRebuild();
+            }
+        }
     }
 
     @Override
     public void removeFromDNC(String phoneNumber) {
         log.info("Removing phone number from DNC list: {}", phoneNumber);
+        // The filter keeps the number as a false positive until the next rebuild
         dncRepository.removeFromDNC(phoneNumber);
     }
 
     @Override
     public boolean isDNC(String phoneNumber) {
         log.debug("Checking if phone number is DNC: {}", phoneNumber);
+        BlockedBloomFilter current = filter;
+        if (current != null) {
+            long number = PhoneNumbers.parse(phoneNumber, defaultCountryCode);
+            if (number != PhoneNumbers.INVALID) {
+                filterChecks.increment();
+                if (!current.mightContain(number)) {
+                    filtered.increment();
+                    return false;
+                }
+            }
+        }
         return dncRepository.isDNC(phoneNumber);
     }
 
+    /**
+     * Screens a dial list in chunks of {@value #BATCH_CHUNK} numbers, so memory stays flat however
+     * long the list is. Input is NDJSON: one number per line, as a JSON string, an object with a
+     * {@code phoneNumber} field, or bare text. Every suppressed number, on the list or not a valid
+     * number, is written out as it is found, followed by a summary line.
+     *
+     * Within a chunk the Bloom filter clears most numbers; the rest are sorted and looked up in one
+     * pass over the list.
+     */
+    @Override
+    public DNCBatchSummary checkBatch(InputStream numbers, OutputStream suppressed) throws IOException {
+        long started = System.nanoTime();
+        DNCBatchSummary summary = new DNCBatchSummary();
+        BatchChunk chunk = new BatchChunk();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(numbers, StandardCharsets.UTF_8));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(suppressed)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String phoneNumber = batchPhoneNumber(line);
+                if (phoneNumber == null) {
+                    continue;
+                }
+                chunk.phoneNumbers[chunk.size++] = phoneNumber;
+                if (chunk.size == BATCH_CHUNK) {
+                    checkChunk(chunk, summary, generator);
+                }
+            }
+            checkChunk(chunk, summary, generator);
+            summary.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+            generator.writeStartObject();
+            generator.writePOJOField("summary", summary);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        log.info("Batch DNC check of {} numbers: {} suppressed, {} invalid, in {} ms", summary.getTotal(),
+                summary.getSuppressed(), summary.getInvalid(), summary.getElapsedMillis());
+        return summary;
+    }
+
     @Override
     public List<String> getAllDNC() {
         log.debug("Retrieving all DNC phone numbers");
         return dncRepository.getAllDNC();
     }
 
+    /**
+     * Replaces the national numbers on the list with the registry file's, as a new list version.
+     *
+     * The new list is built off to the side from a snapshot while lookups keep using the current
+     * one, then swapped in whole: no lookup waits on the sync or sees a partly loaded list. Numbers
+     * added or removed during the sync are applied on top of the new list. Its Bloom filter is built
+     * before the swap and replaces the old one just ahead of the list, so memory peaks at about the
+     * old and new list side by side.
+     *
+     * @param version Version of the registry file, so deltas published against it can be applied
+     *                later; null stamps the sync with the current time
+     * @throws DNCSyncException if no national source is configured, or another sync is running
+     */
     @Override
-    public void syncNationalDNC() {
+    public void syncNationalDNC(String version) {
         log.info("Syncing national DNC list");
-        // TODO: Implement actual national DNC list synchronization from external APIs
-        log.info("National DNC list sync completed");
+        if (!nationalDNCLoader.isConfigured()) {
+            throw new DNCSyncException(DNCSyncException.Reason.NOT_CONFIGURED,
+                    "No national DNC source configured (dnc.sync.national.source)");
+        }
+        if (!syncing.compareAndSet(false, true)) {
+            throw new DNCSyncException(DNCSyncException.Reason.SYNC_RUNNING, "A DNC sync is already running");
+        }
+        DNCIndex current = null;
+        boolean replaced = false;
+        try {
+            synchronized (filterLock) {
+                current = dncRepository.getIndex();
+                additionsDuringSync = new ArrayList<>();
+            }
+            DNCIndex next = nationalDNCLoader.load(current, version != null ? version : LIST_VERSION.format(Instant.now()));
+            BlockedBloomFilter nextFilter = null;
+            if (filterEnabled) {
+                nextFilter = newFilter(next.size());
+                for (int i = 0; i < next.size(); i++) {
+                    nextFilter.put(next.numberAt(i));
+                }
+            }
+            synchronized (filterLock) {
+                if (nextFilter != null) {
+                    additionsDuringSync.forEach(nextFilter::put);
+                    filter = nextFilter;
+                    filterBuiltAt = LocalDateTime.now();
+                }
+                dncRepository.replaceIndex(next);
+                replaced = true;
+                listVersion = next.version();
+            }
+            // No delta leads to a national sync, so older versions can no longer catch up through this node
+            synchronized (appliedDeltas) {
+                appliedDeltas.clear();
+            }
+            log.info("National DNC list sync completed: version {}, {} numbers", next.version(), next.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("National DNC list sync failed", e);
+        } finally {
+            synchronized (filterLock) {
+                additionsDuringSync = null;
+            }
+            if (current != null && !replaced) {
+                // Hands the snapshot back, so the repository stops journaling changes for it
+                dncRepository.replaceIndex(current);
+            }
+            syncing.set(false);
+        }
     }
-}
 
+    /**
+     * Brings the national numbers up to the registry's latest version by applying its change files
+     * to the current list, without reading the full national file.
+     *
+     * All pending deltas are folded into one set of additions and removals, later deltas winning,
+     * and merged into the list in a single pass, so a sync costs one copy of the list however many
+     * deltas it covers. Deltas only touch national numbers. Additions go into the current Bloom
+     * filter instead of a rebuilt one; removed numbers stay in it as false positives until it is
+     * next rebuilt.
+     *
+     * @return The deltas applied, oldest first
+     * @throws DNCSyncException if no delta manifest is configured, another sync is running, or the
+     *                          list's version is not on the delta chain
+     */
+    @Override
+    public List<DNCDelta> syncDeltaDNC() {
+        if (!deltaDNCLoader.isConfigured()) {
+            throw new DNCSyncException(DNCSyncException.Reason.NOT_CONFIGURED,
+                    "No DNC delta manifest configured (dnc.sync.delta.manifest)");
+        }
+        if (!syncing.compareAndSet(false, true)) {
+            throw new DNCSyncException(DNCSyncException.Reason.SYNC_RUNNING, "A DNC sync is already running");
+        }
+        DNCIndex current = null;
+        boolean replaced = false;
+        try {
+            long started = System.nanoTime();
+            current = dncRepository.getIndex();
+            List<DeltaDNCLoader.Delta> pending = deltaDNCLoader.pending(current.version());
+            if (pending.isEmpty()) {
+                log.info("DNC list is up to date at version {}", current.version());
+                return List.of();
+            }
+
+            // Number to the attributes it is added with, or null if removed
+            Map<Long, DNCIndex.Attributes> changes = new HashMap<>();
+            List<DNCDelta> applied = new ArrayList<>(pending.size());
+            for (DeltaDNCLoader.Delta delta : pending) {
+                long[] additions = deltaDNCLoader.read(delta.additions());
+                long[] removals = deltaDNCLoader.read(delta.removals());
+                DNCIndex.Attributes attributes = new DNCIndex.Attributes(NationalDNCLoader.NATIONAL, delta.toVersion());
+                for (long number : additions) {
+                    changes.put(number, attributes);
+                }
+                for (long number : removals) {
+                    changes.put(number, null);
+                }
+                DNCDelta record = new DNCDelta();
+                record.setFromVersion(delta.fromVersion());
+                record.setToVersion(delta.toVersion());
+                record.setAdditionsSource(delta.additions());
+                record.setRemovalsSource(delta.removals());
+                record.setAdditions(additions.length);
+                record.setRemovals(removals.length);
+                applied.add(record);
+            }
+            long[] numbers = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] additions = new long[numbers.length];
+            DNCIndex.Attributes[] additionAttributes = new DNCIndex.Attributes[numbers.length];
+            long[] removals = new long[numbers.length];
+            int added = 0;
+            int removed = 0;
+            for (long number : numbers) {
+                DNCIndex.Attributes attributes = changes.get(number);
+                if (attributes != null) {
+                    additionAttributes[added] = attributes;
+                    additions[added++] = number;
+                } else {
+                    removals[removed++] = number;
+                }
+            }
+            String version = pending.get(pending.size() - 1).toVersion();
+            DNCIndex next = current.merge(Arrays.copyOf(additions, added), Arrays.copyOf(additionAttributes, added),
+                    Arrays.copyOf(removals, removed), NationalDNCLoader.NATIONAL, version);
+
+            boolean saturated = false;
+            synchronized (filterLock) {
+                BlockedBloomFilter currentFilter = filter;
+                if (currentFilter != null) {
+                    for (int i = 0; i < added; i++) {
+                        currentFilter.put(additions[i]);
+                    }
+                    saturated = currentFilter.isSaturated();
+                }
+                if (additionsDuringRebuild != null) {
+                    for (int i = 0; i < added; i++) {
+                        additionsDuringRebuild.add(additions[i]);
+                    }
+                }
+                dncRepository.replaceIndex(next);
+                replaced = true;
+                listVersion = next.version();
+            }
+            if (saturated) {
+                scheduleFilterRebuild();
+            }
+            recordDeltas(applied);
+            log.info("Applied {} DNC deltas ({} additions, {} removals) from version {} to {} in {} ms",
+                    applied.size(), added, removed, current.version(), version, (System.nanoTime() - started) / 1_000_000);
+            return applied;
+        } catch (IOException e) {
+            throw new UncheckedIOException("DNC delta sync failed", e);
+        } finally {
+            if (current != null && !replaced) {
+                dncRepository.replaceIndex(current);
+            }
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * @param version A list version, e.g. another node's
+     * @return The deltas this node applied from that version to its own, oldest first; empty if
+     *         it is not in this node's history
+     */
+    @Override
+    public Optional<List<DNCDelta>> getDeltasSince(String version) {
+        String currentVersion = listVersion;
+        if (version.equals(currentVersion)) {
+            return Optional.of(List.of());
+        }
+        synchronized (appliedDeltas) {
+            List<DNCDelta> chain = new ArrayList<>();
+            for (DNCDelta delta : appliedDeltas) {
+                if (chain.isEmpty() ? delta.getFromVersion().equals(version)
+                        : delta.getFromVersion().equals(chain.get(chain.size() - 1).getToVersion())) {
+                    chain.add(delta);
+                } else if (!chain.isEmpty()) {
+                    // A gap: the list changed by other means after this delta, so start over
+                    chain.clear();
+                    if (delta.getFromVersion().equals(version)) {
+                        chain.add(delta);
+                    }
+                }
+            }
+            if (chain.isEmpty() || !chain.get(chain.size() - 1).getToVersion().equals(currentVersion)) {
+                return Optional.empty();
+            }
+            return Optional.of(chain);
+        }
+    }
+
+    @Override
+    public DNCFilterStats getFilterStats() {
+        DNCFilterStats stats = new DNCFilterStats();
+        stats.setEnabled(filter != null);
+        stats.setChecks(filterChecks.sum());
+        stats.setFiltered(filtered.sum());
+        BlockedBloomFilter current = filter;
+        if (current != null) {
+            BlockedBloomFilter.Stats filterStats = current.stats();
+            stats.setCapacity(filterStats.capacity());
+            stats.setEntries(filterStats.entries());
+            stats.setHashes(filterStats.hashes());
+            stats.setMemoryBytes(filterStats.memoryBytes());
+            stats.setTargetFalsePositiveRate(filterStats.targetFalsePositiveRate());
+            stats.setExpectedFalsePositiveRate(filterStats.expectedFalsePositiveRate());
+            stats.setBuiltAt(filterBuiltAt);
+        }
+        return stats;
+    }
+
+    private void checkChunk(BatchChunk chunk, DNCBatchSummary summary, JsonGenerator generator) throws IOException {
+        BlockedBloomFilter current = filter;
+        int lookups = 0;
+        for (int i = 0; i < chunk.size; i++) {
+            long number = PhoneNumbers.parse(chunk.phoneNumbers[i], defaultCountryCode);
+            chunk.status[i] = CLEAN;
+            if (number == PhoneNumbers.INVALID) {
+                chunk.status[i] = INVALID;
+            } else if (current != null && !current.mightContain(number)) {
+                summary.setFiltered(summary.getFiltered() + 1);
+            } else {
+                chunk.packed[lookups++] = number << CHUNK_POSITION_BITS | i;
+            }
+        }
+        Arrays.sort(chunk.packed, 0, lookups);
+        for (int j = 0; j < lookups; j++) {
+            chunk.sorted[j] = chunk.packed[j] >>> CHUNK_POSITION_BITS;
+        }
+        dncRepository.isDNC(chunk.sorted, lookups, chunk.listed);
+        for (int j = 0; j < lookups; j++) {
+            if (chunk.listed[j]) {
+                chunk.status[(int) (chunk.packed[j] & (BATCH_CHUNK - 1))] = LISTED;
+            }
+        }
+
+        for (int i = 0; i < chunk.size; i++) {
+            if (chunk.status[i] != CLEAN) {
+                generator.writeStartObject();
+                generator.writeStringField("phoneNumber", chunk.phoneNumbers[i]);
+                generator.writeStringField("reason", chunk.status[i] == LISTED ? "DNC" : "INVALID");
+                generator.writeEndObject();
+                if (chunk.status[i] == LISTED) {
+                    summary.setSuppressed(summary.getSuppressed() + 1);
+                } else {
+                    summary.setInvalid(summary.getInvalid() + 1);
+                }
+            }
+            chunk.phoneNumbers[i] = null;
+        }
+        summary.setTotal(summary.getTotal() + chunk.size);
+        chunk.size = 0;
+        generator.flush();
+    }
+
+    private String batchPhoneNumber(String line) {
+        String value = line.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.charAt(0) == '"') {
+                return objectMapper.readValue(value, String.class);
+            }
+            if (value.charAt(0) == '{') {
+                // An object without a usable phoneNumber is echoed back whole, so it can be found in the input
+                JsonNode phoneNumber = objectMapper.readTree(value).path("phoneNumber");
+                return phoneNumber.isValueNode() && !phoneNumber.isNull() ? phoneNumber.asText() : value;
+            }
+        } catch (JsonProcessingException e) {
+            // Reported back as an invalid number
+        }
+        return value;
+    }
+
+    private static final class BatchChunk {
+        final String[] phoneNumbers = new String[BATCH_CHUNK];
+        final byte[] status = new byte[BATCH_CHUNK];
+        final long[] packed = new long[BATCH_CHUNK];
+        final long[] sorted = new long[BATCH_CHUNK];
+        final boolean[] listed = new boolean[BATCH_CHUNK];
+        int size;
+    }
+
+    /**
+     * Rebuilds the Bloom filter on a background thread, unless a rebuild is already waiting to run.
+     */
+    private void scheduleFilterRebuild() {
+        if (filterEnabled && rebuildScheduled.compareAndSet(false, true)) {
+            filterRebuilds.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuildFilter();
+                } catch (RuntimeException e) {
+                    log.error("DNC Bloom filter rebuild failed; keeping the current filter", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the Bloom filter from the full list, dropping removed numbers and resizing it for the
+     * list's current size.
+     *
+     * The list is walked without holding {@code filterLock}, so additions and list swaps carry on
+     * meanwhile: numbers added during the walk are put into the rebuilt filter before it replaces
+     * the current one, and if a national sync installs a filter of its own first, the rebuilt one
+     * is dropped.
+     */
+    private void rebuildFilter() {
+        if (!filterEnabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            BlockedBloomFilter replacing;
+            long count;
+            List<Long> addedMeanwhile = new ArrayList<>();
+            synchronized (filterLock) {
+                replacing = filter;
+                count = dncRepository.countDNC();
+                additionsDuringRebuild = addedMeanwhile;
+            }
+            try {
+                BlockedBloomFilter rebuilt = newFilter(count);
+                dncRepository.forEachDNC(rebuilt::put);
+                synchronized (filterLock) {
+                    if (filter != replacing) {
+                        log.info("DNC Bloom filter was replaced during its rebuild; dropping the rebuilt one");
+                        return;
+                    }
+                    addedMeanwhile.forEach(rebuilt::put);
+                    filter = rebuilt;
+                    filterBuiltAt = LocalDateTime.now();
+                }
+                log.info("Built DNC Bloom filter for {} numbers: {} KB, {} hashes", count,
+                        rebuilt.memoryBytes() / 1024, rebuilt.stats().hashes());
+            } finally {
+                synchronized (filterLock) {
+                    additionsDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private BlockedBloomFilter newFilter(long count) {
+        long capacity = Math.max(1024, (long) Math.ceil(count * (1 + filterGrowthAllowance)));
+        return new BlockedBloomFilter(capacity, filterFalsePositiveRate);
+    }
+
+    private void recordDeltas(List<DNCDelta> applied) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (appliedDeltas) {
+            for (DNCDelta delta : applied) {
+                delta.setAppliedAt(now);
+                appliedDeltas.addLast(delta);
+            }
+            while (appliedDeltas.size() > deltaHistory) {
+                appliedDeltas.removeFirst();
+            }
+        }
+    }
+}
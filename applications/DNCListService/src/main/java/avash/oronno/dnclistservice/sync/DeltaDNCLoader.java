@@ -0,0 +1,179 @@
+package avash.oronno.dnclistservice.sync;
+
+import avash.oronno.dnclistservice.exception.DNCSyncException;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the registry's change files: numbers added to and removed from the national list between
+ * two list versions.
+ *
+ * The manifest at {@code dnc.sync.delta.manifest} lists one delta per line as
+ * {@code fromVersion,toVersion,additions,removals}, where additions and removals are locations of
+ * change files, relative to the manifest unless absolute, and either may be left empty. Lines
+ * starting with {@code #} are comments. A change file is read like the national file: one number
+ * per line, first comma-separated field only, gzip if it ends in {@code .gz}.
+ */
+@Slf4j
+@Component
+public class DeltaDNCLoader {
+
+    /**
+     * A change from one list version to the next.
+     *
+     * @param fromVersion Version the delta applies to
+     * @param toVersion Version it produces
+     * @param additions Location of the numbers added, or null
+     * @param removals Location of the numbers removed, or null
+     */
+    public record Delta(String fromVersion, String toVersion, String additions, String removals) {
+    }
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${dnc.sync.delta.manifest:}")
+    private String manifest;
+
+    @Value("${dnc.default-country-code:1}")
+    private String defaultCountryCode;
+
+    public DeltaDNCLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    public boolean isConfigured() {
+        return !manifest.isBlank();
+    }
+
+    /**
+     * Follows the chain of deltas in the manifest from {@code version} to the latest version.
+     *
+     * @param version Version of the list as it is now
+     * @return The deltas to apply in order; empty if the list is up to date
+     * @throws DNCSyncException if {@code version} is not on the chain, so only a national sync can
+     *                          bring the list up to date
+     */
+    public List<Delta> pending(String version) throws IOException {
+        Map<String, Delta> byFromVersion = new HashMap<>();
+        Set<String> toVersions = new HashSet<>();
+        Resource resource = resourceLoader.getResource(manifest);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != 4) {
+                    throw new IOException("Malformed DNC delta manifest line: " + line);
+                }
+                Delta delta = new Delta(fields[0].trim(), fields[1].trim(),
+                        location(resource, fields[2]), location(resource, fields[3]));
+                if (byFromVersion.put(delta.fromVersion(), delta) != null) {
+                    throw new IOException("DNC delta manifest forks at version " + delta.fromVersion());
+                }
+                toVersions.add(delta.toVersion());
+            }
+        }
+
+        if (version == null || (!byFromVersion.containsKey(version) && !toVersions.contains(version))) {
+            throw new DNCSyncException(DNCSyncException.Reason.NATIONAL_SYNC_REQUIRED, "DNC list version " + version
+                    + " is not on the delta chain; a national sync is needed");
+        }
+        List<Delta> chain = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Delta delta = byFromVersion.get(version); delta != null; delta = byFromVersion.get(delta.toVersion())) {
+            if (!seen.add(delta.fromVersion())) {
+                throw new IOException("DNC delta manifest loops at version " + delta.fromVersion());
+            }
+            chain.add(delta);
+        }
+        return chain;
+    }
+
+    /**
+     * Reads a change file. Its numbers need not be sorted.
+     *
+     * @param location Location from a {@link Delta}, or null
+     * @return The numbers sorted ascending without duplicates; empty for a null location
+     */
+    public long[] read(String location) throws IOException {
+        if (location == null) {
+            return new long[0];
+        }
+        long[] numbers = new long[1024];
+        int size = 0;
+        long skipped = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(location), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int fieldEnd = line.indexOf(',');
+                String field = fieldEnd < 0 ? line : line.substring(0, fieldEnd);
+                if (field.isBlank()) {
+                    continue;
+                }
+                long number = PhoneNumbers.parse(field.trim(), defaultCountryCode);
+                if (number == PhoneNumbers.INVALID) {
+                    skipped++;
+                    continue;
+                }
+                if (size == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, size * 2);
+                }
+                numbers[size++] = number;
+            }
+        }
+        // Registry change files are usually sorted already, which this pass confirms without sorting
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = numbers[i - 1] <= numbers[i];
+        }
+        if (!sorted) {
+            Arrays.sort(numbers, 0, size);
+        }
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || numbers[distinct - 1] != numbers[i]) {
+                numbers[distinct++] = numbers[i];
+            }
+        }
+        log.debug("Read {} DNC numbers from {} ({} lines skipped)", distinct, location, skipped);
+        return Arrays.copyOf(numbers, distinct);
+    }
+
+    private InputStream open(String location) throws IOException {
+        InputStream input = resourceLoader.getResource(location).getInputStream();
+        return location.endsWith(".gz") ? new GZIPInputStream(input, 1 << 16) : input;
+    }
+
+    private static String location(Resource manifest, String field) throws IOException {
+        String location = field.trim();
+        if (location.isEmpty()) {
+            return null;
+        }
+        if (location.contains(":") || location.startsWith("/")) {
+            return location;
+        }
+        return manifest.createRelative(location).getURI().toString();
+    }
+}
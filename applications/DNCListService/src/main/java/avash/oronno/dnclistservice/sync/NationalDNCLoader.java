@@ -0,0 +1,242 @@
+package avash.oronno.dnclistservice.sync;
+
+import avash.oronno.dnclistservice.index.DNCIndex;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Builds a DNC index from the national registry file.
+ *
+ * The file, from {@code dnc.sync.national.source} (a path, {@code file:}, {@code classpath:} or
+ * {@code http(s):} location, gzip-compressed if it ends in {@code .gz}), holds one number per line;
+ * only the first comma-separated field is read and lines that are not phone numbers, such as a
+ * header, are skipped. It is streamed in blocks of {@code dnc.sync.national.chunk-bytes} that are
+ * parsed on {@code dnc.sync.national.parallelism} threads, with at most two blocks per thread in
+ * flight, so the file is never held in memory.
+ */
+@Slf4j
+@Component
+public class NationalDNCLoader {
+
+    public static final String NATIONAL = "NATIONAL";
+
+    private record Block(DNCIndex.Builder builder, long skipped) {
+    }
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${dnc.sync.national.source:}")
+    private String source;
+
+    @Value("${dnc.sync.national.chunk-bytes:4194304}")
+    private int chunkBytes;
+
+    @Value("${dnc.sync.national.parallelism:0}")
+    private int parallelism;
+
+    @Value("${dnc.default-country-code:1}")
+    private String defaultCountryCode;
+
+    public NationalDNCLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    public boolean isConfigured() {
+        return !source.isBlank();
+    }
+
+    /**
+     * Reads the national list into a new index. Numbers in {@code current} from other sources are
+     * kept, also when the file lists them too; its national numbers are replaced by the file's.
+     *
+     * @param current The list as it is now
+     * @param version Version of the new index
+     */
+    public DNCIndex load(DNCIndex current, String version) throws IOException {
+        long started = System.nanoTime();
+        DNCIndex.Builder builder = new DNCIndex.Builder(expectedSize(current));
+        for (int i = 0; i < current.size(); i++) {
+            DNCIndex.Attributes attributes = current.attributesAt(i);
+            if (!NATIONAL.equals(attributes.source())) {
+                builder.add(current.numberAt(i), attributes.source(), attributes.version());
+            }
+        }
+        int kept = builder.size();
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dnc-sync-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] skipped = new long[1];
+        Deque<Future<Block>> inFlight = new ArrayDeque<>();
+        try (InputStream input = open()) {
+            byte[] carry = new byte[0];
+            while (true) {
+                byte[] block = Arrays.copyOf(carry, Math.max(chunkBytes, carry.length * 2));
+                int length = carry.length;
+                int read = 0;
+                while (length < block.length && (read = input.read(block, length, block.length - length)) > 0) {
+                    length += read;
+                }
+                boolean last = read < 0 || length < block.length;
+                int end = last ? length : lastLineEnd(block, length);
+                if (end < 0) {
+                    // A single line longer than the block; grow and read on
+                    carry = Arrays.copyOf(block, length);
+                    continue;
+                }
+                carry = Arrays.copyOfRange(block, end, length);
+                byte[] lines = block;
+                int linesEnd = end;
+                inFlight.add(parsers.submit(() -> parse(lines, linesEnd, version)));
+                if (inFlight.size() >= threads * 2) {
+                    merge(inFlight.poll(), builder, skipped);
+                }
+                if (last) {
+                    break;
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                merge(inFlight.poll(), builder, skipped);
+            }
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        int national = builder.size() - kept;
+        DNCIndex index = builder.build(version);
+        log.info("Loaded {} national DNC numbers ({} lines skipped) and kept {} others in {} ms; index is {} MB",
+                national, skipped[0], kept, (System.nanoTime() - started) / 1_000_000, index.memoryBytes() >> 20);
+        return index;
+    }
+
+    /**
+     * Sized for a list about as long as the current one, so the builder rarely has to grow. The first
+     * sync has no current list, so it goes by the length of an uncompressed file, at the 11 bytes a
+     * ten-digit number and its line break take.
+     */
+    private int expectedSize(DNCIndex current) {
+        int expected = current.size() + current.size() / 16;
+        if (current.size() == 0 && !source.endsWith(".gz")) {
+            try {
+                expected = (int) Math.min(Integer.MAX_VALUE - 8, resourceLoader.getResource(source).contentLength() / 11);
+            } catch (IOException e) {
+                log.debug("Length of the national DNC list is unknown: {}", e.getMessage());
+            }
+        }
+        return expected;
+    }
+
+    private InputStream open() throws IOException {
+        Resource resource = resourceLoader.getResource(source);
+        InputStream input = resource.getInputStream();
+        return source.endsWith(".gz") ? new GZIPInputStream(input, 1 << 16) : input;
+    }
+
+    private static int lastLineEnd(byte[] block, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (block[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static void merge(Future<Block> parsed, DNCIndex.Builder builder, long[] skipped) throws IOException {
+        try {
+            Block block = parsed.get();
+            builder.addAll(block.builder());
+            skipped[0] += block.skipped();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading the national DNC list", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not parse the national DNC list", e.getCause());
+        }
+    }
+
+    private Block parse(byte[] block, int end, String version) {
+        DNCIndex.Builder builder = new DNCIndex.Builder(end / 11);
+        AsciiLine line = new AsciiLine(block);
+        long skipped = 0;
+        int start = 0;
+        while (start < end) {
+            int lineEnd = start;
+            while (lineEnd < end && block[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int fieldEnd = start;
+            while (fieldEnd < lineEnd && block[fieldEnd] != ',' && block[fieldEnd] != '\r') {
+                fieldEnd++;
+            }
+            if (fieldEnd > start) {
+                long number = PhoneNumbers.parse(line.of(start, fieldEnd), defaultCountryCode);
+                if (number == PhoneNumbers.INVALID) {
+                    skipped++;
+                } else {
+                    builder.add(number, NATIONAL, version);
+                }
+            }
+            start = lineEnd + 1;
+        }
+        return new Block(builder, skipped);
+    }
+
+    /**
+     * A line of the file as characters, without copying it into a String.
+     */
+    private static final class AsciiLine implements CharSequence {
+
+        private final byte[] bytes;
+        private int from;
+        private int to;
+
+        AsciiLine(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        AsciiLine of(int from, int to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return to - from;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[from + index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, from + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
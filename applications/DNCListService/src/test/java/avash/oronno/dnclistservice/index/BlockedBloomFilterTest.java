@@ -0,0 +1,84 @@
+package avash.oronno.dnclistservice.index;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A filled filter must report every number added, since a miss skips the DNC store and the number
+ * gets dialled, and must answer clean numbers with about the false positive rate it was sized for.
+ */
+class BlockedBloomFilterTest {
+
+    private static final int NUMBERS = 200_000;
+    private static final int PROBES = 1_000_000;
+
+    @ParameterizedTest(name = "{0} false positive rate")
+    @ValueSource(doubles = {0.01, 0.001})
+    void hasNoFalseNegativesAndMeetsItsFalsePositiveRate(double falsePositiveRate) {
+        SplittableRandom random = new SplittableRandom(11);
+        BlockedBloomFilter filter = new BlockedBloomFilter(NUMBERS, falsePositiveRate);
+        Set<Long> added = new HashSet<>();
+        while (added.size() < NUMBERS) {
+            long number = randomNumber(random);
+            if (added.add(number)) {
+                filter.put(number);
+            }
+        }
+        for (long number : added) {
+            assertTrue(filter.mightContain(number), "added number " + number);
+        }
+
+        int probes = 0;
+        int falsePositives = 0;
+        while (probes < PROBES) {
+            long number = randomNumber(random);
+            if (!added.contains(number)) {
+                probes++;
+                if (filter.mightContain(number)) {
+                    falsePositives++;
+                }
+            }
+        }
+        double measured = (double) falsePositives / probes;
+        assertTrue(measured <= falsePositiveRate * 1.15 && measured >= falsePositiveRate * 0.5,
+                "measured " + measured + " against a target of " + falsePositiveRate);
+        assertEquals(filter.stats().expectedFalsePositiveRate(), measured, falsePositiveRate * 0.15);
+    }
+
+    @Test
+    void saturatesPastItsCapacity() {
+        SplittableRandom random = new SplittableRandom(12);
+        BlockedBloomFilter filter = new BlockedBloomFilter(1000, 0.01);
+        long[] numbers = new long[1000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = 1_200_000_0000L + i * 7919L;
+            filter.put(numbers[i]);
+        }
+        assertFalse(filter.isSaturated());
+        // Adding the same numbers again, as a rebuild racing with live additions does, takes no capacity
+        for (long number : numbers) {
+            filter.put(number);
+        }
+        assertFalse(filter.isSaturated());
+        assertTrue(filter.stats().entries() <= numbers.length);
+
+        for (int i = 0; i < 100; i++) {
+            filter.put(randomNumber(random));
+        }
+        assertTrue(filter.isSaturated());
+    }
+
+    // A US number in E.164
+    private static long randomNumber(SplittableRandom random) {
+        return 1_200_000_0000L + random.nextLong(800_000_0000L);
+    }
+}
@@ -0,0 +1,314 @@
+package avash.oronno.dnclistservice.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every way of building and querying an index must agree with a {@link TreeMap} holding the same
+ * numbers: a number the index misses is a listed number that gets dialled. Random lists are checked
+ * alongside the edges: an empty index, duplicates, probes on either side of the list and on block
+ * fences, and 15-digit numbers.
+ */
+class DNCIndexTest {
+
+    private static final long MIN_NUMBER = 1_000_000L;
+    private static final long MAX_NUMBER = 999_999_999_999_999L;
+    private static final int BLOCK = 64;
+    private static final String NATIONAL = "NATIONAL";
+    private static final String CUSTOM = "CUSTOM";
+
+    @ParameterizedTest(name = "{0} values")
+    @ValueSource(ints = {0, 1, 2, 1000, 65535, 65536, 200_000})
+    void sortsInPlace(int count) {
+        SplittableRandom random = new SplittableRandom(count);
+        long[] values = new long[count + 2];
+        for (int i = 0; i < values.length; i++) {
+            // Packed numbers are non-negative; a narrow range forces many equal values into one bucket
+            values[i] = i % 3 == 0 ? random.nextLong(1, 100) : random.nextLong(0, Long.MAX_VALUE);
+        }
+        long[] expected = values.clone();
+        Arrays.sort(expected, 1, count + 1);
+        DNCIndex.sortInPlace(values, 1, count + 1);
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    void emptyIndexListsNothing() {
+        DNCIndex index = DNCIndex.empty("v0");
+        assertEquals(0, index.size());
+        assertTrue(index.indexOf(MIN_NUMBER) < 0);
+        assertTrue(index.indexOf(MAX_NUMBER) < 0);
+
+        long[] probes = {MIN_NUMBER, 12025550143L, MAX_NUMBER};
+        boolean[] listed = {true, true, true};
+        index.containsAll(probes, probes.length, listed);
+        assertArrayEquals(new boolean[3], listed);
+
+        assertEquals(0, new DNCIndex.Builder().build("v0").size());
+    }
+
+    @ParameterizedTest(name = "{0} numbers")
+    @ValueSource(ints = {1, 63, 64, 65, 128, 1000, 100_000})
+    void buildKeepsTheFirstRegisteredAttributesOfDuplicates(int count) {
+        SplittableRandom random = new SplittableRandom(count);
+        List<DNCIndex.Attributes> registered = new ArrayList<>();
+        TreeMap<Long, DNCIndex.Attributes> expected = new TreeMap<>();
+        DNCIndex.Builder builder = new DNCIndex.Builder(count / 2);
+        long[] numbers = randomNumbers(random, count);
+        for (int i = 0; i < count; i++) {
+            // Every third number is added twice, and some under another source
+            int copies = i % 3 == 0 ? 2 : 1;
+            for (int copy = 0; copy < copies; copy++) {
+                DNCIndex.Attributes attributes = new DNCIndex.Attributes(
+                        random.nextInt(4) == 0 ? CUSTOM : NATIONAL, "v" + random.nextInt(5));
+                if (!registered.contains(attributes)) {
+                    registered.add(attributes);
+                }
+                builder.add(numbers[i], attributes.source(), attributes.version());
+                expected.merge(numbers[i], attributes,
+                        (first, second) -> registered.indexOf(first) <= registered.indexOf(second) ? first : second);
+            }
+        }
+        DNCIndex index = builder.build("v5");
+        assertEquals("v5", index.version());
+        assertMatches(expected, index);
+    }
+
+    @Test
+    void addAllCombinesBuilders() {
+        SplittableRandom random = new SplittableRandom(7);
+        long[] numbers = randomNumbers(random, 5000);
+        TreeMap<Long, DNCIndex.Attributes> expected = new TreeMap<>();
+        DNCIndex.Builder first = new DNCIndex.Builder();
+        DNCIndex.Builder second = new DNCIndex.Builder();
+        for (int i = 0; i < numbers.length; i++) {
+            DNCIndex.Builder builder = i % 2 == 0 ? first : second;
+            String version = "v" + (i % 7);
+            builder.add(numbers[i], NATIONAL, version);
+            expected.put(numbers[i], new DNCIndex.Attributes(NATIONAL, version));
+        }
+        assertMatches(expected, first.addAll(second).build("v1"));
+    }
+
+    @Test
+    void findsNumbersOnAndAroundBlockFences() {
+        // Consecutive even numbers, so every gap holds an odd number that is not listed
+        int count = 10 * BLOCK + 3;
+        TreeMap<Long, DNCIndex.Attributes> expected = new TreeMap<>();
+        DNCIndex.Builder builder = new DNCIndex.Builder();
+        DNCIndex.Attributes attributes = new DNCIndex.Attributes(NATIONAL, "v1");
+        for (int i = count - 1; i >= 0; i--) {
+            long number = MAX_NUMBER - 1 - 2L * (count - 1 - i);
+            builder.add(number, NATIONAL, "v1");
+            expected.put(number, attributes);
+        }
+        DNCIndex index = builder.build("v1");
+        long first = expected.firstKey();
+        for (int position = 0; position < count; position += BLOCK) {
+            long fence = index.numberAt(position);
+            assertEquals(position, index.indexOf(fence), "fence at " + position);
+            if (position > 0) {
+                assertEquals(position - 1, index.indexOf(fence - 2), "before fence at " + position);
+            }
+            assertTrue(index.indexOf(fence - 1) < 0, "gap before fence at " + position);
+            assertTrue(index.indexOf(fence + 1) < 0, "gap after fence at " + position);
+        }
+        assertTrue(index.indexOf(first - 1) < 0);
+        assertTrue(index.indexOf(MIN_NUMBER) < 0);
+        assertTrue(index.indexOf(MAX_NUMBER) < 0);
+        assertEquals(count - 1, index.indexOf(MAX_NUMBER - 1));
+        assertMatches(expected, index);
+    }
+
+    @ParameterizedTest(name = "{0} numbers")
+    @ValueSource(ints = {1, 64, 65, 1000, 100_000})
+    void containsAllMatchesSingleLookups(int count) {
+        SplittableRandom random = new SplittableRandom(count);
+        Set<Long> listed = new HashSet<>();
+        DNCIndex.Builder builder = new DNCIndex.Builder();
+        for (long number : randomNumbers(random, count)) {
+            builder.add(number, NATIONAL, "v1");
+            listed.add(number);
+        }
+        DNCIndex index = builder.build("v1");
+
+        TreeSet<Long> candidates = new TreeSet<>();
+        candidates.add(MIN_NUMBER);
+        candidates.add(MAX_NUMBER);
+        for (int position = 0; position < index.size(); position += BLOCK) {
+            candidates.add(index.numberAt(position));
+            candidates.add(index.numberAt(position) - 1);
+            candidates.add(index.numberAt(position) + 1);
+        }
+        candidates.add(index.numberAt(0) - 1);
+        candidates.add(index.numberAt(index.size() - 1) + 1);
+        for (int i = 0; i < count; i++) {
+            candidates.add(random.nextBoolean() ? index.numberAt(random.nextInt(index.size())) : randomNumber(random));
+        }
+        List<Long> probes = new ArrayList<>(candidates);
+        // A batch may hold the same number more than once
+        probes.add(index.numberAt(index.size() / 2));
+        probes.add(MAX_NUMBER);
+        probes.sort(null);
+
+        long[] sorted = probes.stream().mapToLong(Long::longValue).toArray();
+        boolean[] found = new boolean[sorted.length + 1];
+        // Only the first count entries are looked up
+        found[sorted.length] = true;
+        index.containsAll(sorted, sorted.length, found);
+        for (int q = 0; q < sorted.length; q++) {
+            assertEquals(listed.contains(sorted[q]), found[q], "probe " + sorted[q]);
+            assertEquals(listed.contains(sorted[q]), index.contains(sorted[q]), "lookup " + sorted[q]);
+        }
+        assertTrue(found[sorted.length]);
+    }
+
+    @ParameterizedTest(name = "scope {0}")
+    @ValueSource(strings = {NATIONAL, ""})
+    void mergeMatchesAReferenceMap(String scopeName) {
+        String scope = scopeName.isEmpty() ? null : scopeName;
+        for (int seed = 0; seed < 20; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int count = seed == 0 ? 0 : random.nextInt(1, 5000);
+            TreeMap<Long, DNCIndex.Attributes> current = new TreeMap<>();
+            DNCIndex.Builder builder = new DNCIndex.Builder();
+            for (long number : randomNumbers(random, count)) {
+                DNCIndex.Attributes attributes = new DNCIndex.Attributes(
+                        random.nextBoolean() ? NATIONAL : CUSTOM, "v" + random.nextInt(3));
+                builder.add(number, attributes.source(), attributes.version());
+                current.put(number, attributes);
+            }
+            DNCIndex index = builder.build("v3");
+            List<Long> listed = new ArrayList<>(current.keySet());
+
+            // Additions and removals mix listed and new numbers; some are added twice, some both added and removed
+            List<Long> additions = new ArrayList<>();
+            for (int i = 0; i < count / 2 + 10; i++) {
+                long number = !listed.isEmpty() && random.nextBoolean()
+                        ? listed.get(random.nextInt(listed.size()))
+                        : randomNumber(random);
+                additions.add(number);
+                if (random.nextInt(5) == 0) {
+                    additions.add(number);
+                }
+            }
+            additions.add(MAX_NUMBER);
+            additions.sort(null);
+            DNCIndex.Attributes[] additionAttributes = new DNCIndex.Attributes[additions.size()];
+            for (int i = 0; i < additionAttributes.length; i++) {
+                additionAttributes[i] = new DNCIndex.Attributes(
+                        scope != null ? scope : (random.nextBoolean() ? NATIONAL : CUSTOM), "v4." + i);
+            }
+            TreeSet<Long> removals = new TreeSet<>();
+            for (int i = 0; i < count / 2 + 10; i++) {
+                int pick = random.nextInt(3);
+                if (pick == 0 && !listed.isEmpty()) {
+                    removals.add(listed.get(random.nextInt(listed.size())));
+                } else if (pick == 1) {
+                    removals.add(additions.get(random.nextInt(additions.size())));
+                } else {
+                    removals.add(randomNumber(random));
+                }
+            }
+            removals.add(MIN_NUMBER);
+
+            TreeMap<Long, DNCIndex.Attributes> expected = new TreeMap<>(current);
+            for (int i = 0; i < additions.size(); i++) {
+                long number = additions.get(i);
+                DNCIndex.Attributes existing = current.get(number);
+                // Numbers listed from outside the scope are neither replaced nor removed
+                if (existing == null || inScope(existing, scope)) {
+                    expected.put(number, additionAttributes[i]);
+                }
+            }
+            for (long number : removals) {
+                DNCIndex.Attributes attributes = expected.get(number);
+                if (attributes != null && inScope(attributes, scope)) {
+                    expected.remove(number);
+                }
+            }
+
+            DNCIndex merged = index.merge(additions.stream().mapToLong(Long::longValue).toArray(), additionAttributes,
+                    removals.stream().mapToLong(Long::longValue).toArray(), scope, "v4");
+            assertEquals("v4", merged.version());
+            assertMatches(expected, merged);
+            // The original is untouched
+            assertMatches(current, index);
+        }
+    }
+
+    @Test
+    void mergeLeavesOtherSourcesAlone() {
+        DNCIndex index = new DNCIndex.Builder()
+                .add(12025550101L, CUSTOM, "c1")
+                .add(12025550102L, NATIONAL, "v1")
+                .add(12025550103L, NATIONAL, "v1")
+                .add(12025550105L, CUSTOM, "c1")
+                .build("v1");
+        DNCIndex.Attributes v2 = new DNCIndex.Attributes(NATIONAL, "v2");
+        DNCIndex merged = index.merge(new long[] {12025550101L, 12025550101L, 12025550104L, 12025550105L, 12025550105L},
+                new DNCIndex.Attributes[] {v2, v2, v2, v2, v2},
+                new long[] {12025550101L, 12025550103L}, NATIONAL, "v2");
+
+        TreeMap<Long, DNCIndex.Attributes> expected = new TreeMap<>();
+        expected.put(12025550101L, new DNCIndex.Attributes(CUSTOM, "c1"));
+        expected.put(12025550102L, new DNCIndex.Attributes(NATIONAL, "v1"));
+        expected.put(12025550104L, v2);
+        expected.put(12025550105L, new DNCIndex.Attributes(CUSTOM, "c1"));
+        assertMatches(expected, merged);
+    }
+
+    private static boolean inScope(DNCIndex.Attributes attributes, String scope) {
+        return scope == null || scope.equals(attributes.source());
+    }
+
+    private static void assertMatches(TreeMap<Long, DNCIndex.Attributes> expected, DNCIndex index) {
+        assertEquals(expected.size(), index.size(), "size");
+        Map<Long, DNCIndex.Attributes> actual = new HashMap<>();
+        long previous = -1;
+        for (int position = 0; position < index.size(); position++) {
+            long number = index.numberAt(position);
+            assertTrue(number > previous, "sorted and distinct at " + position);
+            previous = number;
+            assertEquals(position, index.indexOf(number), "position of " + number);
+            actual.put(number, index.attributesAt(position));
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static long[] randomNumbers(SplittableRandom random, int count) {
+        long[] numbers = new long[count];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            long number;
+            do {
+                number = randomNumber(random);
+            } while (!seen.add(number));
+            numbers[i] = number;
+        }
+        return numbers;
+    }
+
+    private static long randomNumber(SplittableRandom random) {
+        // Mostly national-length NANP numbers, densely packed, with some up to 15 digits
+        return random.nextInt(4) == 0
+                ? random.nextLong(MIN_NUMBER + 1, MAX_NUMBER)
+                : random.nextLong(12_000_000_000L, 12_000_000_000L + 10_000_000L);
+    }
+}
@@ -0,0 +1,53 @@
+package avash.oronno.dnclistservice.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A subscriber must normalize to the same number however it is written, or a listed number gets
+ * dialled.
+ */
+class PhoneNumbersTest {
+
+    @Test
+    void normalizesNanpNumbers() {
+        assertEquals(12025550143L, PhoneNumbers.parse("+1 (202) 555-0143", "1"));
+        assertEquals(12025550143L, PhoneNumbers.parse("001 202.555.0143", "1"));
+        assertEquals(12025550143L, PhoneNumbers.parse("202-555-0143", "1"));
+        assertEquals(12025550143L, PhoneNumbers.parse("12025550143", "1"));
+    }
+
+    @Test
+    void dropsTheNationalTrunkPrefix() {
+        assertEquals(447700900123L, PhoneNumbers.parse("+44 7700 900123", "44"));
+        assertEquals(447700900123L, PhoneNumbers.parse("0044 7700 900123", "44"));
+        assertEquals(447700900123L, PhoneNumbers.parse("07700 900123", "44"));
+        assertEquals(447700900123L, PhoneNumbers.parse("7700 900123", "44"));
+        assertEquals(447700900123L, PhoneNumbers.parse("447700900123", "44"));
+    }
+
+    @Test
+    void rejectsCountryCodesStartingWithZero() {
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("+0123456789", "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("+ 0 123456789", "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("000123456789", "1"));
+        assertEquals(123456789L, PhoneNumbers.parse("+123456789", "1"));
+    }
+
+    @Test
+    void acceptsFifteenDigits() {
+        assertEquals(999999999999999L, PhoneNumbers.parse("+999 999 999 999 999", "1"));
+        assertEquals(999999999999999L, PhoneNumbers.parse("00999999999999999", "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("+9999999999999999", "1"));
+    }
+
+    @Test
+    void rejectsInputThatIsNotANumber() {
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse(null, "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("", "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("202-555-01x3", "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("1+2025550143", "1"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.parse("+123", "1"));
+    }
+}
@@ -0,0 +1,168 @@
+package avash.oronno.dnclistservice.repository.impl;
+
+import avash.oronno.dnclistservice.index.DNCIndex;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The repository must list exactly the numbers a {@link Set} given the same changes would hold,
+ * through overlay changes and compactions: a number it drops is a listed number that gets dialled.
+ * Changes made while a sync builds a new index from {@link DNCIndexRepositoryImpl#getIndex()} must
+ * survive the sync's result replacing the list, or its failure putting the snapshot back.
+ */
+class DNCIndexRepositoryImplTest {
+
+    private static final String NATIONAL = "NATIONAL";
+    private static final String CUSTOM = "CUSTOM";
+
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final DNCIndexRepositoryImpl repository = repository(64);
+
+    @Test
+    void countsExactlyThroughOverlayChangesAndCompactions() {
+        Set<Long> expected = new HashSet<>();
+        DNCIndex.Builder builder = new DNCIndex.Builder();
+        for (int i = 0; i < 1000; i++) {
+            long number = randomNumber();
+            builder.add(number, NATIONAL, "v1");
+            expected.add(number);
+        }
+        repository.replaceIndex(builder.build("v1"));
+        Long[] listed = expected.toArray(new Long[0]);
+
+        for (int i = 0; i < 5000; i++) {
+            // Re-adding and removing listed numbers, and removing unlisted ones, must not skew the count
+            long number = random.nextBoolean() ? listed[random.nextInt(listed.length)] : randomNumber();
+            if (random.nextInt(3) == 0) {
+                repository.removeFromDNC(PhoneNumbers.format(number));
+                expected.remove(number);
+            } else {
+                repository.addToDNC(PhoneNumbers.format(number), CUSTOM);
+                expected.add(number);
+            }
+            assertEquals(expected.size(), repository.countDNC(), "after change " + i);
+        }
+        assertListed(expected);
+    }
+
+    @Test
+    void replaysChangesMadeDuringASyncOntoItsResult() {
+        Set<Long> national = loadNational(1000);
+        DNCIndex snapshot = repository.getIndex();
+
+        // Enough changes to compact the overlay several times while the sync runs
+        Map<Long, Boolean> changes = changeDuringSync(national, 500);
+
+        // The sync drops some national numbers and lists new ones
+        Set<Long> expected = new HashSet<>();
+        DNCIndex.Builder builder = new DNCIndex.Builder();
+        for (long number : national) {
+            if (random.nextInt(10) > 0) {
+                builder.add(number, NATIONAL, "v2");
+                expected.add(number);
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            long number = randomNumber();
+            builder.add(number, NATIONAL, "v2");
+            expected.add(number);
+        }
+        DNCIndex derived = builder.build("v2");
+        assertEquals(national.size(), snapshot.size());
+
+        repository.replaceIndex(derived);
+        apply(changes, expected);
+        assertListed(expected);
+    }
+
+    @Test
+    void keepsChangesMadeDuringAFailedSync() {
+        Set<Long> national = loadNational(1000);
+        DNCIndex snapshot = repository.getIndex();
+        Map<Long, Boolean> changes = changeDuringSync(national, 500);
+
+        // A failed sync puts back the list it started from
+        repository.replaceIndex(snapshot);
+        Set<Long> expected = new HashSet<>(national);
+        apply(changes, expected);
+        assertListed(expected);
+
+        // The journal is gone, so later changes go to the overlay alone
+        long number = randomNumber();
+        repository.addToDNC(PhoneNumbers.format(number), CUSTOM);
+        expected.add(number);
+        assertListed(expected);
+    }
+
+    static DNCIndexRepositoryImpl repository(int compactThreshold) {
+        DNCIndexRepositoryImpl repository = new DNCIndexRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "defaultCountryCode", "1");
+        ReflectionTestUtils.setField(repository, "compactThreshold", compactThreshold);
+        ReflectionTestUtils.setField(repository, "maxSources", 256);
+        return repository;
+    }
+
+    private Set<Long> loadNational(int count) {
+        Set<Long> national = new HashSet<>();
+        DNCIndex.Builder builder = new DNCIndex.Builder();
+        for (int i = 0; i < count; i++) {
+            long number = randomNumber();
+            builder.add(number, NATIONAL, "v1");
+            national.add(number);
+        }
+        repository.replaceIndex(builder.build("v1"));
+        return national;
+    }
+
+    /**
+     * Adds and removes numbers, listed and not, as the API would while a sync runs.
+     *
+     * @return Each changed number and whether it was last added (true) or removed (false)
+     */
+    private Map<Long, Boolean> changeDuringSync(Set<Long> listed, int count) {
+        Long[] numbers = listed.toArray(new Long[0]);
+        Map<Long, Boolean> changes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            long number = random.nextBoolean() ? numbers[random.nextInt(numbers.length)] : randomNumber();
+            boolean add = random.nextInt(3) > 0;
+            if (add) {
+                repository.addToDNC(PhoneNumbers.format(number), CUSTOM);
+            } else {
+                repository.removeFromDNC(PhoneNumbers.format(number));
+            }
+            changes.put(number, add);
+        }
+        return changes;
+    }
+
+    private static void apply(Map<Long, Boolean> changes, Set<Long> listed) {
+        changes.forEach((number, added) -> {
+            if (added) {
+                listed.add(number);
+            } else {
+                listed.remove(number);
+            }
+        });
+    }
+
+    private void assertListed(Set<Long> expected) {
+        Set<Long> actual = new HashSet<>();
+        repository.forEachDNC(actual::add);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), repository.getAllDNC().size());
+        assertEquals(expected.size(), repository.countDNC());
+    }
+
+    private long randomNumber() {
+        return 1_200_000_0000L + random.nextLong(800_000_0000L);
+    }
+}
@@ -0,0 +1,249 @@
+package avash.oronno.dnclistservice.service.impl;
+
+import avash.oronno.dnclistservice.dto.DNCBatchSummary;
+import avash.oronno.dnclistservice.dto.DNCDelta;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
+import avash.oronno.dnclistservice.repository.impl.DNCIndexRepositoryImpl;
+import avash.oronno.dnclistservice.sync.DeltaDNCLoader;
+import avash.oronno.dnclistservice.sync.NationalDNCLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A batch check must suppress exactly the listed and invalid lines of its input, in input order,
+ * whatever the chunking: a listed number it lets through gets dialled. The deltas handed to another
+ * node must take it from its version to this node's without a gap, or not be handed out at all.
+ */
+class DNCListServiceImplTest {
+
+    private static final String CUSTOM = "CUSTOM";
+    // Lines in a batch chunk
+    private static final int CHUNK = 8192;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SplittableRandom random = new SplittableRandom(5);
+
+    @Test
+    void batchSuppressesListedAndInvalidLinesInOrder() throws IOException {
+        DNCListServiceImpl service = service(repository());
+        List<Long> listed = new ArrayList<>();
+        Set<Long> listedSet = new HashSet<>();
+        while (listed.size() < 500) {
+            long number = randomNumber();
+            if (listedSet.add(number)) {
+                listed.add(number);
+                service.addToDNC(PhoneNumbers.format(number), CUSTOM);
+            }
+        }
+
+        StringBuilder input = new StringBuilder();
+        // Suppressed lines as the check should echo them, and why
+        List<String> expected = new ArrayList<>();
+        int total = 0;
+        int invalid = 0;
+        List<String> listedLines = new ArrayList<>();
+        // More than two chunks, so packing is exercised across chunk boundaries
+        while (total < 2 * CHUNK + 1000) {
+            int kind = random.nextInt(10);
+            long number = listed.get(random.nextInt(listed.size()));
+            String line;
+            String echo = null;
+            String reason = "DNC";
+            switch (kind) {
+                case 0 -> {
+                    line = PhoneNumbers.format(number);
+                    echo = line;
+                }
+                case 1 -> {
+                    // National format
+                    String digits = Long.toString(number).substring(1);
+                    line = "(" + digits.substring(0, 3) + ") " + digits.substring(3, 6) + "-" + digits.substring(6);
+                    echo = line;
+                }
+                case 2 -> {
+                    line = "{\"phoneNumber\":\"" + PhoneNumbers.format(number) + "\",\"name\":\"Listed\"}";
+                    echo = PhoneNumbers.format(number);
+                }
+                case 3 -> {
+                    line = "\"" + PhoneNumbers.format(number) + "\"";
+                    echo = PhoneNumbers.format(number);
+                }
+                case 4 -> {
+                    // A duplicate, possibly within the same chunk
+                    if (listedLines.isEmpty()) {
+                        continue;
+                    }
+                    line = listedLines.get(random.nextInt(listedLines.size()));
+                    echo = line;
+                }
+                case 5 -> {
+                    line = random.nextBoolean() ? "not-a-number-" + total : "202-555-01x3";
+                    echo = line;
+                    reason = "INVALID";
+                }
+                case 6 -> {
+                    // An object without a phone number is echoed whole
+                    line = random.nextBoolean() ? "{}" : "{\"name\":\"No number " + total + "\"}";
+                    echo = line;
+                    reason = "INVALID";
+                }
+                case 7 -> {
+                    line = "";
+                }
+                default -> {
+                    long clean = randomNumber();
+                    if (listedSet.contains(clean)) {
+                        continue;
+                    }
+                    line = PhoneNumbers.format(clean);
+                }
+            }
+            input.append(line).append('\n');
+            if (line.isEmpty()) {
+                continue;
+            }
+            total++;
+            if (echo != null) {
+                expected.add(echo + " " + reason);
+                if (reason.equals("INVALID")) {
+                    invalid++;
+                } else if (kind == 0 || kind == 1) {
+                    listedLines.add(line);
+                }
+            }
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DNCBatchSummary summary = service.checkBatch(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        List<String> suppressed = new ArrayList<>();
+        for (int i = 0; i < lines.length - 1; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            suppressed.add(line.path("phoneNumber").asText() + " " + line.path("reason").asText());
+        }
+        assertEquals(expected, suppressed);
+        JsonNode written = objectMapper.readTree(lines[lines.length - 1]).path("summary");
+        assertEquals(total, written.path("total").asLong());
+        assertEquals(total, summary.getTotal());
+        assertEquals(expected.size() - invalid, summary.getSuppressed());
+        assertEquals(invalid, summary.getInvalid());
+    }
+
+    @Test
+    void handsOutTheDeltasAppliedSinceAVersion() throws IOException {
+        DNCListServiceImpl service = syncingService();
+        Files.writeString(directory.resolve("national.csv"), "+12025550101\n+12025550102\n");
+        Files.writeString(directory.resolve("v2-added.csv"), "+12025550103\n");
+        Files.writeString(directory.resolve("v3-removed.csv"), "+12025550101\n");
+        Files.writeString(directory.resolve("manifest.csv"), """
+                v1,v2,v2-added.csv,
+                v2,v3,,v3-removed.csv
+                """);
+        service.syncNationalDNC("v1");
+
+        assertEquals(2, service.syncDeltaDNC().size());
+        assertTrue(service.isDNC("+12025550103"));
+        assertFalse(service.isDNC("+12025550101"));
+        assertEquals(List.of("v1>v2", "v2>v3"), chain(service.getDeltasSince("v1")));
+        assertEquals(List.of("v2>v3"), chain(service.getDeltasSince("v2")));
+        // Up to date
+        assertEquals(Optional.of(List.of()), service.getDeltasSince("v3"));
+        assertEquals(Optional.empty(), service.getDeltasSince("v0"));
+    }
+
+    @Test
+    void handsOutNoDeltasAcrossANationalSync() throws IOException {
+        DNCListServiceImpl service = syncingService();
+        Files.writeString(directory.resolve("national.csv"), "+12025550101\n");
+        Files.writeString(directory.resolve("added.csv"), "+12025550103\n");
+        Files.writeString(directory.resolve("manifest.csv"), """
+                v1,v2,added.csv,
+                v3,v4,added.csv,
+                """);
+        service.syncNationalDNC("v1");
+        service.syncDeltaDNC();
+        // The registry file for v3 replaces the list; no delta leads from v2 to it
+        service.syncNationalDNC("v3");
+        service.syncDeltaDNC();
+
+        assertEquals(Optional.empty(), service.getDeltasSince("v1"));
+        assertEquals(Optional.empty(), service.getDeltasSince("v2"));
+        assertEquals(List.of("v3>v4"), chain(service.getDeltasSince("v3")));
+        assertEquals(Optional.of(List.of()), service.getDeltasSince("v4"));
+    }
+
+    static DNCIndexRepositoryImpl repository() {
+        DNCIndexRepositoryImpl repository = new DNCIndexRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "defaultCountryCode", "1");
+        ReflectionTestUtils.setField(repository, "compactThreshold", 64);
+        ReflectionTestUtils.setField(repository, "maxSources", 256);
+        return repository;
+    }
+
+    private DNCListServiceImpl service(DNCIndexRepositoryImpl repository) {
+        return service(repository, new NationalDNCLoader(new DefaultResourceLoader()),
+                new DeltaDNCLoader(new DefaultResourceLoader()));
+    }
+
+    /**
+     * A service syncing from {@code national.csv} and {@code manifest.csv} in the test's directory.
+     */
+    private DNCListServiceImpl syncingService() {
+        NationalDNCLoader nationalDNCLoader = new NationalDNCLoader(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(nationalDNCLoader, "source", directory.resolve("national.csv").toUri().toString());
+        ReflectionTestUtils.setField(nationalDNCLoader, "chunkBytes", 4096);
+        ReflectionTestUtils.setField(nationalDNCLoader, "parallelism", 1);
+        ReflectionTestUtils.setField(nationalDNCLoader, "defaultCountryCode", "1");
+        DeltaDNCLoader deltaDNCLoader = new DeltaDNCLoader(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(deltaDNCLoader, "manifest", directory.resolve("manifest.csv").toUri().toString());
+        ReflectionTestUtils.setField(deltaDNCLoader, "defaultCountryCode", "1");
+        return service(repository(), nationalDNCLoader, deltaDNCLoader);
+    }
+
+    private DNCListServiceImpl service(DNCIndexRepositoryImpl repository, NationalDNCLoader nationalDNCLoader,
+                                       DeltaDNCLoader deltaDNCLoader) {
+        DNCListServiceImpl service = new DNCListServiceImpl(repository, objectMapper, nationalDNCLoader, deltaDNCLoader);
+        ReflectionTestUtils.setField(service, "defaultCountryCode", "1");
+        ReflectionTestUtils.setField(service, "filterEnabled", true);
+        ReflectionTestUtils.setField(service, "filterFalsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(service, "filterGrowthAllowance", 0.1);
+        ReflectionTestUtils.setField(service, "deltaHistory", 1000);
+        service.init();
+        return service;
+    }
+
+    private static List<String> chain(Optional<List<DNCDelta>> deltas) {
+        return deltas.orElseThrow().stream().map(delta -> delta.getFromVersion() + ">" + delta.getToVersion()).toList();
+    }
+
+    // A US number in E.164
+    private long randomNumber() {
+        return 1_200_000_0000L + random.nextLong(800_000_0000L);
+    }
+}
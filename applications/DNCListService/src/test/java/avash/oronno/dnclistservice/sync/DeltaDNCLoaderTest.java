@@ -0,0 +1,118 @@
+package avash.oronno.dnclistservice.sync;
+
+import avash.oronno.dnclistservice.exception.DNCSyncException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The manifest must yield the deltas from a version to the latest one, in order, and refuse a chain
+ * that forks or loops rather than guess; a version off the chain needs a national sync. Change files
+ * must read as sorted, distinct numbers however they are written.
+ */
+class DeltaDNCLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void followsTheChainToTheLatestVersion() throws IOException {
+        DeltaDNCLoader loader = loader("""
+                # from,to,additions,removals
+                v2,v3,v3-added.csv,
+
+                v1,v2,v2-added.csv,v2-removed.csv
+                v3,v4,,/data/v4-removed.csv
+                """);
+
+        List<DeltaDNCLoader.Delta> pending = loader.pending("v1");
+        assertEquals(List.of("v2", "v3", "v4"), pending.stream().map(DeltaDNCLoader.Delta::toVersion).toList());
+        // Locations are relative to the manifest unless absolute
+        assertEquals(directory.resolve("v2-added.csv"), Path.of(URI.create(pending.get(0).additions())));
+        assertEquals("/data/v4-removed.csv", pending.get(2).removals());
+        assertNull(pending.get(1).removals());
+        assertNull(pending.get(2).additions());
+
+        assertEquals(List.of("v4"), loader.pending("v3").stream().map(DeltaDNCLoader.Delta::toVersion).toList());
+        assertEquals(List.of(), loader.pending("v4"));
+    }
+
+    @Test
+    void refusesAChainThatForksOrLoops() throws IOException {
+        DeltaDNCLoader fork = loader("""
+                v1,v2,a.csv,
+                v2,v3,b.csv,
+                v2,v4,c.csv,
+                """);
+        assertTrue(assertThrows(IOException.class, () -> fork.pending("v1")).getMessage().contains("forks"));
+
+        DeltaDNCLoader loop = loader("""
+                v1,v2,a.csv,
+                v2,v3,b.csv,
+                v3,v1,c.csv,
+                """);
+        assertTrue(assertThrows(IOException.class, () -> loop.pending("v1")).getMessage().contains("loops"));
+
+        DeltaDNCLoader malformed = loader("v1,v2,a.csv\n");
+        assertThrows(IOException.class, () -> malformed.pending("v1"));
+    }
+
+    @Test
+    void requiresANationalSyncOffTheChain() throws IOException {
+        DeltaDNCLoader loader = loader("v1,v2,a.csv,\n");
+        assertEquals(DNCSyncException.Reason.NATIONAL_SYNC_REQUIRED,
+                assertThrows(DNCSyncException.class, () -> loader.pending("v0")).getReason());
+        // A list that was never synced has no version
+        assertEquals(DNCSyncException.Reason.NATIONAL_SYNC_REQUIRED,
+                assertThrows(DNCSyncException.class, () -> loader.pending(null)).getReason());
+    }
+
+    @Test
+    void readsChangeFilesSortedAndDistinct() throws IOException {
+        DeltaDNCLoader loader = loader("");
+        String lines = """
+                phone_number,reason
+                +12025550103,consumer request
+                (202) 555-0101\r
+                2025550102
+
+                +12025550101,duplicate
+                """;
+        long[] expected = {1_202_555_0101L, 1_202_555_0102L, 1_202_555_0103L};
+
+        Path plain = Files.writeString(directory.resolve("added.csv"), lines);
+        assertArrayEquals(expected, loader.read(plain.toUri().toString()));
+
+        Path gzip = directory.resolve("added.csv.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            output.write(lines.getBytes(StandardCharsets.US_ASCII));
+        }
+        assertArrayEquals(expected, loader.read(gzip.toUri().toString()));
+
+        assertArrayEquals(new long[0], loader.read(null));
+    }
+
+    private DeltaDNCLoader loader(String manifest) throws IOException {
+        Path file = Files.writeString(directory.resolve("manifest.csv"), manifest);
+        DeltaDNCLoader loader = new DeltaDNCLoader(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(loader, "manifest", file.toUri().toString());
+        ReflectionTestUtils.setField(loader, "defaultCountryCode", "1");
+        return loader;
+    }
+}
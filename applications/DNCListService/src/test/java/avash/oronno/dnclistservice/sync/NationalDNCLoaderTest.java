@@ -0,0 +1,133 @@
+package avash.oronno.dnclistservice.sync;
+
+import avash.oronno.dnclistservice.index.DNCIndex;
+import avash.oronno.dnclistservice.index.PhoneNumbers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The block reader must find every number on the list whatever the block size: lines split across
+ * blocks, CRLF line ends, lines longer than a block and a last line without a line break, in plain
+ * and gzip-compressed files. A number lost at a block boundary is a listed number that gets dialled.
+ */
+class NationalDNCLoaderTest {
+
+    private static final String CUSTOM = "CUSTOM";
+
+    @TempDir
+    Path directory;
+
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    @ParameterizedTest(name = "{0} byte blocks")
+    @ValueSource(ints = {1, 7, 16, 64, 4096})
+    void readsEveryLineWhateverTheBlockSize(int chunkBytes) throws IOException {
+        Set<Long> expected = new HashSet<>();
+        byte[] file = nationalList(2000, expected);
+        Path plain = Files.write(directory.resolve("national.csv"), file);
+
+        DNCIndex index = loader(plain, chunkBytes).load(DNCIndex.empty(null), "v1");
+        assertNumbers(expected, index);
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(new DNCIndex.Attributes(NationalDNCLoader.NATIONAL, "v1"), index.attributesAt(i));
+        }
+    }
+
+    @ParameterizedTest(name = "{0} byte blocks")
+    @ValueSource(ints = {7, 16, 4096})
+    void readsAGzipSource(int chunkBytes) throws IOException {
+        Set<Long> expected = new HashSet<>();
+        byte[] file = nationalList(2000, expected);
+        Path gzip = directory.resolve("national.csv.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            output.write(file);
+        }
+
+        assertNumbers(expected, loader(gzip, chunkBytes).load(DNCIndex.empty(null), "v1"));
+    }
+
+    @Test
+    void replacesNationalNumbersAndKeepsOthers() throws IOException {
+        long relisted = 1_202_555_0100L;
+        long delisted = 1_202_555_0101L;
+        long custom = 1_202_555_0102L;
+        long added = 1_202_555_0103L;
+        DNCIndex current = new DNCIndex.Builder()
+                .add(relisted, NationalDNCLoader.NATIONAL, "v1")
+                .add(delisted, NationalDNCLoader.NATIONAL, "v1")
+                .add(custom, CUSTOM, "v1")
+                .build("v1");
+        Path file = Files.writeString(directory.resolve("national.csv"), "phone_number\n"
+                + PhoneNumbers.format(relisted) + "\n" + PhoneNumbers.format(custom) + "\n" + PhoneNumbers.format(added));
+
+        DNCIndex index = loader(file, 16).load(current, "v2");
+
+        assertNumbers(Set.of(relisted, custom, added), index);
+        assertEquals(new DNCIndex.Attributes(NationalDNCLoader.NATIONAL, "v2"), index.attributesAt(index.indexOf(relisted)));
+        // A number listed from another source keeps its source, also when the file lists it too
+        assertEquals(new DNCIndex.Attributes(CUSTOM, "v1"), index.attributesAt(index.indexOf(custom)));
+        assertEquals(new DNCIndex.Attributes(NationalDNCLoader.NATIONAL, "v2"), index.attributesAt(index.indexOf(added)));
+    }
+
+    private static NationalDNCLoader loader(Path file, int chunkBytes) {
+        NationalDNCLoader loader = new NationalDNCLoader(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(loader, "source", file.toUri().toString());
+        ReflectionTestUtils.setField(loader, "chunkBytes", chunkBytes);
+        ReflectionTestUtils.setField(loader, "parallelism", 2);
+        ReflectionTestUtils.setField(loader, "defaultCountryCode", "1");
+        return loader;
+    }
+
+    /**
+     * A registry file with a header row, numbers written in several ways, some with further fields,
+     * mixed LF and CRLF line ends, blank and invalid lines, and no line break after the last number.
+     */
+    private byte[] nationalList(int count, Set<Long> expected) {
+        StringBuilder file = new StringBuilder("phone_number,added_on\r\n");
+        for (int i = 0; i < count; i++) {
+            long number = 1_200_000_0000L + random.nextLong(800_000_0000L);
+            expected.add(number);
+            String formatted = PhoneNumbers.format(number);
+            file.append(switch (random.nextInt(4)) {
+                case 0 -> formatted;
+                case 1 -> formatted.substring(2);
+                case 2 -> formatted + ",2024-01-0" + random.nextInt(1, 10);
+                // Longer than the smaller blocks
+                default -> formatted + "," + "x".repeat(random.nextInt(50, 150));
+            });
+            if (i == count - 1) {
+                break;
+            }
+            file.append(random.nextBoolean() ? "\r\n" : "\n");
+            if (random.nextInt(50) == 0) {
+                file.append(random.nextBoolean() ? "\n" : "not a number\n");
+            }
+        }
+        return file.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void assertNumbers(Set<Long> expected, DNCIndex index) {
+        Set<Long> actual = new HashSet<>();
+        for (int i = 0; i < index.size(); i++) {
+            actual.add(index.numberAt(i));
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), index.size());
+    }
+}
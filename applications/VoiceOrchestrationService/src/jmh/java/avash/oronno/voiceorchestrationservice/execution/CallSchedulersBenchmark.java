@@ -0,0 +1,148 @@
+package avash.oronno.voiceorchestrationservice.execution;
+
+import avash.oronno.audioconversion.AudioConverter;
+import avash.oronno.audioconversion.Resampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the {@code voice.execution.mode} choices: many concurrent calls each receive one
+ * 20ms frame per tick from a small pool of I/O threads, standing in for the WebSocket and Netty
+ * event loops, and convert it on their call scheduler as the voice pipeline does (8kHz μ-law to
+ * 16kHz PCM inbound, 24kHz PCM to 8kHz μ-law outbound, through per-call resamplers).
+ *
+ * {@code tick} is the time until every call's frame of one tick is converted; it has to stay well
+ * under 20ms for calls to keep up. {@code ioThreadStall} is how long a task submitted to an I/O
+ * thread waits while a tick is in flight, i.e. how long other calls' network reads and writes are
+ * held up by audio work.
+ */
+public class CallSchedulersBenchmark {
+
+    private static final int MULAW_FRAME_BYTES = 160;
+    private static final int PCM_FRAME_BYTES = 960;
+
+    @State(Scope.Benchmark)
+    public static class Calls {
+
+        @Param({"bounded", "virtual", "inline"})
+        String mode;
+
+        @Param({"30", "300"})
+        int calls;
+
+        @Param({"2"})
+        int ioThreads;
+
+        CallSchedulers callSchedulers;
+        ExecutorService[] io;
+        Call[] active;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            callSchedulers = new CallSchedulers(mode, 0, 100000);
+            io = new ExecutorService[ioThreads];
+            for (int i = 0; i < ioThreads; i++) {
+                io[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("io-" + i).factory());
+            }
+            SplittableRandom random = new SplittableRandom(42);
+            active = new Call[calls];
+            for (int i = 0; i < calls; i++) {
+                active[i] = new Call(callSchedulers.forCall(String.valueOf(i)), random);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            for (Call call : active) {
+                call.scheduler.dispose();
+            }
+            for (ExecutorService thread : io) {
+                thread.shutdownNow();
+            }
+            callSchedulers.dispose();
+        }
+
+        /**
+         * Delivers one frame to every call from the I/O threads.
+         *
+         * @return counted down as each call finishes converting its frame
+         */
+        CountDownLatch tick() {
+            CountDownLatch converted = new CountDownLatch(active.length);
+            for (int i = 0; i < active.length; i++) {
+                Call call = active[i];
+                io[i % io.length].execute(() -> call.scheduler.schedule(() -> {
+                    call.convert();
+                    converted.countDown();
+                }));
+            }
+            return converted;
+        }
+    }
+
+    /**
+     * One tick in flight while {@link #ioThreadStall} measures the I/O threads; awaited after the
+     * measurement so ticks never overlap.
+     */
+    @State(Scope.Thread)
+    public static class InFlight {
+
+        CountDownLatch converted;
+
+        @TearDown(Level.Invocation)
+        public void awaitTick() throws InterruptedException {
+            converted.await();
+        }
+    }
+
+    static final class Call {
+
+        final Scheduler scheduler;
+        final Resampler inbound = AudioConverter.mulawToPcmResampler();
+        final Resampler outbound = AudioConverter.pcmToMulawResampler();
+        final byte[] mulaw = new byte[MULAW_FRAME_BYTES];
+        final byte[] pcm = new byte[PCM_FRAME_BYTES];
+        final byte[] pcmOut;
+        final byte[] mulawOut;
+
+        Call(Scheduler scheduler, SplittableRandom random) {
+            this.scheduler = scheduler;
+            random.nextBytes(mulaw);
+            random.nextBytes(pcm);
+            pcmOut = new byte[inbound.maxOutputSamples(MULAW_FRAME_BYTES) * 2];
+            mulawOut = new byte[outbound.maxOutputSamples(PCM_FRAME_BYTES / 2)];
+        }
+
+        void convert() {
+            AudioConverter.convertMulawToPcm(inbound, mulaw, 0, mulaw.length, pcmOut, 0);
+            AudioConverter.convertPcmToMulaw(outbound, pcm, 0, pcm.length, mulawOut, 0);
+        }
+    }
+
+    @Benchmark
+    public void tick(Calls calls) throws InterruptedException {
+        calls.tick().await();
+    }
+
+    @Benchmark
+    public void ioThreadStall(Calls calls, InFlight inFlight) throws InterruptedException {
+        inFlight.converted = calls.tick();
+        CountDownLatch reached = new CountDownLatch(calls.io.length);
+        for (ExecutorService thread : calls.io) {
+            thread.execute(reached::countDown);
+        }
+        reached.await(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,189 @@
+package avash.oronno.voiceorchestrationservice.admission;
+
+import avash.oronno.voiceorchestrationservice.metrics.VoiceMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-node call admission: how many calls this node takes on at once.
+ *
+ * Two limits apply. The hard limit, {@code voice.admission.max-concurrent-calls}, is never exceeded.
+ * Below it a soft limit follows the node's health, sampled every {@code voice.admission.sample-ms}:
+ * while process CPU is above {@code voice.admission.cpu-threshold}, or frames leave for Twilio late
+ * on average (the {@code frame.emit} stage timer over the last sample exceeding
+ * {@code voice.admission.frame-lag-threshold-ms}), the soft limit is cut to 95% of the calls in
+ * progress; once healthy it grows back by 1% of the hard limit per sample. Calls already admitted
+ * are never shed.
+ *
+ * A rejected call gets a retry hint, and {@link #load()} reports the node's load so dialers can
+ * route calls to less loaded nodes.
+ */
+@Slf4j
+@Component
+public class CallAdmission {
+
+    /**
+     * Point-in-time admission state.
+     *
+     * @param activeCalls calls holding a permit
+     * @param maxCalls hard limit
+     * @param softLimit current health-based limit, at most {@code maxCalls}
+     * @param cpuUsage recent process CPU usage between 0 and 1, or NaN if unknown
+     * @param frameLagMillis average lateness of frames sent to Twilio over the last sample
+     * @param accepting whether a call would be admitted now
+     * @param retryAfterSeconds retry hint given to rejected calls
+     */
+    public record Load(int activeCalls, int maxCalls, int softLimit, double cpuUsage, double frameLagMillis,
+                       boolean accepting, long retryAfterSeconds) {
+    }
+
+    /**
+     * One admitted call's slot; close it when the call ends. Closing twice is harmless.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                activeCalls.decrementAndGet();
+            }
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Timer frameEmit;
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private volatile int softLimit;
+    private volatile double cpuUsage = Double.NaN;
+    private volatile double frameLagMillis;
+    private long lastEmitCount;
+    private double lastEmitMillis;
+    private Counter rejectedAtCapacity;
+    private Counter rejectedUnderPressure;
+    private Disposable sampling;
+
+    @Value("${voice.admission.max-concurrent-calls:500}")
+    private int maxConcurrentCalls;
+
+    @Value("${voice.admission.min-soft-limit:10}")
+    private int minSoftLimit;
+
+    @Value("${voice.admission.cpu-threshold:0.85}")
+    private double cpuThreshold;
+
+    @Value("${voice.admission.frame-lag-threshold-ms:2}")
+    private double frameLagThresholdMillis;
+
+    @Value("${voice.admission.sample-ms:1000}")
+    private long sampleMillis;
+
+    @Value("${voice.admission.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    public CallAdmission(MeterRegistry registry, VoiceMetrics voiceMetrics) {
+        this.registry = registry;
+        this.frameEmit = voiceMetrics.stageTimer(VoiceMetrics.Stage.FRAME_EMIT);
+    }
+
+    @PostConstruct
+    public void start() {
+        softLimit = maxConcurrentCalls;
+        Gauge.builder("voice.calls.active", activeCalls, AtomicInteger::get)
+                .description("Calls in progress on this node")
+                .register(registry);
+        Gauge.builder("voice.calls.limit", this, admission -> Math.min(admission.maxConcurrentCalls, admission.softLimit))
+                .description("Calls this node currently admits")
+                .register(registry);
+        rejectedAtCapacity = rejected("capacity");
+        rejectedUnderPressure = rejected("pressure");
+        sampling = Flux.interval(Duration.ofMillis(sampleMillis)).subscribe(tick -> sample());
+        log.info("Call admission limited to {} concurrent calls", maxConcurrentCalls);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sampling != null) {
+            sampling.dispose();
+        }
+    }
+
+    /**
+     * Admits a call if the node has room for it.
+     *
+     * @return the call's permit, or {@code null} if it is rejected; see {@link #retryAfter()}
+     */
+    public Permit tryAdmit() {
+        int limit = Math.min(maxConcurrentCalls, softLimit);
+        int current;
+        while ((current = activeCalls.get()) < limit) {
+            if (activeCalls.compareAndSet(current, current + 1)) {
+                return new Permit();
+            }
+        }
+        (current >= maxConcurrentCalls ? rejectedAtCapacity : rejectedUnderPressure).increment();
+        return null;
+    }
+
+    /**
+     * How long a rejected caller should wait before trying this node again.
+     */
+    public Duration retryAfter() {
+        return Duration.ofSeconds(retryAfterSeconds);
+    }
+
+    public Load load() {
+        int limit = Math.min(maxConcurrentCalls, softLimit);
+        int active = activeCalls.get();
+        return new Load(active, maxConcurrentCalls, limit, cpuUsage, frameLagMillis, active < limit, retryAfterSeconds);
+    }
+
+    private void sample() {
+        Gauge cpu = registry.find("process.cpu.usage").gauge();
+        cpuUsage = cpu != null ? cpu.value() : Double.NaN;
+
+        long count = frameEmit.count();
+        double totalMillis = frameEmit.totalTime(TimeUnit.MILLISECONDS);
+        long frames = count - lastEmitCount;
+        frameLagMillis = frames > 0 ? (totalMillis - lastEmitMillis) / frames : 0;
+        lastEmitCount = count;
+        lastEmitMillis = totalMillis;
+
+        boolean pressured = cpuUsage > cpuThreshold || frameLagMillis > frameLagThresholdMillis;
+        int previous = softLimit;
+        if (pressured) {
+            softLimit = Math.max(minSoftLimit, (int) (Math.min(previous, activeCalls.get()) * 0.95));
+        } else {
+            softLimit = Math.min(maxConcurrentCalls, previous + Math.max(1, maxConcurrentCalls / 100));
+        }
+        if (pressured && softLimit < previous) {
+            log.warn("Node under pressure (cpu {}, frame lag {}ms): admitting at most {} calls",
+                    String.format("%.2f", cpuUsage), String.format("%.1f", frameLagMillis), softLimit);
+        }
+    }
+
+    private Counter rejected(String reason) {
+        return Counter.builder("voice.calls.rejected")
+                .description("Calls turned away by admission control")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
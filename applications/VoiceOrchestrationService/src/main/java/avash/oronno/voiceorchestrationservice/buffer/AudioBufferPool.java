@@ -0,0 +1,115 @@
+package avash.oronno.voiceorchestrationservice.buffer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-wide pool of audio byte arrays, shared by all calls through per-call {@link CallBuffers} leases.
+ *
+ * Arrays are pooled by exact length, since the pipeline passes frames around as whole arrays and
+ * only uses a handful of sizes. Every pooled array counts against a global byte cap from the moment
+ * it is first allocated, whether it is in use or idle on a free list, so the pool never holds more
+ * than the cap. Once the cap is reached, leases fall back to plain allocations that are left to the
+ * garbage collector.
+ */
+@Slf4j
+@Component
+public class AudioBufferPool {
+
+    /**
+     * Point-in-time pool metrics.
+     *
+     * @param capBytes global byte cap
+     * @param reservedBytes bytes of pooled arrays, in use or free
+     * @param freeBytes bytes of pooled arrays idle on free lists
+     * @param hits acquisitions served from a free list
+     * @param allocations pooled arrays allocated
+     * @param capRejections acquisitions refused because the cap was reached
+     * @param abandoned pooled arrays still in flight when their call was torn down, left to the GC
+     * @param activeLeases calls currently holding a lease
+     */
+    public record Stats(long capBytes, long reservedBytes, long freeBytes, long hits,
+                        long allocations, long capRejections, long abandoned, long activeLeases) {
+    }
+
+    private final long capBytes;
+    private final Map<Integer, Queue<byte[]>> freeLists = new ConcurrentHashMap<>();
+
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong freeBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong capRejections = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong activeLeases = new AtomicLong();
+
+    public AudioBufferPool(@Value("${voice.buffer-pool.max-bytes:67108864}") long capBytes) {
+        this.capBytes = capBytes;
+        log.info("Audio buffer pool capped at {} bytes", capBytes);
+    }
+
+    /**
+     * Opens a lease for one call. Close it when the call ends to return its arrays.
+     */
+    public CallBuffers lease() {
+        activeLeases.incrementAndGet();
+        return new CallBuffers(this);
+    }
+
+    public Stats stats() {
+        return new Stats(capBytes, reservedBytes.get(), freeBytes.get(), hits.get(),
+                allocations.get(), capRejections.get(), abandoned.get(), activeLeases.get());
+    }
+
+    /**
+     * Takes a pooled array of exactly {@code length} bytes, or returns {@code null} if none is free
+     * and allocating one would exceed the cap.
+     */
+    byte[] acquire(int length) {
+        Queue<byte[]> freeList = freeLists.get(length);
+        byte[] buffer = freeList != null ? freeList.poll() : null;
+        if (buffer != null) {
+            freeBytes.addAndGet(-length);
+            hits.incrementAndGet();
+            return buffer;
+        }
+        long reserved;
+        do {
+            reserved = reservedBytes.get();
+            if (reserved + length > capBytes) {
+                capRejections.incrementAndGet();
+                return null;
+            }
+        } while (!reservedBytes.compareAndSet(reserved, reserved + length));
+        allocations.incrementAndGet();
+        return new byte[length];
+    }
+
+    /**
+     * Returns a pooled array obtained from {@link #acquire}.
+     */
+    void release(byte[] buffer) {
+        freeLists.computeIfAbsent(buffer.length, length -> new ConcurrentLinkedQueue<>()).offer(buffer);
+        freeBytes.addAndGet(buffer.length);
+    }
+
+    /**
+     * Gives up a pooled array that may still be in use: it is never pooled again and no longer
+     * counts against the cap.
+     */
+    void abandon(byte[] buffer) {
+        reservedBytes.addAndGet(-buffer.length);
+        abandoned.incrementAndGet();
+    }
+
+    void leaseClosed() {
+        activeLeases.decrementAndGet();
+    }
+}
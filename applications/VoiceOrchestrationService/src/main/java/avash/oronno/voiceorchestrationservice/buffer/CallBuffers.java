@@ -0,0 +1,90 @@
+package avash.oronno.voiceorchestrationservice.buffer;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One call's lease on the {@link AudioBufferPool}.
+ *
+ * Released arrays go to the lease's own free lists first, so a call reuses its frames without
+ * touching the shared pool. Closing the lease hands the released arrays back to the pool. Arrays
+ * still in flight when the call is torn down may yet be written by a stage that has not seen the
+ * teardown, so they are never pooled again: they are left to the garbage collector and their bytes
+ * are given back to the pool's cap. Arrays allocated past the cap are never pooled and are simply
+ * dropped on release.
+ *
+ * Methods are synchronized: a call's stages may run on different threads.
+ */
+public final class CallBuffers implements AutoCloseable {
+
+    private static final int MIN_SCRATCH_BYTES = 256;
+
+    private final AudioBufferPool pool;
+    private final Set<byte[]> pooled = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Integer, ArrayDeque<byte[]>> freeLists = new HashMap<>();
+    private boolean closed;
+
+    CallBuffers(AudioBufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Borrows an array of exactly {@code length} bytes, e.g. a frame that is passed on as a whole array.
+     */
+    public synchronized byte[] borrow(int length) {
+        ArrayDeque<byte[]> freeList = freeLists.get(length);
+        byte[] buffer = freeList != null ? freeList.poll() : null;
+        if (buffer != null) {
+            return buffer;
+        }
+        buffer = closed ? null : pool.acquire(length);
+        if (buffer == null) {
+            return new byte[length];
+        }
+        pooled.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Borrows an array of at least {@code minLength} bytes, rounded up to a power of two so that
+     * scratch space for variable-sized chunks shares a few pooled sizes.
+     */
+    public byte[] borrowScratch(int minLength) {
+        int length = Math.max(MIN_SCRATCH_BYTES, Integer.highestOneBit(Math.max(1, minLength - 1)) << 1);
+        return borrow(length);
+    }
+
+    /**
+     * Returns an array borrowed from this lease for reuse within the call.
+     */
+    public synchronized void release(byte[] buffer) {
+        if (!closed && pooled.contains(buffer)) {
+            freeLists.computeIfAbsent(buffer.length, length -> new ArrayDeque<>()).push(buffer);
+        }
+    }
+
+    /**
+     * Returns the released arrays of this call to the pool and abandons those still in flight.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ArrayDeque<byte[]> freeList : freeLists.values()) {
+            for (byte[] buffer : freeList) {
+                pooled.remove(buffer);
+                pool.release(buffer);
+            }
+        }
+        pooled.forEach(pool::abandon);
+        pooled.clear();
+        freeLists.clear();
+        pool.leaseClosed();
+    }
+}
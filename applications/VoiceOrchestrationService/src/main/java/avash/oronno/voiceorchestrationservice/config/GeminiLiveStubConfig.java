@@ -0,0 +1,27 @@
+package avash.oronno.voiceorchestrationservice.config;
+
+import avash.oronno.voiceorchestrationservice.gemini.GeminiLiveStubServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Starts the in-process Gemini Live stub server when {@code gemini.live.stub.enabled=true};
+ * {@link avash.oronno.voiceorchestrationservice.service.GeminiLiveClient} then connects to it
+ * instead of the real API, so the voice path can be load-tested offline.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gemini.live.stub.enabled", havingValue = "true")
+public class GeminiLiveStubConfig {
+
+    @Bean(destroyMethod = "stop")
+    public GeminiLiveStubServer geminiLiveStubServer(
+            @Value("${gemini.live.stub.port:0}") int port,
+            @Value("${gemini.live.stub.response-delay-ms:200}") long responseDelayMillis,
+            @Value("${gemini.live.max-frame-bytes:4194304}") int maxFrameBytes) {
+        return new GeminiLiveStubServer(port, Duration.ofMillis(responseDelayMillis), maxFrameBytes).start();
+    }
+}
@@ -1,17 +1,31 @@
 package avash.oronno.voiceorchestrationservice.config;
 
+import avash.oronno.voiceorchestrationservice.twilio.TwilioMediaStreamHandler;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
 /**
  * WebSocket configuration for real-time audio streaming from Twilio.
+ *
+ * Twilio Media Streams speak raw JSON, so {@code /ws/voice/twilio} is a plain WebSocket handler;
+ * STOMP over SockJS stays on {@code /ws/voice} for browser clients.
  */
 @Configuration
+@EnableWebSocket
 @EnableWebSocketMessageBroker
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, WebSocketConfigurer {
+
+    private final TwilioMediaStreamHandler twilioMediaStreamHandler;
+
+    public WebSocketConfig(TwilioMediaStreamHandler twilioMediaStreamHandler) {
+        this.twilioMediaStreamHandler = twilioMediaStreamHandler;
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -24,10 +38,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws/voice")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
-        
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         // Direct WebSocket endpoint for Twilio
-        registry.addEndpoint("/ws/voice/twilio")
+        registry.addHandler(twilioMediaStreamHandler, "/ws/voice/twilio")
                 .setAllowedOriginPatterns("*");
     }
 }
-
@@ -0,0 +1,241 @@
+package avash.oronno.voiceorchestrationservice.context;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customer and campaign context for upcoming calls, fetched before they are dialed.
+ *
+ * The dialer hands over its upcoming calls through {@link #prewarm(List)}; each customer is loaded
+ * from the Customer Data Service and each campaign, once per batch, from the Campaign Management
+ * Service. The result is kept per phone number in a bounded cache ({@code voice.context.max-entries},
+ * expiring after {@code voice.context.ttl-minutes}), so {@link #lookup(String)} at call setup is a
+ * local read and Gemini session initialization never waits on another service. A call whose context
+ * was not pre-fetched, or whose lookups failed, starts without it.
+ *
+ * Numbers are keyed in E.164, with {@code voice.context.default-country-code} for national numbers,
+ * so the dialer's "(555) 010-2000" finds the context when Twilio reports the call from "+15550102000".
+ */
+@Slf4j
+@Component
+public class CallContextCache {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+    private static final int MAX_DIGITS = 15;
+    private static final int MIN_DIGITS = 7;
+    // Longest national number written without its country code
+    private static final int MAX_NATIONAL_DIGITS = 10;
+
+    /**
+     * An upcoming call to fetch context for.
+     *
+     * @param phoneNumber Number that will be dialed
+     * @param customerId Customer Data Service id of the customer, or null
+     * @param campaignId Campaign Management Service id of the campaign, or null
+     */
+    public record DialTarget(String phoneNumber, String customerId, String campaignId) {
+    }
+
+    /**
+     * @param requested targets in the request
+     * @param cached targets whose context is now cached
+     */
+    public record PrewarmResult(int requested, int cached) {
+    }
+
+    private final WebClient webClient;
+    private final MeterRegistry registry;
+    private Cache<String, Map<String, Object>> contexts;
+    private AsyncCache<String, Map<String, Object>> campaigns;
+
+    @Value("${voice.context.customer-data-url:http://customer-data-service}")
+    private String customerDataUrl;
+
+    @Value("${voice.context.campaign-management-url:http://campaign-management-service}")
+    private String campaignManagementUrl;
+
+    @Value("${voice.context.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${voice.context.ttl-minutes:120}")
+    private long ttlMinutes;
+
+    @Value("${voice.context.campaign-ttl-minutes:10}")
+    private long campaignTtlMinutes;
+
+    @Value("${voice.context.fetch-timeout-ms:2000}")
+    private long fetchTimeoutMillis;
+
+    @Value("${voice.context.prewarm-concurrency:16}")
+    private int prewarmConcurrency;
+
+    @Value("${voice.context.default-country-code:1}")
+    private String defaultCountryCode;
+
+    public CallContextCache(WebClient.Builder webClientBuilder, MeterRegistry registry) {
+        this.webClient = webClientBuilder.build();
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    public void start() {
+        contexts = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        campaigns = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofMinutes(campaignTtlMinutes))
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, contexts, "voice.call.context");
+    }
+
+    /**
+     * Cached context for a phone number, without any remote lookup.
+     *
+     * @param phoneNumber Customer phone number
+     * @return Pre-fetched context entries, or an empty map if none are cached
+     */
+    public Map<String, Object> lookup(String phoneNumber) {
+        String key = key(phoneNumber, defaultCountryCode);
+        if (key == null) {
+            return Map.of();
+        }
+        Map<String, Object> context = contexts.getIfPresent(key);
+        return context == null ? Map.of() : context;
+    }
+
+    /**
+     * Fetches and caches the context of upcoming calls. Targets whose lookups fail are skipped.
+     *
+     * @param targets Calls about to be dialed
+     * @return How many targets were cached
+     */
+    public Mono<PrewarmResult> prewarm(List<DialTarget> targets) {
+        return Flux.fromIterable(targets)
+                .filter(target -> key(target.phoneNumber(), defaultCountryCode) != null)
+                .flatMap(target -> load(target)
+                        .doOnNext(context -> contexts.put(key(target.phoneNumber(), defaultCountryCode), context)),
+                        prewarmConcurrency)
+                .count()
+                .map(cached -> new PrewarmResult(targets.size(), cached.intValue()))
+                .doOnSuccess(result -> log.info("Pre-fetched context for {} of {} upcoming calls",
+                        result.cached(), result.requested()));
+    }
+
+    private Mono<Map<String, Object>> load(DialTarget target) {
+        Mono<Map<String, Object>> customer = target.customerId() == null ? Mono.just(Map.of())
+                : fetch(customerDataUrl + "/api/customers/{id}", target.customerId())
+                        .map(CallContextCache::customerContext);
+        Mono<Map<String, Object>> campaign = target.campaignId() == null ? Mono.just(Map.of())
+                // The campaign future is shared by the batch, so one target failing must not cancel it
+                : Mono.fromFuture(() -> campaigns.get(target.campaignId(), (campaignId, executor) ->
+                        fetch(campaignManagementUrl + "/api/campaigns/{id}", campaignId)
+                                .map(CallContextCache::campaignContext)
+                                .toFuture()), true);
+        return Mono.zip(customer, campaign, (customerContext, campaignContext) -> {
+                    Map<String, Object> context = new HashMap<>(campaignContext);
+                    context.putAll(customerContext);
+                    if (target.campaignId() != null) {
+                        context.put("campaignId", target.campaignId());
+                    }
+                    return Map.copyOf(context);
+                })
+                .onErrorResume(error -> {
+                    log.warn("Could not pre-fetch context for customer {}: {}", target.customerId(), error.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Map<String, Object>> fetch(String uri, String id) {
+        return webClient.get()
+                .uri(uri, id)
+                .retrieve()
+                .bodyToMono(JSON_OBJECT)
+                .timeout(Duration.ofMillis(fetchTimeoutMillis));
+    }
+
+    private static Map<String, Object> customerContext(Map<String, Object> customer) {
+        Map<String, Object> context = new HashMap<>();
+        putIfPresent(context, "customerName", customer.get("name"));
+        putIfPresent(context, "customerEmail", customer.get("email"));
+        return context;
+    }
+
+    private static Map<String, Object> campaignContext(Map<String, Object> campaign) {
+        Map<String, Object> context = new HashMap<>();
+        putIfPresent(context, "campaignName", campaign.get("name"));
+        putIfPresent(context, "campaignDescription", campaign.get("description"));
+        return context;
+    }
+
+    private static void putIfPresent(Map<String, Object> context, String key, Object value) {
+        if (value != null) {
+            context.put(key, value);
+        }
+    }
+
+    /**
+     * Normalizes a phone number to E.164, by the same rules as the DNC List Service. Spaces, dashes,
+     * dots and parentheses are ignored. Numbers starting with {@code +} or {@code 00} are
+     * international. Any other number is national: a leading trunk prefix 0 is dropped and
+     * {@code defaultCountryCode} is prepended, unless the number is longer than a national number
+     * and already starts with it.
+     *
+     * @param phoneNumber Phone number as written
+     * @param defaultCountryCode Country code for national numbers, e.g. "1"
+     * @return The number with its leading plus, or null if it is not a phone number
+     */
+    static String key(String phoneNumber, String defaultCountryCode) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(MAX_DIGITS + 2);
+        boolean international = false;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits.length() == MAX_DIGITS + 2) {
+                    return null;
+                }
+                digits.append(c);
+            } else if (c == '+' && digits.isEmpty() && !international) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return null;
+            }
+        }
+        String number = digits.toString();
+        if (!international && number.startsWith("00")) {
+            international = true;
+            number = number.substring(2);
+        } else if (!international && number.startsWith("0")) {
+            number = number.substring(1);
+        }
+        if (!international && (number.length() <= MAX_NATIONAL_DIGITS || !number.startsWith(defaultCountryCode))) {
+            number = defaultCountryCode + number;
+        }
+        if (number.length() < MIN_DIGITS || number.length() > MAX_DIGITS || number.startsWith("0")) {
+            return null;
+        }
+        return "+" + number;
+    }
+}
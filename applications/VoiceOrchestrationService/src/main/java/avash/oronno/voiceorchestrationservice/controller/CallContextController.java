@@ -0,0 +1,37 @@
+package avash.oronno.voiceorchestrationservice.controller;
+
+import avash.oronno.voiceorchestrationservice.context.CallContextCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * REST controller for pre-fetching call context ahead of scheduled dials.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/voice/context")
+public class CallContextController {
+
+    private final CallContextCache callContextCache;
+
+    public CallContextController(CallContextCache callContextCache) {
+        this.callContextCache = callContextCache;
+    }
+
+    /**
+     * Fetches customer and campaign context for calls about to be dialed.
+     * POST /api/v1/voice/context/prewarm
+     *
+     * @param targets Upcoming calls
+     * @return How many of them now have cached context
+     */
+    @PostMapping("/prewarm")
+    public Mono<ResponseEntity<CallContextCache.PrewarmResult>> prewarm(@RequestBody List<CallContextCache.DialTarget> targets) {
+        log.debug("Pre-fetching context for {} upcoming calls", targets.size());
+        return callContextCache.prewarm(targets).map(ResponseEntity::ok);
+    }
+}
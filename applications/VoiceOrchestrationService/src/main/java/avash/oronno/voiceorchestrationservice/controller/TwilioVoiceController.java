@@ -1,7 +1,11 @@
 package avash.oronno.voiceorchestrationservice.controller;
 
+import avash.oronno.voiceorchestrationservice.admission.CallAdmission;
+import avash.oronno.voiceorchestrationservice.buffer.AudioBufferPool;
 import avash.oronno.voiceorchestrationservice.service.VoiceOrchestrationService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,9 +23,14 @@ import java.util.Map;
 public class TwilioVoiceController {
     
     private final VoiceOrchestrationService voiceOrchestrationService;
+    private final AudioBufferPool audioBufferPool;
+    private final CallAdmission callAdmission;
 
-    public TwilioVoiceController(VoiceOrchestrationService voiceOrchestrationService) {
+    public TwilioVoiceController(VoiceOrchestrationService voiceOrchestrationService, AudioBufferPool audioBufferPool,
+                                 CallAdmission callAdmission) {
         this.voiceOrchestrationService = voiceOrchestrationService;
+        this.audioBufferPool = audioBufferPool;
+        this.callAdmission = callAdmission;
     }
 
     /**
@@ -30,24 +39,55 @@ public class TwilioVoiceController {
      * 
      * @param callId Twilio Call SID
      * @param phoneNumber Customer phone number
+     * @param campaignId Campaign the call was placed for, used to tag latency metrics
      * @param audioStream Audio stream from Twilio (8kHz μ-law)
-     * @return Audio stream to send back to Twilio (8kHz μ-law)
+     * @return Audio stream to send back to Twilio (8kHz μ-law), or 503 with a Retry-After hint if the
+     *         node is not admitting calls
      */
     @PostMapping(value = "/call", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     public Flux<ResponseEntity<byte[]>> handleTwilioCall(
             @RequestParam("CallSid") String callId,
             @RequestParam("From") String phoneNumber,
+            @RequestParam(value = "CampaignId", required = false) String campaignId,
             @RequestBody Flux<byte[]> audioStream) {
         
-        log.info("Received Twilio call - Call SID: {}, From: {}", callId, phoneNumber);
+        log.info("Received Twilio call - Call SID: {}, Campaign: {}", callId, campaignId);
         
-        Flux<byte[]> responseAudio = voiceOrchestrationService.handleVoiceCall(callId, phoneNumber, audioStream);
+        CallAdmission.Permit permit = callAdmission.tryAdmit();
+        if (permit == null) {
+            log.warn("Rejecting Twilio call {}: node is not admitting calls", callId);
+            return Flux.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(callAdmission.retryAfter().toSeconds()))
+                    .build());
+        }
         
+        Flux<byte[]> responseAudio = voiceOrchestrationService.handleVoiceCall(callId, phoneNumber, campaignId, audioStream);
+        
+        // Frames share one array and bodies are written after this returns, so each gets its own copy
         return responseAudio
                 .map(audio -> ResponseEntity.ok()
                         .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .body(audio))
-                .doOnError(error -> log.error("Error handling Twilio call: {}", callId, error));
+                        .body(audio.clone()))
+                .doOnError(error -> log.error("Error handling Twilio call: {}", callId, error))
+                .doFinally(signal -> permit.close());
+    }
+
+    /**
+     * Current call load of this node, for dialers choosing where to place calls.
+     * GET /api/v1/voice/twilio/load
+     */
+    @GetMapping("/load")
+    public ResponseEntity<CallAdmission.Load> load() {
+        return ResponseEntity.ok(callAdmission.load());
+    }
+
+    /**
+     * Audio buffer pool metrics.
+     * GET /api/v1/voice/twilio/buffers
+     */
+    @GetMapping("/buffers")
+    public ResponseEntity<AudioBufferPool.Stats> bufferPoolStats() {
+        return ResponseEntity.ok(audioBufferPool.stats());
     }
 
     /**
@@ -0,0 +1,80 @@
+package avash.oronno.voiceorchestrationservice.execution;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+/**
+ * Where each call's audio conversion and buffering run ({@code voice.execution.mode}).
+ *
+ * <ul>
+ *   <li>{@code virtual}: each call gets its own virtual thread, so calls are fully isolated and
+ *       idle calls cost no platform thread</li>
+ *   <li>{@code bounded}: each call is pinned to one worker of a node-wide bounded pool of
+ *       {@code voice.execution.bounded.threads} platform threads (default: one per core); calls
+ *       sharing a worker can delay each other, but never the event loops</li>
+ *   <li>{@code inline}: work runs on whichever thread delivered the audio, including the WebSocket
+ *       and Netty event loops</li>
+ * </ul>
+ *
+ * In the {@code virtual} and {@code bounded} modes a call's work runs serially, in order, and off
+ * the threads that serve other calls' I/O. {@code inline} gives no isolation: a slow call holds up
+ * every call sharing its event loop.
+ */
+@Slf4j
+@Component
+public class CallSchedulers {
+
+    public enum Mode {
+        VIRTUAL, BOUNDED, INLINE
+    }
+
+    private final Mode mode;
+    private final Scheduler boundedPool;
+
+    public CallSchedulers(@Value("${voice.execution.mode:bounded}") String mode,
+                          @Value("${voice.execution.bounded.threads:0}") int boundedThreads,
+                          @Value("${voice.execution.bounded.queued-tasks-per-thread:100000}") int queuedTasksPerThread) {
+        this.mode = Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        int threads = boundedThreads > 0 ? boundedThreads : Runtime.getRuntime().availableProcessors();
+        this.boundedPool = this.mode == Mode.BOUNDED
+                ? Schedulers.newBoundedElastic(threads, queuedTasksPerThread, "voice-call")
+                : null;
+        log.info("Call audio runs in {} mode{}", this.mode,
+                this.mode == Mode.BOUNDED ? " on " + threads + " threads" : "");
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Opens a scheduler for one call; dispose it when the call ends. Except in {@code inline} mode,
+     * where they run at once on the submitting thread, its tasks run one at a time, in submission
+     * order.
+     *
+     * @param callId call identifier, used to name the call's thread
+     */
+    public Scheduler forCall(String callId) {
+        return switch (mode) {
+            case VIRTUAL -> Schedulers.fromExecutorService(
+                    Executors.newSingleThreadExecutor(Thread.ofVirtual().name("voice-call-" + callId).factory()),
+                    "voice-call-" + callId);
+            case BOUNDED -> Schedulers.single(boundedPool);
+            case INLINE -> Schedulers.immediate();
+        };
+    }
+
+    @PreDestroy
+    public void dispose() {
+        if (boundedPool != null) {
+            boundedPool.dispose();
+        }
+    }
+}
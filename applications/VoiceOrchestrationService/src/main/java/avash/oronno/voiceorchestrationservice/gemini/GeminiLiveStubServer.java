@@ -0,0 +1,120 @@
+package avash.oronno.voiceorchestrationservice.gemini;
+
+import avash.oronno.audioconversion.AudioConverter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Gemini Live endpoint, for offline latency and throughput testing.
+ *
+ * Speaks the subset of the BidiGenerateContent protocol the client uses: acknowledges the setup,
+ * answers every realtime input message with a model turn carrying the same audio resampled to
+ * 24kHz after {@code responseDelay}, and completes the turn when the client ends its audio stream.
+ * Responses to consecutive messages overlap, so the delay adds latency without capping throughput.
+ */
+@Slf4j
+public final class GeminiLiveStubServer {
+
+    public static final String PATH = "/ws/google.ai.generativelanguage.v1beta.GenerativeService.BidiGenerateContent";
+
+    private static final int INPUT_SAMPLE_RATE = 16000;
+    private static final int OUTPUT_SAMPLE_RATE = 24000;
+
+    private final int port;
+    private final Duration responseDelay;
+    private final int maxFrameBytes;
+
+    private final AtomicLong sessions = new AtomicLong();
+    private final AtomicLong audioMessages = new AtomicLong();
+    private final AtomicLong audioBytes = new AtomicLong();
+
+    private DisposableServer server;
+
+    /**
+     * @param port port to listen on, or 0 for any free port
+     * @param responseDelay delay before each model response
+     * @param maxFrameBytes largest client message accepted
+     */
+    public GeminiLiveStubServer(int port, Duration responseDelay, int maxFrameBytes) {
+        this.port = port;
+        this.responseDelay = responseDelay;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    public GeminiLiveStubServer start() {
+        WebsocketServerSpec spec = WebsocketServerSpec.builder().maxFramePayloadLength(maxFrameBytes).build();
+        server = HttpServer.create()
+                .host("localhost")
+                .port(port)
+                .route(routes -> routes.ws(PATH, (inbound, outbound) -> {
+                    sessions.incrementAndGet();
+                    Flux<ByteBuf> replies = inbound.aggregateFrames(maxFrameBytes)
+                            .receiveFrames()
+                            .filter(frame -> frame instanceof BinaryWebSocketFrame || frame instanceof TextWebSocketFrame)
+                            .map(frame -> LiveProtocol.parseClientMessage(frame.content()))
+                            .flatMapSequential(message -> reply(message, outbound.alloc()));
+                    return outbound.sendObject(replies.map(BinaryWebSocketFrame::new));
+                }, spec))
+                .bindNow();
+        log.info("Gemini Live stub server listening on {}", uri());
+        return this;
+    }
+
+    public String uri() {
+        return "ws://localhost:" + server.port() + PATH;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    public long sessions() {
+        return sessions.get();
+    }
+
+    public long audioMessages() {
+        return audioMessages.get();
+    }
+
+    public long audioBytes() {
+        return audioBytes.get();
+    }
+
+    private Mono<ByteBuf> reply(LiveProtocol.ClientMessage message, ByteBufAllocator allocator) {
+        if (message.setup()) {
+            return Mono.just(LiveProtocol.setupComplete());
+        }
+        if (message.audio() != null) {
+            audioMessages.incrementAndGet();
+            audioBytes.addAndGet(message.audio().length);
+            return Mono.fromSupplier(() -> LiveProtocol.modelAudio(allocator, List.of(upsample(message.audio()))))
+                    .delaySubscription(responseDelay);
+        }
+        if (message.audioStreamEnd()) {
+            return Mono.fromSupplier(LiveProtocol::turnComplete).delaySubscription(responseDelay);
+        }
+        return Mono.empty();
+    }
+
+    private static byte[] upsample(byte[] pcm16k) {
+        int samples = AudioConverter.resampledSampleCount(pcm16k.length / 2, INPUT_SAMPLE_RATE, OUTPUT_SAMPLE_RATE);
+        byte[] pcm24k = new byte[samples * 2];
+        AudioConverter.resample(ByteBuffer.wrap(pcm16k), INPUT_SAMPLE_RATE, OUTPUT_SAMPLE_RATE, ByteBuffer.wrap(pcm24k));
+        return pcm24k;
+    }
+}
@@ -0,0 +1,161 @@
+package avash.oronno.voiceorchestrationservice.gemini;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.WebsocketClientSpec;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket connections to the Gemini Live endpoint, kept warm ahead of demand.
+ *
+ * A Live session owns its WebSocket for its whole lifetime, so connections cannot be shared between
+ * sessions; what is reused is the client (event loops, DNS, TLS context) and the connection setup.
+ * The pool keeps {@code warmConnections} sockets open with the TCP, TLS and WebSocket handshakes
+ * already done and hands one to each new session, so its setup message goes out immediately, then
+ * tops the pool back up in the background. Idle sockets are closed and replaced after
+ * {@code maxIdle}, so they never go stale on the server, and a warm socket that fails is replaced
+ * after a short pause. With no warm socket idle, a session connects on demand.
+ */
+@Slf4j
+public final class LiveConnectionPool {
+
+    // Pause before replacing a warm connection that failed, so an unreachable endpoint is not retried in a loop
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private static final class Slot {
+        final Sinks.One<LiveSession> assignment = Sinks.one();
+        volatile boolean connected;
+        volatile LiveSession session;
+    }
+
+    private final HttpClient httpClient;
+    private final WebsocketClientSpec websocketSpec;
+    private final String uri;
+    private final int warmConnections;
+    private final Duration maxIdle;
+
+    private final Queue<Slot> idle = new ConcurrentLinkedQueue<>();
+    // Warm slots opened and not yet claimed, expired or failed
+    private final AtomicInteger warming = new AtomicInteger();
+    private final AtomicLong warmHits = new AtomicLong();
+    private final AtomicLong coldConnects = new AtomicLong();
+    private final Sinks.Empty<Void> disposed = Sinks.empty();
+    private volatile boolean closed;
+
+    public LiveConnectionPool(HttpClient httpClient, String uri, int maxFrameBytes, int warmConnections, Duration maxIdle) {
+        this.httpClient = httpClient;
+        this.websocketSpec = WebsocketClientSpec.builder().maxFramePayloadLength(maxFrameBytes).build();
+        this.uri = uri;
+        this.warmConnections = warmConnections;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Opens the warm connections.
+     */
+    public void start() {
+        topUp();
+    }
+
+    /**
+     * Runs the session on a warm connection if one is idle, otherwise on a new one. Connection
+     * failures are reported through {@link LiveSession#ready()}.
+     */
+    public void attach(LiveSession session) {
+        Slot slot = idle.poll();
+        if (slot != null) {
+            warming.decrementAndGet();
+            warmHits.incrementAndGet();
+        } else {
+            coldConnects.incrementAndGet();
+            slot = open(false);
+        }
+        slot.session = session;
+        slot.assignment.tryEmitValue(session);
+        topUp();
+    }
+
+    public int idleConnections() {
+        return idle.size();
+    }
+
+    public long warmHits() {
+        return warmHits.get();
+    }
+
+    public long coldConnects() {
+        return coldConnects.get();
+    }
+
+    /**
+     * Closes the idle connections; sessions already running keep theirs.
+     */
+    public void dispose() {
+        closed = true;
+        disposed.tryEmitEmpty();
+        Slot slot;
+        while ((slot = idle.poll()) != null) {
+            slot.assignment.tryEmitEmpty();
+        }
+    }
+
+    private void topUp() {
+        int current;
+        while (!closed && (current = warming.get()) < warmConnections) {
+            if (warming.compareAndSet(current, current + 1)) {
+                open(true);
+            }
+        }
+    }
+
+    private Slot open(boolean warm) {
+        Slot slot = new Slot();
+        httpClient.websocket(websocketSpec)
+                .uri(uri)
+                .handle((inbound, outbound) -> {
+                    slot.connected = true;
+                    if (warm) {
+                        idle.offer(slot);
+                        Mono.delay(maxIdle).takeUntilOther(disposed.asMono()).subscribe(tick -> expire(slot));
+                    }
+                    return slot.assignment.asMono().flatMap(session -> session.run(inbound, outbound));
+                })
+                .then()
+                .subscribe(null, error -> {
+                    // Warm slots are only claimed from the idle queue, after connecting
+                    if (warm && (!slot.connected || idle.remove(slot))) {
+                        warming.decrementAndGet();
+                        log.warn("Warm Gemini Live connection failed: {}", error.toString());
+                        Mono.delay(RETRY_DELAY).takeUntilOther(disposed.asMono()).subscribe(tick -> topUp());
+                        return;
+                    }
+                    LiveSession session = slot.session;
+                    if (session != null) {
+                        session.fail(error);
+                    }
+                }, () -> {
+                    // Closed by the server while idle
+                    if (warm && idle.remove(slot)) {
+                        warming.decrementAndGet();
+                        topUp();
+                    }
+                });
+        return slot;
+    }
+
+    private void expire(Slot slot) {
+        // Only an idle slot expires; one claimed by a session has left the queue
+        if (idle.remove(slot)) {
+            warming.decrementAndGet();
+            slot.assignment.tryEmitEmpty();
+            topUp();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package avash.oronno.voiceorchestrationservice.gemini;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.base64.Base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format of the Gemini Live API (BidiGenerateContent) messages used by the voice path.
+ *
+ * Audio messages are built directly into Netty buffers (JSON envelope around base64 that Netty
+ * encodes from pooled memory), and server messages are read with a streaming parser that decodes
+ * inline audio straight from the frame, so no per-message Strings or JSON trees are created.
+ */
+public final class LiveProtocol {
+
+    /**
+     * The parts of a server message the voice path acts on.
+     *
+     * @param setupComplete the session is ready for input
+     * @param audio inline audio chunks of the model turn, 24kHz PCM
+     * @param turnComplete the model has finished its turn
+     * @param interrupted the model turn was cut off by user activity
+     * @param goAway the server is about to close the connection
+     */
+    public record ServerMessage(boolean setupComplete, List<byte[]> audio, boolean turnComplete,
+                                boolean interrupted, boolean goAway) {
+    }
+
+    /**
+     * The parts of a client message the stub server acts on.
+     *
+     * @param setup the message is the session setup
+     * @param audio decoded realtime input audio, or {@code null}
+     * @param audioStreamEnd the client has ended its audio stream
+     */
+    public record ClientMessage(boolean setup, byte[] audio, boolean audioStreamEnd) {
+    }
+
+    public static final String INPUT_MIME_TYPE = "audio/pcm;rate=16000";
+    public static final String OUTPUT_MIME_TYPE = "audio/pcm;rate=24000";
+
+    private static final byte[] REALTIME_AUDIO_PREFIX =
+            ascii("{\"realtimeInput\":{\"audio\":{\"mimeType\":\"" + INPUT_MIME_TYPE + "\",\"data\":\"");
+    private static final byte[] MODEL_AUDIO_PREFIX =
+            ascii("{\"serverContent\":{\"modelTurn\":{\"parts\":[{\"inlineData\":{\"mimeType\":\"" + OUTPUT_MIME_TYPE + "\",\"data\":\"");
+    private static final byte[] REALTIME_AUDIO_SUFFIX = ascii("\"}}}");
+    private static final byte[] MODEL_AUDIO_SUFFIX = ascii("\"}}]}}}");
+    private static final byte[] AUDIO_STREAM_END = ascii("{\"realtimeInput\":{\"audioStreamEnd\":true}}");
+    private static final byte[] SETUP_COMPLETE = ascii("{\"setupComplete\":{}}");
+    private static final byte[] TURN_COMPLETE = ascii("{\"serverContent\":{\"turnComplete\":true}}");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON = MAPPER.getFactory();
+
+    private LiveProtocol() {
+    }
+
+    /**
+     * Session setup requesting audio responses.
+     */
+    public static ByteBuf setup(String model, String systemInstruction) {
+        Map<String, Object> setup = Map.of("setup", Map.of(
+                "model", model,
+                "generationConfig", Map.of("responseModalities", List.of("AUDIO")),
+                "systemInstruction", Map.of("parts", List.of(Map.of("text", systemInstruction)))));
+        try {
+            return Unpooled.wrappedBuffer(MAPPER.writeValueAsBytes(setup));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One realtime input message carrying the given chunks of 16kHz PCM as a single audio blob.
+     * The chunks are copied, so they may be reused once this returns.
+     */
+    public static ByteBuf realtimeAudio(ByteBufAllocator allocator, List<byte[]> chunks) {
+        return audioMessage(allocator, chunks, REALTIME_AUDIO_PREFIX, REALTIME_AUDIO_SUFFIX);
+    }
+
+    public static ByteBuf audioStreamEnd() {
+        return Unpooled.wrappedBuffer(AUDIO_STREAM_END);
+    }
+
+    /**
+     * Model turn carrying the given chunks of 24kHz PCM, as sent by the server.
+     */
+    public static ByteBuf modelAudio(ByteBufAllocator allocator, List<byte[]> chunks) {
+        return audioMessage(allocator, chunks, MODEL_AUDIO_PREFIX, MODEL_AUDIO_SUFFIX);
+    }
+
+    public static ByteBuf setupComplete() {
+        return Unpooled.wrappedBuffer(SETUP_COMPLETE);
+    }
+
+    public static ByteBuf turnComplete() {
+        return Unpooled.wrappedBuffer(TURN_COMPLETE);
+    }
+
+    /**
+     * Reads a server message; the buffer is not released.
+     */
+    public static ServerMessage parseServerMessage(ByteBuf frame) {
+        boolean setupComplete = false;
+        boolean turnComplete = false;
+        boolean interrupted = false;
+        boolean goAway = false;
+        List<byte[]> audio = List.of();
+        try (JsonParser parser = JSON.createParser((InputStream) new ByteBufInputStream(frame.duplicate()))) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "setupComplete" -> {
+                        setupComplete = true;
+                        parser.skipChildren();
+                    }
+                    case "goAway" -> {
+                        goAway = true;
+                        parser.skipChildren();
+                    }
+                    case "serverContent" -> {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String contentField = parser.currentName();
+                            JsonToken value = parser.nextToken();
+                            if (contentField.equals("turnComplete")) {
+                                turnComplete = value == JsonToken.VALUE_TRUE;
+                            } else if (contentField.equals("interrupted")) {
+                                interrupted = value == JsonToken.VALUE_TRUE;
+                            } else if (contentField.equals("modelTurn")) {
+                                audio = readModelTurnAudio(parser);
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed Gemini Live server message", e);
+        }
+        return new ServerMessage(setupComplete, audio, turnComplete, interrupted, goAway);
+    }
+
+    /**
+     * Reads a client message; the buffer is not released.
+     */
+    public static ClientMessage parseClientMessage(ByteBuf frame) {
+        boolean setup = false;
+        byte[] audio = null;
+        boolean audioStreamEnd = false;
+        try (JsonParser parser = JSON.createParser((InputStream) new ByteBufInputStream(frame.duplicate()))) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (field.equals("setup")) {
+                    setup = true;
+                    parser.skipChildren();
+                } else if (field.equals("realtimeInput")) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String inputField = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if (inputField.equals("audioStreamEnd")) {
+                            audioStreamEnd = value == JsonToken.VALUE_TRUE;
+                        } else if (inputField.equals("audio")) {
+                            audio = readBlobData(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed Gemini Live client message", e);
+        }
+        return new ClientMessage(setup, audio, audioStreamEnd);
+    }
+
+    private static List<byte[]> readModelTurnAudio(JsonParser parser) throws IOException {
+        List<byte[]> audio = new ArrayList<>(1);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (!field.equals("parts")) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String partField = parser.currentName();
+                    parser.nextToken();
+                    if (!partField.equals("inlineData")) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    byte[] data = readBlobData(parser);
+                    if (data != null) {
+                        audio.add(data);
+                    }
+                }
+            }
+        }
+        return audio;
+    }
+
+    /**
+     * Reads a {@code {"mimeType": ..., "data": <base64>}} object positioned at its start token.
+     */
+    private static byte[] readBlobData(JsonParser parser) throws IOException {
+        byte[] data = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("data")) {
+                data = parser.getBinaryValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+    private static ByteBuf audioMessage(ByteBufAllocator allocator, List<byte[]> chunks, byte[] prefix, byte[] suffix) {
+        int length = 0;
+        for (byte[] chunk : chunks) {
+            length += chunk.length;
+        }
+        ByteBuf raw = allocator.buffer(length);
+        try {
+            for (byte[] chunk : chunks) {
+                raw.writeBytes(chunk);
+            }
+            ByteBuf encoded = Base64.encode(raw, false);
+            return Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(prefix), encoded, Unpooled.wrappedBuffer(suffix));
+        } finally {
+            raw.release();
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
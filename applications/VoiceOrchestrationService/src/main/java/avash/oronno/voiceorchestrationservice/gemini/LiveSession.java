@@ -0,0 +1,265 @@
+package avash.oronno.voiceorchestrationservice.gemini;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One Gemini Live session, bound to one WebSocket connection for its whole lifetime.
+ *
+ * The connection sends the setup message first, then the session's single upload: 20ms PCM chunks
+ * are batched into one realtime input message per {@code batchChunks} chunks or {@code batchDelay},
+ * whichever comes first, and at most {@code sendWindow} messages are requested ahead of the socket.
+ * Model audio arrives on a separate download stream. Once the upload ends the client sends
+ * {@code audioStreamEnd}, and the download completes at the next {@code turnComplete} or after
+ * {@code drainTimeout}.
+ *
+ * Model audio is numbered by turn, and each turn that produced audio ends with an empty chunk on the
+ * download, so consumers see turn boundaries in order with the audio. {@link #interrupt()} drops the
+ * rest of the turn in progress, including audio already queued on the download, so a barged-in
+ * reply is never converted or played.
+ */
+@Slf4j
+public final class LiveSession {
+
+    /**
+     * Per-session streaming settings.
+     *
+     * @param sendWindow realtime input messages requested ahead of the socket
+     * @param batchChunks upload chunks per realtime input message
+     * @param batchDelay longest a chunk waits for its batch to fill
+     * @param drainTimeout how long to wait for the model to finish after the upload ends
+     * @param maxFrameBytes largest aggregated server message accepted
+     */
+    public record Settings(int sendWindow, int batchChunks, Duration batchDelay, Duration drainTimeout, int maxFrameBytes) {
+    }
+
+    /**
+     * Model turn boundaries reported by the server.
+     */
+    public enum TurnEvent {
+        /** The model finished its turn */
+        TURN_COMPLETE,
+        /** The model stopped its turn because the customer started speaking */
+        INTERRUPTED
+    }
+
+    private record Upload(Flux<byte[]> audio, Consumer<byte[]> onSent) {
+    }
+
+    private record ModelAudio(long turn, byte[] pcm) {
+    }
+
+    private static final byte[] END_OF_TURN = new byte[0];
+
+    private static final Sinks.EmitFailureHandler RETRY_CONTENDED = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private final String id;
+    private final ByteBuf setup;
+    private final Settings settings;
+
+    private final Sinks.Empty<Void> ready = Sinks.empty();
+    private final Sinks.One<Upload> upload = Sinks.one();
+    private final Sinks.Many<ModelAudio> download = Sinks.many().unicast().onBackpressureBuffer();
+    private final Sinks.Many<TurnEvent> turnEvents = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Empty<Void> closed = Sinks.empty();
+
+    private volatile boolean uploadComplete;
+
+    // Guarded by this: the turn model audio currently belongs to, whether it has started, and the
+    // first turn not dropped by an interruption
+    private long turn;
+    private boolean turnActive;
+    private volatile long firstPlayedTurn;
+    // Guarded by this, so a connection never retains the setup message after close has released it
+    private boolean setupReleased;
+
+    public LiveSession(String id, ByteBuf setup, Settings settings) {
+        this.id = id;
+        this.setup = setup;
+        this.settings = settings;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Completes once the server has acknowledged the setup.
+     */
+    public Mono<Void> ready() {
+        return ready.asMono();
+    }
+
+    /**
+     * Attaches the session's upload and returns its download; may be called once.
+     *
+     * @param audio 16kHz PCM chunks, uploaded in order
+     * @param onSent receives each chunk once it has been copied into an outgoing message
+     * @return model audio, 24kHz PCM; an empty chunk ends each model turn
+     */
+    public Flux<byte[]> stream(Flux<byte[]> audio, Consumer<byte[]> onSent) {
+        if (upload.tryEmitValue(new Upload(audio, onSent)).isFailure()) {
+            return Flux.error(new IllegalStateException("Audio stream already open for session " + id));
+        }
+        return download.asFlux()
+                .filter(modelAudio -> modelAudio.turn() >= firstPlayedTurn)
+                .map(ModelAudio::pcm);
+    }
+
+    /**
+     * Drops the rest of the model turn in progress, e.g. because the customer started speaking over
+     * it. The server's own activity detection stops generating once it hears the customer; this stops
+     * what was already generated. Does nothing between turns.
+     *
+     * @return whether a turn was in progress
+     */
+    public synchronized boolean interrupt() {
+        if (!turnActive) {
+            return false;
+        }
+        firstPlayedTurn = turn + 1;
+        return true;
+    }
+
+    /**
+     * Model turn boundaries, for as long as the session is open. Events arriving while nothing is
+     * subscribed are dropped.
+     */
+    public Flux<TurnEvent> turnEvents() {
+        return turnEvents.asFlux();
+    }
+
+    /**
+     * Ends the session and lets its connection close.
+     */
+    public void close() {
+        closed.tryEmitEmpty();
+        turnEvents.emitComplete(RETRY_CONTENDED);
+        download.emitComplete(RETRY_CONTENDED);
+        synchronized (this) {
+            if (!setupReleased) {
+                setupReleased = true;
+                setup.release();
+            }
+        }
+    }
+
+    /**
+     * Fails the session, e.g. because its connection could not be established.
+     */
+    void fail(Throwable error) {
+        ready.tryEmitError(error);
+        download.tryEmitError(error);
+    }
+
+    /**
+     * Runs the session over an open WebSocket until it is closed by either side.
+     */
+    Mono<Void> run(WebsocketInbound inbound, WebsocketOutbound outbound) {
+        Flux<ByteBuf> audioMessages = upload.asMono().flatMapMany(binding -> binding.audio()
+                .bufferTimeout(settings.batchChunks(), settings.batchDelay(), true)
+                .map(batch -> encode(outbound, batch, binding.onSent()))
+                .limitRate(settings.sendWindow())
+                .concatWith(Mono.fromSupplier(LiveProtocol::audioStreamEnd))
+                .doOnComplete(this::uploadCompleted));
+
+        Mono<Void> send = outbound.sendObject(Flux.concat(Mono.fromSupplier(this::retainSetup), audioMessages)
+                        .takeUntilOther(closed.asMono())
+                        .doOnDiscard(ByteBuf.class, ByteBuf::release)
+                        .map(BinaryWebSocketFrame::new))
+                .then();
+
+        Mono<Void> receive = inbound.aggregateFrames(settings.maxFrameBytes())
+                .receiveFrames()
+                .takeUntilOther(closed.asMono())
+                .filter(frame -> frame instanceof BinaryWebSocketFrame || frame instanceof TextWebSocketFrame)
+                .doOnNext(frame -> onServerMessage(LiveProtocol.parseServerMessage(frame.content())))
+                .then();
+
+        return Mono.when(send, receive)
+                .doOnSuccess(done -> {
+                    ready.tryEmitError(new IllegalStateException("Gemini Live connection closed during setup"));
+                    download.emitComplete(RETRY_CONTENDED);
+                })
+                .doOnError(this::fail);
+    }
+
+    /**
+     * @return the setup message for one send, or null once the session is closed
+     */
+    private synchronized ByteBuf retainSetup() {
+        return setupReleased ? null : setup.retain();
+    }
+
+    private static ByteBuf encode(WebsocketOutbound outbound, List<byte[]> batch, Consumer<byte[]> onSent) {
+        ByteBuf message = LiveProtocol.realtimeAudio(outbound.alloc(), batch);
+        batch.forEach(onSent);
+        return message;
+    }
+
+    private void onServerMessage(LiveProtocol.ServerMessage message) {
+        if (message.setupComplete()) {
+            log.debug("Gemini Live session {} set up", id);
+            ready.tryEmitEmpty();
+        }
+        if (!message.audio().isEmpty()) {
+            long audioTurn = startTurn();
+            for (byte[] audio : message.audio()) {
+                download.emitNext(new ModelAudio(audioTurn, audio), RETRY_CONTENDED);
+            }
+        }
+        if (message.interrupted() || message.turnComplete()) {
+            long endedTurn = endTurn();
+            if (endedTurn >= 0) {
+                download.emitNext(new ModelAudio(endedTurn, END_OF_TURN), RETRY_CONTENDED);
+            }
+        }
+        if (message.interrupted()) {
+            log.debug("Gemini Live session {}: model turn interrupted", id);
+            turnEvents.tryEmitNext(TurnEvent.INTERRUPTED);
+        }
+        if (message.turnComplete()) {
+            turnEvents.tryEmitNext(TurnEvent.TURN_COMPLETE);
+            if (uploadComplete) {
+                download.emitComplete(RETRY_CONTENDED);
+            }
+        }
+        if (message.goAway()) {
+            log.warn("Gemini Live server is closing the connection of session {}", id);
+        }
+    }
+
+    private synchronized long startTurn() {
+        turnActive = true;
+        return turn;
+    }
+
+    /**
+     * @return the turn that ended, or -1 if no model audio had started one
+     */
+    private synchronized long endTurn() {
+        if (!turnActive) {
+            return -1;
+        }
+        turnActive = false;
+        return turn++;
+    }
+
+    private void uploadCompleted() {
+        uploadComplete = true;
+        Mono.delay(settings.drainTimeout())
+                .takeUntilOther(closed.asMono())
+                .subscribe(tick -> download.emitComplete(RETRY_CONTENDED));
+    }
+}
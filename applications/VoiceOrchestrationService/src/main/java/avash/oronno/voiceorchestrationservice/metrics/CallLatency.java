@@ -0,0 +1,113 @@
+package avash.oronno.voiceorchestrationservice.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency tracking for one call: the pipeline reports events as audio passes through it, and the
+ * tracker turns them into {@link VoiceMetrics} measurements.
+ *
+ * Upload chunks are sent in the order they are queued, so their queue times are kept in a FIFO and
+ * matched to send notifications. A model turn starts with the first model audio after the previous
+ * turn ended; its first response latency is measured there, and its turn latency when its first
+ * frame leaves for Twilio, both from the last frame classified as customer speech.
+ *
+ * Methods are synchronized: a call's stages run on different threads.
+ */
+public final class CallLatency {
+
+    private final VoiceMetrics metrics;
+    private final Timer firstAudio;
+    private final Timer turnLatency;
+    private final long startNanos = System.nanoTime();
+
+    private long[] queued = new long[16];
+    private int queuedHead;
+    private int queuedSize;
+
+    private long lastSpeechNanos;
+    private boolean modelSpeaking;
+    private boolean turnPending;
+    private boolean firstAudioRecorded;
+
+    CallLatency(VoiceMetrics metrics, Timer firstAudio, Timer turnLatency) {
+        this.metrics = metrics;
+        this.firstAudio = firstAudio;
+        this.turnLatency = turnLatency;
+    }
+
+    /**
+     * A frame was classified as customer speech.
+     */
+    public synchronized void userSpeech() {
+        lastSpeechNanos = System.nanoTime();
+    }
+
+    /**
+     * A chunk entered the upload stream.
+     */
+    public synchronized void uploadQueued() {
+        if (queuedSize == queued.length) {
+            long[] grown = new long[queued.length * 2];
+            for (int i = 0; i < queuedSize; i++) {
+                grown[i] = queued[(queuedHead + i) % queued.length];
+            }
+            queued = grown;
+            queuedHead = 0;
+        }
+        queued[(queuedHead + queuedSize) % queued.length] = System.nanoTime();
+        queuedSize++;
+    }
+
+    /**
+     * The oldest queued chunk was written to Gemini.
+     */
+    public synchronized void uploadSent() {
+        if (queuedSize == 0) {
+            return;
+        }
+        long queuedNanos = queued[queuedHead];
+        queuedHead = (queuedHead + 1) % queued.length;
+        queuedSize--;
+        metrics.record(VoiceMetrics.Stage.GEMINI_SEND, System.nanoTime() - queuedNanos);
+    }
+
+    /**
+     * Model audio arrived from Gemini.
+     */
+    public synchronized void modelAudio() {
+        if (modelSpeaking) {
+            return;
+        }
+        modelSpeaking = true;
+        turnPending = true;
+        if (lastSpeechNanos != 0) {
+            metrics.record(VoiceMetrics.Stage.GEMINI_FIRST_RESPONSE, System.nanoTime() - lastSpeechNanos);
+        }
+    }
+
+    /**
+     * Gemini finished or abandoned its turn.
+     */
+    public synchronized void modelTurnEnded() {
+        modelSpeaking = false;
+    }
+
+    /**
+     * A frame was sent to Twilio.
+     */
+    public synchronized void frameEmitted() {
+        long now = System.nanoTime();
+        if (!firstAudioRecorded) {
+            firstAudioRecorded = true;
+            firstAudio.record(now - startNanos, TimeUnit.NANOSECONDS);
+        }
+        if (turnPending) {
+            turnPending = false;
+            if (lastSpeechNanos != 0) {
+                turnLatency.record(now - lastSpeechNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
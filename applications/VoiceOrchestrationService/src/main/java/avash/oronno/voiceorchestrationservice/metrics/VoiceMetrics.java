@@ -0,0 +1,163 @@
+package avash.oronno.voiceorchestrationservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the voice path, exported through the actuator metrics and Prometheus endpoints.
+ *
+ * <ul>
+ *   <li>{@code voice.stage.latency}, tagged by {@code stage}: time spent in each pipeline stage per frame or chunk</li>
+ *   <li>{@code voice.call.first.audio}, tagged by {@code campaign}: call start to the first frame sent to Twilio</li>
+ *   <li>{@code voice.turn.latency}, tagged by {@code campaign}: end of the customer's speech to the first
+ *       frame of the model's reply sent to Twilio</li>
+ *   <li>{@code voice.playout.underruns} and {@code voice.playout.overruns}: jitter buffer events</li>
+ *   <li>{@code voice.twilio.frames.malformed}: inbound media frames dropped for an invalid payload</li>
+ *   <li>{@code voice.twilio.frames.dropped}: inbound media frames dropped because the call pipeline was behind</li>
+ * </ul>
+ *
+ * All timers publish p50/p95/p99. Stage timers also publish a percentile histogram, for quantiles
+ * aggregated across nodes; the per-campaign timers do not, so each campaign adds a handful of series
+ * rather than a full set of histogram buckets. Campaign ids come from the dialer, so only the first
+ * {@code voice.metrics.max-campaign-tags} campaigns seen get their own tag value and later ones share
+ * {@code other}, which bounds the series count whatever the callers send. Stage timers are resolved
+ * once, so recording on the per-frame path is a plain timer update.
+ */
+@Component
+public class VoiceMetrics {
+
+    /**
+     * Pipeline stages, in the order audio passes through them.
+     */
+    public enum Stage {
+        /** Decoding one Twilio media frame (JSON and base64) */
+        TWILIO_RECEIVE("twilio.receive"),
+        /** Converting one inbound frame from 8kHz μ-law to 16kHz PCM */
+        MULAW_TO_PCM("mulaw.to.pcm"),
+        /** From a chunk entering the upload stream to it being written into a Gemini message */
+        GEMINI_SEND("gemini.send"),
+        /** From the end of the customer's speech to the first audio of the model's reply */
+        GEMINI_FIRST_RESPONSE("gemini.first.response"),
+        /** Converting one response chunk from 24kHz PCM to 8kHz μ-law */
+        PCM_TO_MULAW("pcm.to.mulaw"),
+        /** How late each frame is sent to Twilio relative to its 20ms slot */
+        FRAME_EMIT("frame.emit"),
+        /** From a barge-in to playout falling silent */
+        BARGE_IN("barge.in");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final String UNKNOWN_CAMPAIGN = "unknown";
+    private static final String OTHER_CAMPAIGN = "other";
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Counter underruns;
+    private final Counter overruns;
+    private final Counter malformedFrames;
+    private final Counter droppedFrames;
+    private final int maxCampaignTags;
+    private final Set<String> taggedCampaigns = ConcurrentHashMap.newKeySet();
+
+    public VoiceMetrics(MeterRegistry registry, @Value("${voice.metrics.max-campaign-tags:50}") int maxCampaignTags) {
+        this.registry = registry;
+        this.maxCampaignTags = maxCampaignTags;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("voice.stage.latency")
+                    .description("Time spent in a voice pipeline stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry));
+        }
+        this.underruns = Counter.builder("voice.playout.underruns")
+                .description("Frames due for playout with less than a frame buffered")
+                .register(registry);
+        this.overruns = Counter.builder("voice.playout.overruns")
+                .description("Writes that found the playout buffer full and dropped audio")
+                .register(registry);
+        this.malformedFrames = Counter.builder("voice.twilio.frames.malformed")
+                .description("Inbound Twilio media frames dropped because their payload was not valid base64")
+                .register(registry);
+        this.droppedFrames = Counter.builder("voice.twilio.frames.dropped")
+                .description("Inbound Twilio media frames dropped because the call pipeline's queue was full")
+                .register(registry);
+    }
+
+    public void record(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer stageTimer(Stage stage) {
+        return stageTimers.get(stage);
+    }
+
+    /**
+     * Starts latency tracking for one call.
+     *
+     * @param campaign campaign the call belongs to, or {@code null} if unknown
+     */
+    public CallLatency startCall(String campaign) {
+        String tag = campaignTag(campaign);
+        return new CallLatency(this, callTimer("voice.call.first.audio", "Call start to first frame sent to Twilio", tag),
+                callTimer("voice.turn.latency", "End of customer speech to first reply frame sent to Twilio", tag));
+    }
+
+    public void recordPlayout(long callUnderruns, long callOverruns) {
+        underruns.increment(callUnderruns);
+        overruns.increment(callOverruns);
+    }
+
+    public void malformedFrame() {
+        malformedFrames.increment();
+    }
+
+    public void droppedFrame() {
+        droppedFrames.increment();
+    }
+
+    /**
+     * The campaign's own id while fewer than {@code maxCampaignTags} campaigns have been tagged, otherwise {@code other}.
+     */
+    private String campaignTag(String campaign) {
+        if (campaign == null || campaign.isBlank()) {
+            return UNKNOWN_CAMPAIGN;
+        }
+        if (taggedCampaigns.contains(campaign)) {
+            return campaign;
+        }
+        synchronized (taggedCampaigns) {
+            if (taggedCampaigns.size() < maxCampaignTags) {
+                taggedCampaigns.add(campaign);
+                return campaign;
+            }
+        }
+        return OTHER_CAMPAIGN;
+    }
+
+    private Timer callTimer(String name, String description, String campaign) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("campaign", campaign)
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+}
@@ -1,82 +1,218 @@
 package avash.oronno.voiceorchestrationservice.service;
 
+import avash.oronno.voiceorchestrationservice.gemini.GeminiLiveStubServer;
+import avash.oronno.voiceorchestrationservice.gemini.LiveConnectionPool;
+import avash.oronno.voiceorchestrationservice.gemini.LiveProtocol;
+import avash.oronno.voiceorchestrationservice.gemini.LiveSession;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Client service for integrating with Gemini Live API.
  * Handles WebSocket connections and audio streaming to/from Gemini.
+ *
+ * Each session runs over its own WebSocket from a {@link LiveConnectionPool}, which keeps
+ * handshaken connections warm. When the in-process stub server is enabled
+ * ({@code gemini.live.stub.enabled=true}) sessions connect to it instead of the real API.
  */
 @Slf4j
 @Service
 public class GeminiLiveClient {
-    
-    private final WebClient webClient;
-    
+
+    private static final String LIVE_PATH = "/ws/google.ai.generativelanguage.v1beta.GenerativeService.BidiGenerateContent";
+    private static final String API_KEY_HEADER = "x-goog-api-key";
+
+    private final ObjectProvider<GeminiLiveStubServer> stubServer;
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+    private LiveConnectionPool connectionPool;
+    private LiveSession.Settings sessionSettings;
+
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
-    
+
     @Value("${gemini.live.api.url:https://generativelanguage.googleapis.com}")
     private String geminiApiUrl;
 
-    public GeminiLiveClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
+    @Value("${gemini.live.model:models/gemini-2.0-flash-live-001}")
+    private String model;
+
+    @Value("${gemini.live.system-instruction:You are a friendly outbound calling assistant. Keep replies short and conversational.}")
+    private String systemInstruction;
+
+    @Value("${gemini.live.pool.warm-connections:0}")
+    private int warmConnections;
+
+    @Value("${gemini.live.pool.max-idle-ms:60000}")
+    private long maxIdleMillis;
+
+    @Value("${gemini.live.send-window:8}")
+    private int sendWindow;
+
+    @Value("${gemini.live.batch.max-chunks:2}")
+    private int batchChunks;
+
+    @Value("${gemini.live.batch.max-delay-ms:30}")
+    private long batchDelayMillis;
+
+    @Value("${gemini.live.setup-timeout-ms:10000}")
+    private long setupTimeoutMillis;
+
+    @Value("${gemini.live.drain-timeout-ms:3000}")
+    private long drainTimeoutMillis;
+
+    @Value("${gemini.live.max-frame-bytes:4194304}")
+    private int maxFrameBytes;
+
+    public GeminiLiveClient(ObjectProvider<GeminiLiveStubServer> stubServer) {
+        this.stubServer = stubServer;
+    }
+
+    @PostConstruct
+    public void start() {
+        HttpClient httpClient = HttpClient.create();
+        String uri;
+        GeminiLiveStubServer stub = stubServer.getIfAvailable();
+        if (stub != null) {
+            uri = stub.uri();
+        } else {
+            uri = geminiApiUrl.replaceFirst("^http", "ws") + LIVE_PATH;
+            httpClient = httpClient.headers(headers -> headers.set(API_KEY_HEADER, geminiApiKey));
+        }
+        sessionSettings = new LiveSession.Settings(sendWindow, batchChunks, Duration.ofMillis(batchDelayMillis),
+                Duration.ofMillis(drainTimeoutMillis), maxFrameBytes);
+        connectionPool = new LiveConnectionPool(httpClient, uri, maxFrameBytes, warmConnections, Duration.ofMillis(maxIdleMillis));
+        connectionPool.start();
+        log.info("Gemini Live client using {} with {} warm connections", uri, warmConnections);
+    }
+
+    @PreDestroy
+    public void stop() {
+        connectionPool.dispose();
+        sessions.values().forEach(LiveSession::close);
+        sessions.clear();
     }
 
     /**
      * Initializes a session with Gemini Live API.
-     * 
+     *
      * @param context Customer context for personalization
      * @return Session ID for the conversation
      */
     public Mono<String> initializeSession(Map<String, Object> context) {
         log.info("Initializing Gemini Live API session with context");
-        
-        // TODO: Implement actual Gemini Live API WebSocket connection
-        // This is a placeholder for the actual implementation
-        
-        return Mono.just("session-" + System.currentTimeMillis())
+
+        return Mono.defer(() -> {
+                    String sessionId = "session-" + UUID.randomUUID();
+                    LiveSession session = new LiveSession(sessionId,
+                            LiveProtocol.setup(model, instruction(context)), sessionSettings);
+                    sessions.put(sessionId, session);
+                    connectionPool.attach(session);
+                    return session.ready()
+                            .timeout(Duration.ofMillis(setupTimeoutMillis))
+                            .doOnError(error -> {
+                                sessions.remove(sessionId);
+                                session.close();
+                            })
+                            .thenReturn(sessionId);
+                })
                 .doOnSuccess(sessionId -> log.info("Gemini session initialized: {}", sessionId));
     }
 
     /**
      * Sends audio stream to Gemini Live API.
-     * 
+     *
      * @param sessionId Session ID
      * @param audioData PCM audio bytes at 16kHz
-     * @return Response audio from Gemini at 24kHz
+     * @return Response audio from Gemini at 24kHz; an empty chunk ends each model turn
      */
     public Flux<byte[]> sendAudioStream(String sessionId, Flux<byte[]> audioData) {
-        log.debug("Sending audio stream to Gemini Live API, session: {}", sessionId);
-        
-        // TODO: Implement actual Gemini Live API WebSocket streaming
-        // This is a placeholder for the actual implementation
-        
-        return audioData
-                .map(bytes -> {
-                    // Placeholder: echo back the audio (in real implementation, this would be Gemini's response)
-                    log.debug("Received {} bytes from Gemini", bytes.length);
-                    return bytes;
-                })
+        return sendAudioStream(sessionId, audioData, chunk -> {
+        });
+    }
+
+    /**
+     * Opens the session's bidirectional audio stream: one long-lived upload and a separate download.
+     *
+     * The upload is subscribed once and consumed in order; chunks are batched into realtime input
+     * messages and at most {@code gemini.live.send-window} messages are requested ahead of the
+     * socket, so a slow connection backpressures the caller instead of buffering here. Each chunk is
+     * handed to {@code onSent} once it has been copied into an outgoing message, so the caller may
+     * recycle the array. Response arrays belong to the caller. The returned stream completes when
+     * the model finishes its turn after the upload has completed, or after the drain timeout.
+     *
+     * @param sessionId Session ID
+     * @param audioData PCM audio bytes at 16kHz
+     * @param onSent Receives each chunk after it has been sent
+     * @return Response audio from Gemini at 24kHz; an empty chunk ends each model turn
+     */
+    public Flux<byte[]> sendAudioStream(String sessionId, Flux<byte[]> audioData, Consumer<byte[]> onSent) {
+        log.debug("Opening audio stream to Gemini Live API, session: {}", sessionId);
+
+        LiveSession session = sessions.get(sessionId);
+        if (session == null) {
+            return Flux.error(new IllegalStateException("Unknown Gemini session: " + sessionId));
+        }
+        return session.stream(audioData, onSent)
                 .doOnError(error -> log.error("Error streaming audio to Gemini", error));
     }
 
+    /**
+     * Model turn boundaries of the session, until it is closed.
+     *
+     * @param sessionId Session ID
+     */
+    public Flux<LiveSession.TurnEvent> turnEvents(String sessionId) {
+        LiveSession session = sessions.get(sessionId);
+        return session == null ? Flux.empty() : session.turnEvents();
+    }
+
+    /**
+     * Drops the rest of the model turn in progress; see {@link LiveSession#interrupt()}.
+     *
+     * @param sessionId Session ID
+     * @return whether a model turn was in progress
+     */
+    public boolean interrupt(String sessionId) {
+        LiveSession session = sessions.get(sessionId);
+        return session != null && session.interrupt();
+    }
+
     /**
      * Closes the session with Gemini Live API.
-     * 
+     *
      * @param sessionId Session ID
      */
     public Mono<Void> closeSession(String sessionId) {
         log.info("Closing Gemini Live API session: {}", sessionId);
-        
-        // TODO: Implement actual session closure
-        return Mono.empty();
+
+        return Mono.fromRunnable(() -> {
+            LiveSession session = sessions.remove(sessionId);
+            if (session != null) {
+                session.close();
+            }
+        });
     }
-}
 
+    private String instruction(Map<String, Object> context) {
+        if (context.isEmpty()) {
+            return systemInstruction;
+        }
+        return systemInstruction + "\n\nCall context:\n" + context.entrySet().stream()
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .collect(Collectors.joining("\n"));
+    }
+}
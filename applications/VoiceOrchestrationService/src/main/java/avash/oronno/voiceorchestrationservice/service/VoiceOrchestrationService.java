@@ -1,13 +1,37 @@
 package avash.oronno.voiceorchestrationservice.service;
 
 import avash.oronno.audioconversion.AudioConverter;
+import avash.oronno.audioconversion.JitterBuffer;
+import avash.oronno.audioconversion.Resampler;
+import avash.oronno.audioconversion.SilenceSuppressor;
+import avash.oronno.audioconversion.VoiceActivityDetector;
+import avash.oronno.voiceorchestrationservice.buffer.AudioBufferPool;
+import avash.oronno.voiceorchestrationservice.buffer.CallBuffers;
+import avash.oronno.voiceorchestrationservice.context.CallContextCache;
+import avash.oronno.voiceorchestrationservice.execution.CallSchedulers;
+import avash.oronno.voiceorchestrationservice.gemini.LiveSession;
+import avash.oronno.voiceorchestrationservice.metrics.CallLatency;
+import avash.oronno.voiceorchestrationservice.metrics.VoiceMetrics;
+import avash.oronno.voiceorchestrationservice.twilio.TwilioMediaFrameDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Voice Orchestration Service - Main service for managing voice calls from Twilio to Gemini Live API.
@@ -19,15 +43,76 @@ import java.util.Map;
  * 4. Receives response from Gemini (24kHz PCM)
  * 5. Converts to 8kHz μ-law using Audio Conversion Service
  * 6. Sends back to Twilio
+ *
+ * Each stage is timed through {@link VoiceMetrics}, along with per-call first audio and turn
+ * latency tagged by the {@code campaignId} context entry.
+ *
+ * Barge-in: when the customer starts speaking over the model, or Gemini reports the model turn as
+ * interrupted, the rest of the model's turn is dropped before conversion and the playout buffer is
+ * flushed, so playout falls silent within one 20ms frame.
+ *
+ * Each call's conversion and buffering run on the call's own scheduler from {@link CallSchedulers},
+ * off the WebSocket and Netty threads that deliver its audio. Each direction has its own
+ * {@link Resampler} for the whole call, so filter history and decimation phase carry across frames.
  */
 @Slf4j
 @Service
 public class VoiceOrchestrationService {
     
+    private static final int GEMINI_INPUT_SAMPLE_RATE = 16000;
+    private static final Duration TWILIO_FRAME_INTERVAL = Duration.ofMillis(20);
+    private static final String CALL_ID = "callId";
+    private static final String PHONE_NUMBER = "phoneNumber";
+    private static final String CAMPAIGN_ID = "campaignId";
+    // Context entries set for every call; anything else came from the pre-fetched context
+    private static final Set<String> CALL_KEYS = Set.of(CALL_ID, PHONE_NUMBER, CAMPAIGN_ID);
+    // Frames handed to a call's scheduler ahead of processing
+    private static final int CALL_QUEUE_FRAMES = 32;
+
+    /**
+     * What a call holds for its lifetime: pooled buffers, its scheduler, and a resampler per direction.
+     */
+    private record CallResources(CallBuffers buffers, Scheduler scheduler, Resampler inbound, Resampler outbound) {
+    }
+
     private final GeminiLiveClient geminiLiveClient;
+    private final AudioBufferPool audioBufferPool;
+    private final VoiceMetrics voiceMetrics;
+    private final CallSchedulers callSchedulers;
+    private final CallContextCache callContextCache;
+
+    @Value("${voice.vad.enabled:false}")
+    private boolean vadEnabled;
+
+    @Value("${voice.vad.mode:drop}")
+    private String vadMode;
 
-    public VoiceOrchestrationService(GeminiLiveClient geminiLiveClient) {
+    @Value("${voice.vad.hangover-ms:300}")
+    private int vadHangoverMillis;
+
+    @Value("${voice.vad.pre-roll-ms:200}")
+    private int vadPreRollMillis;
+
+    @Value("${voice.vad.compact-keep-every:10}")
+    private int vadCompactKeepEvery;
+
+    @Value("${voice.barge-in.enabled:true}")
+    private boolean bargeInEnabled;
+
+    @Value("${voice.playout.target-depth-frames:3}")
+    private int playoutTargetDepth;
+
+    @Value("${voice.playout.max-depth-frames:250}")
+    private int playoutMaxDepth;
+
+    public VoiceOrchestrationService(GeminiLiveClient geminiLiveClient, AudioBufferPool audioBufferPool,
+                                     VoiceMetrics voiceMetrics, CallSchedulers callSchedulers,
+                                     CallContextCache callContextCache) {
         this.geminiLiveClient = geminiLiveClient;
+        this.audioBufferPool = audioBufferPool;
+        this.voiceMetrics = voiceMetrics;
+        this.callSchedulers = callSchedulers;
+        this.callContextCache = callContextCache;
     }
 
     /**
@@ -35,54 +120,349 @@ public class VoiceOrchestrationService {
      * 
      * @param twilioAudioStream Audio stream from Twilio (8kHz μ-law)
      * @param context Customer context for personalization
-     * @return Audio stream to send back to Twilio (8kHz μ-law)
+     * @return Audio stream to send back to Twilio (8kHz μ-law), as frames in one reused array
      */
     public Flux<byte[]> processVoiceCall(Flux<byte[]> twilioAudioStream, Map<String, Object> context) {
-        log.info("Processing voice call with context: {}", context);
-        
+        log.info("Processing voice call - Call ID: {}, Campaign: {}, Context cached: {}",
+                context.get(CALL_ID), context.get(CAMPAIGN_ID), isCached(context));
+
+        return withCallResources(context, call -> {
+            // Convert incoming audio (8kHz μ-law → 16kHz PCM)
+            Flux<byte[]> pcmAudioStream = onCallThread(twilioAudioStream, call.scheduler())
+                    .handle((mulawAudio, sink) -> {
+                        log.debug("Converting μ-law to PCM: {} bytes", mulawAudio.length);
+                        long start = System.nanoTime();
+                        byte[] pcmAudio = toPcm(call, mulawAudio, mulawAudio.length);
+                        voiceMetrics.record(VoiceMetrics.Stage.MULAW_TO_PCM, System.nanoTime() - start);
+                        if (pcmAudio != null) {
+                            sink.next(pcmAudio);
+                        }
+                    });
+            return streamToGemini(pcmAudioStream, call, context, () -> {
+            });
+        });
+    }
+
+    /**
+     * Processes a Twilio Media Streams connection and sends its audio to Gemini.
+     * 
+     * Each element is one JSON frame as received on the socket. Media payloads are base64-decoded
+     * into the decoder's reusable μ-law buffer and converted to PCM from there; other events are
+     * consumed here.
+     * 
+     * @param mediaFrames Twilio Media Streams JSON frames
+     * @param context Customer context for personalization
+     * @return Audio stream to send back to Twilio (8kHz μ-law), as frames in one reused array
+     */
+    public Flux<byte[]> processMediaStream(Flux<byte[]> mediaFrames, Map<String, Object> context) {
+        return processMediaStream(mediaFrames, context, () -> {
+        }, frame -> {
+        });
+    }
+
+    /**
+     * Processes a Twilio Media Streams connection and sends its audio to Gemini, telling the caller
+     * when a barge-in discards model audio so it can clear what Twilio has already buffered.
+     * 
+     * @param mediaFrames Twilio Media Streams JSON frames
+     * @param context Customer context for personalization
+     * @param onBargeIn Runs after each barge-in has flushed the playout buffer
+     * @param onFrameDecoded Receives each frame once it has been decoded, after which the caller may reuse the array
+     * @return Audio stream to send back to Twilio (8kHz μ-law), as frames in one reused array
+     */
+    public Flux<byte[]> processMediaStream(Flux<byte[]> mediaFrames, Map<String, Object> context, Runnable onBargeIn,
+                                           Consumer<byte[]> onFrameDecoded) {
+        log.info("Processing media stream - Call ID: {}, Campaign: {}, Context cached: {}",
+                context.get(CALL_ID), context.get(CAMPAIGN_ID), isCached(context));
+
+        return withCallResources(context, call -> {
+            TwilioMediaFrameDecoder decoder = new TwilioMediaFrameDecoder();
+            Flux<byte[]> pcmAudioStream = onCallThread(mediaFrames, call.scheduler()).handle((frame, sink) -> {
+                long start = System.nanoTime();
+                long malformed = decoder.malformedFrames();
+                TwilioMediaFrameDecoder.Event event = decoder.decode(frame, 0, frame.length);
+                long decoded = System.nanoTime();
+                // The payload now lives in the decoder's buffer
+                onFrameDecoded.accept(frame);
+                voiceMetrics.record(VoiceMetrics.Stage.TWILIO_RECEIVE, decoded - start);
+                if (decoder.malformedFrames() != malformed) {
+                    voiceMetrics.malformedFrame();
+                }
+                if (event == TwilioMediaFrameDecoder.Event.MEDIA && decoder.payloadLength() > 0) {
+                    byte[] pcmAudio = toPcm(call, decoder.payload(), decoder.payloadLength());
+                    voiceMetrics.record(VoiceMetrics.Stage.MULAW_TO_PCM, System.nanoTime() - decoded);
+                    if (pcmAudio != null) {
+                        sink.next(pcmAudio);
+                    }
+                } else if (event == TwilioMediaFrameDecoder.Event.START) {
+                    log.info("Twilio media stream started: {}", decoder.streamSid());
+                } else if (event == TwilioMediaFrameDecoder.Event.STOP) {
+                    log.info("Twilio media stream stopped: {}", decoder.streamSid());
+                    sink.complete();
+                }
+            });
+            return streamToGemini(pcmAudioStream, call, context, onBargeIn);
+        });
+    }
+
+    /**
+     * Runs a call with its resources; the buffers and scheduler are released when the call ends.
+     */
+    private <T> Flux<T> withCallResources(Map<String, Object> context, Function<CallResources, Flux<T>> call) {
+        return Flux.using(() -> callSchedulers.forCall(String.valueOf(context.get(CALL_ID))),
+                scheduler -> Flux.using(audioBufferPool::lease,
+                        buffers -> call.apply(new CallResources(buffers, scheduler,
+                                AudioConverter.mulawToPcmResampler(), AudioConverter.pcmToMulawResampler())),
+                        CallBuffers::close),
+                Scheduler::dispose);
+    }
+
+    /**
+     * Converts one μ-law frame to 16kHz PCM in an array of exactly the converted size, or returns
+     * null while the resampler is still filling its window at the start of the call.
+     */
+    private static byte[] toPcm(CallResources call, byte[] mulawAudio, int mulawBytes) {
+        // Once primed, a frame converts to exactly the resampler's bound, so the array is passed on as is
+        byte[] pcmAudio = call.buffers().borrow(call.inbound().maxOutputSamples(mulawBytes) * 2);
+        int samples = AudioConverter.convertMulawToPcm(call.inbound(), mulawAudio, 0, mulawBytes, pcmAudio, 0);
+        if (samples * 2 == pcmAudio.length) {
+            return pcmAudio;
+        }
+        byte[] trimmed = samples > 0 ? call.buffers().borrow(samples * 2) : null;
+        if (trimmed != null) {
+            System.arraycopy(pcmAudio, 0, trimmed, 0, samples * 2);
+        }
+        call.buffers().release(pcmAudio);
+        return trimmed;
+    }
+
+    private static <T> Flux<T> onCallThread(Flux<T> stream, Scheduler scheduler) {
+        return scheduler == Schedulers.immediate() ? stream : stream.publishOn(scheduler, CALL_QUEUE_FRAMES);
+    }
+
+    /**
+     * Streams 16kHz PCM to a new Gemini session and converts the response for Twilio.
+     * 
+     * PCM frames are borrowed from the call's buffers and go back to them once uploaded or suppressed.
+     * Frames are classified for speech whether or not silence suppression is on, so turn latency can
+     * be measured from the end of the customer's speech.
+     */
+    private Flux<byte[]> streamToGemini(Flux<byte[]> pcmAudioStream, CallResources call, Map<String, Object> context,
+                                        Runnable onBargeIn) {
+        CallBuffers buffers = call.buffers();
         // Step 1: Initialize Gemini session
         Mono<String> sessionMono = geminiLiveClient.initializeSession(context);
         
-        return sessionMono
-                .flatMapMany(sessionId -> {
-                    log.info("Session initialized: {}", sessionId);
-                    
-                    // Step 2: Convert incoming audio (8kHz μ-law → 16kHz PCM) and stream to Gemini
-                    Flux<byte[]> geminiAudioStream = twilioAudioStream
-                            .map(mulawAudio -> {
-                                try {
-                                    log.debug("Converting μ-law to PCM: {} bytes", mulawAudio.length);
-                                    return AudioConverter.convertMulawToPcm(mulawAudio);
-                                } catch (IOException e) {
-                                    log.error("Error converting μ-law to PCM", e);
-                                    throw new RuntimeException("Audio conversion failed", e);
-                                }
-                            })
-                            .flatMapMany(pcmAudio -> {
-                                log.debug("Sending PCM audio to Gemini: {} bytes", pcmAudio.length);
-                                return geminiLiveClient.sendAudioStream(sessionId, Flux.just(pcmAudio));
-                            });
-                    
-                    // Step 3: Convert outgoing audio (24kHz PCM → 8kHz μ-law) for Twilio
-                    return geminiAudioStream
-                            .map(pcmAudio -> {
-                                try {
-                                    log.debug("Converting PCM to μ-law: {} bytes", pcmAudio.length);
-                                    return AudioConverter.convertPcmToMulaw(pcmAudio);
-                                } catch (IOException e) {
-                                    log.error("Error converting PCM to μ-law", e);
-                                    throw new RuntimeException("Audio conversion failed", e);
-                                }
-                            })
-                            .doOnComplete(() -> {
-                                log.info("Voice call processing completed for session: {}", sessionId);
-                                geminiLiveClient.closeSession(sessionId).subscribe();
-                            })
-                            .doOnError(error -> {
-                                log.error("Error processing voice call for session: {}", sessionId, error);
-                                geminiLiveClient.closeSession(sessionId).subscribe();
-                            });
-                });
+        return Flux.defer(() -> {
+            CallLatency latency = voiceMetrics.startCall((String) context.get(CAMPAIGN_ID));
+            Sinks.Many<Long> speechOnsets = Sinks.many().multicast().directBestEffort();
+            Flux<byte[]> uploadStream = vadEnabled
+                    ? suppressSilence(pcmAudioStream, buffers, latency, speechOnsets)
+                    : detectSpeech(pcmAudioStream, latency, speechOnsets);
+            return sessionMono
+                    .flatMapMany(sessionId -> {
+                        log.info("Session initialized: {}", sessionId);
+                        Disposable turnTracking = geminiLiveClient.turnEvents(sessionId)
+                                .subscribe(event -> latency.modelTurnEnded());
+                        
+                        // Step 2: Stream the 16kHz PCM to Gemini over the call's single audio stream, in
+                        // arrival order; responses arrive on its download side independently of the upload
+                        Flux<byte[]> geminiAudioStream = geminiLiveClient.sendAudioStream(sessionId,
+                                        uploadStream.doOnNext(pcmAudio -> {
+                                            log.debug("Sending PCM audio to Gemini: {} bytes", pcmAudio.length);
+                                            latency.uploadQueued();
+                                        }),
+                                        pcmAudio -> {
+                                            latency.uploadSent();
+                                            buffers.release(pcmAudio);
+                                        })
+                                .doOnNext(pcmAudio -> {
+                                    if (pcmAudio.length > 0) {
+                                        latency.modelAudio();
+                                    }
+                                });
+                        
+                        // Step 3: Convert outgoing audio (24kHz PCM → 8kHz μ-law) for Twilio, re-sliced
+                        // into 20ms frames and played out at a steady pace
+                        return playout(geminiAudioStream, call, sessionId, latency, speechOnsets.asFlux(), onBargeIn)
+                                .doFinally(signal -> turnTracking.dispose())
+                                .doOnComplete(() -> {
+                                    log.info("Voice call processing completed for session: {}", sessionId);
+                                    geminiLiveClient.closeSession(sessionId).subscribe();
+                                })
+                                .doOnError(error -> {
+                                    log.error("Error processing voice call for session: {}", sessionId, error);
+                                    geminiLiveClient.closeSession(sessionId).subscribe();
+                                })
+                                .doOnCancel(() -> {
+                                    log.info("Voice call cancelled for session: {}", sessionId);
+                                    geminiLiveClient.closeSession(sessionId).subscribe();
+                                });
+                    });
+        });
+    }
+
+    /**
+     * Converts 24kHz PCM chunks of any size to μ-law in pooled scratch space and re-slices them into
+     * 20ms (160-byte) frames through a per-call jitter buffer, emitting one frame per 20ms tick once
+     * the target depth is buffered. Completes when the input has completed and the buffer has drained.
+     * The end-of-turn chunk lets each turn's tail play out without counting the gap after it as an
+     * underrun. Frames are polled into one array borrowed for the call, so each is only valid until
+     * the next is emitted.
+     * 
+     * A barge-in flushes the buffer and then runs {@code onBargeIn}; a chunk whose conversion
+     * straddles the flush is discarded, and the resampler drops the interrupted turn's held-back
+     * samples before the next chunk.
+     */
+    private Flux<byte[]> playout(Flux<byte[]> pcmAudioStream, CallResources call, String sessionId,
+                                 CallLatency latency, Flux<Long> speechOnsets, Runnable onBargeIn) {
+        CallBuffers buffers = call.buffers();
+        Resampler resampler = call.outbound();
+        return Flux.defer(() -> {
+            JitterBuffer buffer = JitterBuffer.forMulaw(playoutTargetDepth, playoutMaxDepth);
+            byte[] frame = buffers.borrow(JitterBuffer.MULAW_FRAME_BYTES);
+            AtomicLong flushes = new AtomicLong();
+            AtomicLong bargeInNanos = new AtomicLong();
+            long[] resamplerEpoch = new long[1];
+            Disposable interruptions = bargeInEnabled
+                    ? interruptions(sessionId, buffer, speechOnsets).subscribe(onset -> {
+                        int discarded;
+                        synchronized (buffer) {
+                            flushes.incrementAndGet();
+                            discarded = buffer.flush();
+                        }
+                        bargeInNanos.compareAndSet(0, onset);
+                        onBargeIn.run();
+                        log.debug("Barge-in on session {}: flushed {} bytes of playout", sessionId, discarded);
+                    })
+                    : null;
+            Mono<Long> fill = onCallThread(pcmAudioStream, call.scheduler())
+                    .doOnNext(pcmAudio -> {
+                        if (pcmAudio.length == 0) {
+                            buffer.endTurn();
+                            return;
+                        }
+                        log.debug("Converting PCM to μ-law: {} bytes", pcmAudio.length);
+                        long epoch = flushes.get();
+                        if (epoch != resamplerEpoch[0]) {
+                            resampler.reset();
+                            resamplerEpoch[0] = epoch;
+                        }
+                        long start = System.nanoTime();
+                        byte[] mulawAudio = buffers.borrowScratch(resampler.maxOutputSamples(pcmAudio.length / 2));
+                        int mulawBytes = AudioConverter.convertPcmToMulaw(resampler, pcmAudio, 0, pcmAudio.length, mulawAudio, 0);
+                        voiceMetrics.record(VoiceMetrics.Stage.PCM_TO_MULAW, System.nanoTime() - start);
+                        synchronized (buffer) {
+                            if (flushes.get() == epoch) {
+                                buffer.write(mulawAudio, 0, mulawBytes);
+                            }
+                        }
+                        buffers.release(mulawAudio);
+                    })
+                    .doOnComplete(buffer::finish)
+                    .then(Mono.empty());
+            AtomicLong ticksStartNanos = new AtomicLong();
+            Flux<Long> ticks = Flux.interval(TWILIO_FRAME_INTERVAL)
+                    .doOnSubscribe(subscription -> ticksStartNanos.set(System.nanoTime()))
+                    .onBackpressureDrop();
+            // Frames are polled after the merge, so the reused frame is never queued behind another
+            return Flux.merge(ticks, fill)
+                    .<byte[]>handle((tick, sink) -> {
+                        if (buffer.poll(frame, 0)) {
+                            long slotNanos = ticksStartNanos.get() + (tick + 1) * TWILIO_FRAME_INTERVAL.toNanos();
+                            voiceMetrics.record(VoiceMetrics.Stage.FRAME_EMIT, Math.max(0, System.nanoTime() - slotNanos));
+                            latency.frameEmitted();
+                            sink.next(frame);
+                            return;
+                        }
+                        long bargeIn = bargeInNanos.getAndSet(0);
+                        if (bargeIn != 0) {
+                            voiceMetrics.record(VoiceMetrics.Stage.BARGE_IN, System.nanoTime() - bargeIn);
+                        }
+                        if (buffer.isDrained()) {
+                            sink.complete();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (interruptions != null) {
+                            interruptions.dispose();
+                        }
+                        buffers.release(frame);
+                        voiceMetrics.recordPlayout(buffer.underruns(), buffer.overruns());
+                        log.info("Playout for session {}: {} frames, {} underruns, {} overruns ({} bytes dropped)",
+                                sessionId, buffer.framesOut(), buffer.underruns(), buffer.overruns(), buffer.droppedBytes());
+                    });
+        });
+    }
+
+    /**
+     * Barge-ins while model audio is playing or pending, as their onset times: the customer starting
+     * to speak, which also drops the rest of the model's turn, or Gemini interrupting the turn itself.
+     */
+    private Flux<Long> interruptions(String sessionId, JitterBuffer buffer, Flux<Long> speechOnsets) {
+        Flux<Long> customerSpeech = speechOnsets.filter(onset -> {
+            boolean turnInProgress = geminiLiveClient.interrupt(sessionId);
+            return turnInProgress || buffer.depth() > 0;
+        });
+        Flux<Long> modelInterrupted = geminiLiveClient.turnEvents(sessionId)
+                .filter(event -> event == LiveSession.TurnEvent.INTERRUPTED && buffer.depth() > 0)
+                .map(event -> System.nanoTime());
+        return Flux.merge(customerSpeech, modelInterrupted);
+    }
+
+    /**
+     * Drops or compacts silent 16kHz PCM frames before they are uploaded, keeping a short pre-roll
+     * ahead of each speech onset. Detector state is per subscription, i.e. per call.
+     */
+    private Flux<byte[]> suppressSilence(Flux<byte[]> pcmAudioStream, CallBuffers buffers, CallLatency latency,
+                                         Sinks.Many<Long> speechOnsets) {
+        SilenceSuppressor.Mode mode = SilenceSuppressor.Mode.valueOf(vadMode.toUpperCase(Locale.ROOT));
+        return Flux.defer(() -> {
+            VoiceActivityDetector detector = new VoiceActivityDetector(GEMINI_INPUT_SAMPLE_RATE, vadConfig());
+            SilenceSuppressor suppressor = new SilenceSuppressor(detector,
+                    GEMINI_INPUT_SAMPLE_RATE, vadPreRollMillis, mode, vadCompactKeepEvery, buffers::release);
+            return pcmAudioStream
+                    .concatMapIterable(pcmAudio -> {
+                        boolean wasActive = detector.isActive();
+                        List<byte[]> forwarded = suppressor.offer(pcmAudio);
+                        trackSpeech(detector, wasActive, latency, speechOnsets);
+                        return forwarded;
+                    })
+                    .doFinally(signal -> log.info("Silence suppression ({}): forwarded {} of {} frames, {} of {} bytes",
+                            mode, suppressor.framesForwarded(), suppressor.framesIn(),
+                            suppressor.bytesForwarded(), suppressor.bytesIn()));
+        });
+    }
+
+    /**
+     * Classifies frames for speech, for latency tracking only; every frame is uploaded.
+     */
+    private Flux<byte[]> detectSpeech(Flux<byte[]> pcmAudioStream, CallLatency latency, Sinks.Many<Long> speechOnsets) {
+        return Flux.defer(() -> {
+            VoiceActivityDetector detector = new VoiceActivityDetector(GEMINI_INPUT_SAMPLE_RATE, vadConfig());
+            return pcmAudioStream.doOnNext(pcmAudio -> {
+                boolean wasActive = detector.isActive();
+                detector.process(pcmAudio, 0, pcmAudio.length);
+                trackSpeech(detector, wasActive, latency, speechOnsets);
+            });
+        });
+    }
+
+    /**
+     * Reports a speech frame to the latency tracker and, when it starts an utterance, signals an onset.
+     */
+    private static void trackSpeech(VoiceActivityDetector detector, boolean wasActive, CallLatency latency,
+                                    Sinks.Many<Long> speechOnsets) {
+        if (detector.isSpeech()) {
+            latency.userSpeech();
+            if (!wasActive) {
+                speechOnsets.tryEmitNext(System.nanoTime());
+            }
+        }
+    }
+
+    private VoiceActivityDetector.Config vadConfig() {
+        return VoiceActivityDetector.Config.defaults().withHangoverMillis(vadHangoverMillis);
     }
 
     /**
@@ -91,18 +471,86 @@ public class VoiceOrchestrationService {
      * @param callId Call identifier
      * @param phoneNumber Customer phone number
      * @param twilioAudioStream Audio stream from Twilio
-     * @return Audio stream to send back to Twilio
+     * @return Audio stream to send back to Twilio, as frames in one reused array
      */
     public Flux<byte[]> handleVoiceCall(String callId, String phoneNumber, Flux<byte[]> twilioAudioStream) {
-        log.info("Handling voice call - Call ID: {}, Phone: {}", callId, phoneNumber);
-        
+        return handleVoiceCall(callId, phoneNumber, null, twilioAudioStream);
+    }
+
+    /**
+     * Handles a complete voice call session placed for a campaign.
+     * 
+     * @param callId Call identifier
+     * @param phoneNumber Customer phone number
+     * @param campaignId Campaign the call belongs to, or null
+     * @param twilioAudioStream Audio stream from Twilio
+     * @return Audio stream to send back to Twilio, as frames in one reused array
+     */
+    public Flux<byte[]> handleVoiceCall(String callId, String phoneNumber, String campaignId, Flux<byte[]> twilioAudioStream) {
         // Build context for Gemini
-        Map<String, Object> context = Map.of(
-                "callId", callId,
-                "phoneNumber", phoneNumber
-        );
-        
-        return processVoiceCall(twilioAudioStream, context);
+        return processVoiceCall(twilioAudioStream, callContext(callId, phoneNumber, campaignId));
+    }
+
+    /**
+     * Handles a Twilio Media Streams connection for a call.
+     * 
+     * @param callId Call identifier
+     * @param phoneNumber Customer phone number
+     * @param mediaFrames Twilio Media Streams JSON frames
+     * @return Audio stream to send back to Twilio, as frames in one reused array
+     */
+    public Flux<byte[]> handleMediaStream(String callId, String phoneNumber, Flux<byte[]> mediaFrames) {
+        return handleMediaStream(callId, phoneNumber, null, mediaFrames);
+    }
+
+    /**
+     * Handles a Twilio Media Streams connection for a campaign call.
+     * 
+     * @param callId Call identifier
+     * @param phoneNumber Customer phone number
+     * @param campaignId Campaign the call belongs to, or null
+     * @param mediaFrames Twilio Media Streams JSON frames
+     * @return Audio stream to send back to Twilio, as frames in one reused array
+     */
+    public Flux<byte[]> handleMediaStream(String callId, String phoneNumber, String campaignId, Flux<byte[]> mediaFrames) {
+        return handleMediaStream(callId, phoneNumber, campaignId, mediaFrames, () -> {
+        }, frame -> {
+        });
     }
-}
 
+    /**
+     * Handles a Twilio Media Streams connection for a campaign call, reporting barge-ins and
+     * handing each inbound frame back once decoded.
+     * 
+     * @param callId Call identifier
+     * @param phoneNumber Customer phone number
+     * @param campaignId Campaign the call belongs to, or null
+     * @param mediaFrames Twilio Media Streams JSON frames
+     * @param onBargeIn Runs after each barge-in has flushed the playout buffer
+     * @param onFrameDecoded Receives each frame once it has been decoded, after which the caller may reuse the array
+     * @return Audio stream to send back to Twilio, as frames in one reused array
+     */
+    public Flux<byte[]> handleMediaStream(String callId, String phoneNumber, String campaignId, Flux<byte[]> mediaFrames,
+                                          Runnable onBargeIn, Consumer<byte[]> onFrameDecoded) {
+        return processMediaStream(mediaFrames, callContext(callId, phoneNumber, campaignId), onBargeIn, onFrameDecoded);
+    }
+
+    private Map<String, Object> callContext(String callId, String phoneNumber, String campaignId) {
+        // Only what was pre-fetched before the dial; setup never waits on a remote lookup
+        Map<String, Object> context = new HashMap<>(callContextCache.lookup(phoneNumber));
+        context.put(CALL_ID, callId);
+        context.put(PHONE_NUMBER, phoneNumber);
+        if (campaignId != null) {
+            context.put(CAMPAIGN_ID, campaignId);
+        }
+        return context;
+    }
+
+    /**
+     * Whether the context holds pre-fetched customer or campaign entries. Only this is logged: the
+     * entries themselves are customer data.
+     */
+    private static boolean isCached(Map<String, Object> context) {
+        return !CALL_KEYS.containsAll(context.keySet());
+    }
+}
@@ -0,0 +1,240 @@
+package avash.oronno.voiceorchestrationservice.twilio;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Streaming decoder for Twilio Media Streams JSON frames.
+ *
+ * Scans the raw frame bytes once, without building a JSON tree or any per-frame Strings: the
+ * {@code event} name is matched byte-wise, and the base64 {@code media.payload} is decoded straight
+ * into a μ-law buffer that is reused for every frame of the stream. Only the {@code start} event,
+ * sent once per stream, materializes its {@code streamSid}.
+ *
+ * One instance per media stream; instances are not thread-safe, and {@link #payload()} is only
+ * valid until the next call to {@link #decode}.
+ */
+public final class TwilioMediaFrameDecoder {
+
+    /**
+     * Twilio Media Streams event types.
+     */
+    public enum Event {
+        CONNECTED, START, MEDIA, MARK, DTMF, STOP, UNKNOWN
+    }
+
+    private static final byte[] EVENT_KEY = ascii("event");
+    private static final byte[] PAYLOAD_KEY = ascii("payload");
+    private static final byte[] STREAM_SID_KEY = ascii("streamSid");
+    private static final byte[] MEDIA_KEY = ascii("media");
+    private static final byte[] START_KEY = ascii("start");
+
+    private static final Event[] EVENTS = Event.values();
+    private static final byte[][] EVENT_NAMES = new byte[EVENTS.length][];
+    private static final byte[] BASE64 = new byte[256];
+
+    static {
+        for (Event event : EVENTS) {
+            EVENT_NAMES[event.ordinal()] = ascii(event.name().toLowerCase(Locale.ROOT));
+        }
+        Arrays.fill(BASE64, (byte) -1);
+        byte[] alphabet = ascii("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/");
+        for (int i = 0; i < alphabet.length; i++) {
+            BASE64[alphabet[i]] = (byte) i;
+        }
+    }
+
+    private byte[] payload;
+    private int payloadLength;
+    private String streamSid;
+    private long malformedFrames;
+
+    public TwilioMediaFrameDecoder() {
+        this(160);
+    }
+
+    /**
+     * @param initialPayloadCapacity μ-law bytes to size the payload buffer for, one 20ms frame by default
+     */
+    public TwilioMediaFrameDecoder(int initialPayloadCapacity) {
+        this.payload = new byte[initialPayloadCapacity];
+    }
+
+    /**
+     * Decodes one JSON frame. For {@link Event#MEDIA} the μ-law audio is left in {@link #payload()};
+     * for {@link Event#START} the stream SID is captured. A media frame whose payload is not valid
+     * base64 is dropped: it decodes as {@link Event#UNKNOWN} with no payload, and is counted in
+     * {@link #malformedFrames()}, so one bad frame does not end the call.
+     *
+     * @param frame frame bytes (UTF-8 JSON)
+     * @param offset offset of the first frame byte
+     * @param length number of frame bytes
+     * @return the frame's event type
+     */
+    public Event decode(byte[] frame, int offset, int length) {
+        int end = offset + length;
+        payloadLength = 0;
+        Event event = Event.UNKNOWN;
+        boolean malformed = false;
+        int depth = 0;
+        // Key of the object currently open at depth 1, so nested keys can be attributed to it
+        int sectionStart = -1;
+        int sectionEnd = -1;
+
+        int i = offset;
+        while (i < end) {
+            byte c = frame[i];
+            if (c == '{' || c == '[') {
+                depth++;
+                i++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                i++;
+            } else if (c == '"') {
+                int keyStart = i + 1;
+                int keyEnd = skipString(frame, keyStart, end);
+                int next = skipWhitespace(frame, keyEnd + 1, end);
+                if (next >= end || frame[next] != ':') {
+                    // A string value, not a key
+                    i = keyEnd + 1;
+                    continue;
+                }
+                int value = skipWhitespace(frame, next + 1, end);
+                if (depth == 1) {
+                    sectionStart = keyStart;
+                    sectionEnd = keyEnd;
+                }
+                if (value < end && frame[value] == '"') {
+                    int valueStart = value + 1;
+                    int valueEnd = skipString(frame, valueStart, end);
+                    if (depth == 1 && equals(frame, keyStart, keyEnd, EVENT_KEY)) {
+                        event = event(frame, valueStart, valueEnd);
+                    } else if (depth == 2 && equals(frame, keyStart, keyEnd, PAYLOAD_KEY)
+                            && equals(frame, sectionStart, sectionEnd, MEDIA_KEY)) {
+                        malformed |= !decodeBase64(frame, valueStart, valueEnd);
+                    } else if (depth == 2 && equals(frame, keyStart, keyEnd, STREAM_SID_KEY)
+                            && equals(frame, sectionStart, sectionEnd, START_KEY)) {
+                        streamSid = new String(frame, valueStart, valueEnd - valueStart, StandardCharsets.US_ASCII);
+                    }
+                    i = valueEnd + 1;
+                } else {
+                    i = value;
+                }
+            } else {
+                i++;
+            }
+        }
+        if (malformed) {
+            malformedFrames++;
+            payloadLength = 0;
+            return Event.UNKNOWN;
+        }
+        return event;
+    }
+
+    /**
+     * Decoded μ-law audio of the last {@link Event#MEDIA} frame; the first {@link #payloadLength()} bytes are valid.
+     */
+    public byte[] payload() {
+        return payload;
+    }
+
+    public int payloadLength() {
+        return payloadLength;
+    }
+
+    /**
+     * Stream SID from the {@code start} event, or {@code null} before it has been seen.
+     */
+    public String streamSid() {
+        return streamSid;
+    }
+
+    /**
+     * Frames dropped because their media payload was not valid base64.
+     */
+    public long malformedFrames() {
+        return malformedFrames;
+    }
+
+    /**
+     * @return whether the payload was valid base64
+     */
+    private boolean decodeBase64(byte[] frame, int start, int end) {
+        int capacity = (end - start) / 4 * 3 + 3;
+        if (payload.length < capacity) {
+            payload = new byte[Math.max(capacity, payload.length * 2)];
+        }
+
+        int accumulator = 0;
+        int bits = 0;
+        int written = 0;
+        for (int i = start; i < end; i++) {
+            byte c = frame[i];
+            if (c == '=') {
+                break;
+            }
+            if (c == '\\') {
+                // JSON may escape '/' as "\/"
+                continue;
+            }
+            int value = BASE64[c & 0xFF];
+            if (value < 0) {
+                payloadLength = 0;
+                return false;
+            }
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                payload[written++] = (byte) (accumulator >> bits);
+            }
+        }
+        payloadLength = written;
+        return true;
+    }
+
+    private static Event event(byte[] frame, int start, int end) {
+        for (Event event : EVENTS) {
+            if (equals(frame, start, end, EVENT_NAMES[event.ordinal()])) {
+                return event;
+            }
+        }
+        return Event.UNKNOWN;
+    }
+
+    /**
+     * Index of the closing quote of the string starting at {@code start}, or {@code end} if unterminated.
+     */
+    private static int skipString(byte[] frame, int start, int end) {
+        int i = start;
+        while (i < end) {
+            byte c = frame[i];
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"') {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(byte[] frame, int start, int end) {
+        int i = start;
+        while (i < end && (frame[i] == ' ' || frame[i] == '\t' || frame[i] == '\n' || frame[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean equals(byte[] frame, int start, int end, byte[] expected) {
+        return start >= 0 && Arrays.equals(frame, start, end, expected, 0, expected.length);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
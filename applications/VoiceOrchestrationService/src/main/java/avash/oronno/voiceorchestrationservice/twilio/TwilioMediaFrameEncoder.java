@@ -0,0 +1,82 @@
+package avash.oronno.voiceorchestrationservice.twilio;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder for outbound Twilio Media Streams JSON frames, the counterpart of {@link TwilioMediaFrameDecoder}.
+ *
+ * The constant parts of a {@code media} message are built once per stream and the μ-law payload is
+ * base64-encoded straight into a reused frame buffer, so each frame costs one Latin-1 String copy.
+ *
+ * One instance per media stream; instances are not thread-safe.
+ */
+public final class TwilioMediaFrameEncoder {
+
+    private static final byte[] BASE64 = ascii("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/");
+    private static final byte[] MEDIA_SUFFIX = ascii("\"}}");
+
+    private final byte[] mediaPrefix;
+    private final String clear;
+    private byte[] frame;
+
+    /**
+     * @param streamSid stream SID from the {@code start} event
+     */
+    public TwilioMediaFrameEncoder(String streamSid) {
+        this.mediaPrefix = ascii("{\"event\":\"media\",\"streamSid\":\"" + streamSid + "\",\"media\":{\"payload\":\"");
+        this.clear = "{\"event\":\"clear\",\"streamSid\":\"" + streamSid + "\"}";
+        this.frame = new byte[frameLength(160)];
+    }
+
+    /**
+     * Encodes μ-law audio as a {@code media} message.
+     */
+    public String media(byte[] mulaw, int offset, int length) {
+        int frameLength = frameLength(length);
+        if (frame.length < frameLength) {
+            frame = new byte[frameLength];
+        }
+        System.arraycopy(mediaPrefix, 0, frame, 0, mediaPrefix.length);
+        int written = encodeBase64(mulaw, offset, length, frame, mediaPrefix.length);
+        System.arraycopy(MEDIA_SUFFIX, 0, frame, written, MEDIA_SUFFIX.length);
+        return new String(frame, 0, frameLength, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * The {@code clear} message, which makes Twilio discard the audio it has buffered for playback.
+     * Safe to call from any thread.
+     */
+    public String clear() {
+        return clear;
+    }
+
+    private int frameLength(int payloadLength) {
+        return mediaPrefix.length + (payloadLength + 2) / 3 * 4 + MEDIA_SUFFIX.length;
+    }
+
+    private static int encodeBase64(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int end = offset + length;
+        int j = dstOffset;
+        int i = offset;
+        for (; i + 3 <= end; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[j++] = BASE64[bits >>> 18];
+            dst[j++] = BASE64[(bits >>> 12) & 0x3F];
+            dst[j++] = BASE64[(bits >>> 6) & 0x3F];
+            dst[j++] = BASE64[bits & 0x3F];
+        }
+        int remaining = end - i;
+        if (remaining > 0) {
+            int bits = (src[i] & 0xFF) << 16 | (remaining == 2 ? (src[i + 1] & 0xFF) << 8 : 0);
+            dst[j++] = BASE64[bits >>> 18];
+            dst[j++] = BASE64[(bits >>> 12) & 0x3F];
+            dst[j++] = remaining == 2 ? BASE64[(bits >>> 6) & 0x3F] : (byte) '=';
+            dst[j++] = '=';
+        }
+        return j;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
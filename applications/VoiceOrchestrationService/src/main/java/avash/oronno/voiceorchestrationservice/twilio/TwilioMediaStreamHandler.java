@@ -0,0 +1,206 @@
+package avash.oronno.voiceorchestrationservice.twilio;
+
+import avash.oronno.voiceorchestrationservice.admission.CallAdmission;
+import avash.oronno.voiceorchestrationservice.buffer.AudioBufferPool;
+import avash.oronno.voiceorchestrationservice.buffer.CallBuffers;
+import avash.oronno.voiceorchestrationservice.metrics.VoiceMetrics;
+import avash.oronno.voiceorchestrationservice.service.VoiceOrchestrationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Raw WebSocket endpoint for Twilio Media Streams: one socket is one call.
+ *
+ * Twilio sends plain JSON frames, so they bypass any message broker: each text frame goes as-is into
+ * the call's pipeline in {@link VoiceOrchestrationService#handleMediaStream}, and each 20ms μ-law frame
+ * it produces is written straight back as a {@code media} message; a barge-in sends a {@code clear}
+ * message, so the audio Twilio has already buffered stops too. The pipeline starts at the
+ * {@code start} event, which carries the call SID and the TwiML {@code <Parameter>} values
+ * {@code From} and {@code CampaignId}.
+ *
+ * Each text frame is copied into an array borrowed from the socket's {@link CallBuffers} lease, which
+ * the pipeline hands back once the frame is decoded; Twilio's frames come in a handful of lengths, so
+ * steady-state frames reuse the same arrays instead of allocating one per frame.
+ *
+ * Frames arriving while the pipeline is still setting up its Gemini session, or while it is behind,
+ * are queued, up to {@code voice.twilio.stream.max-queued-frames}; past that the newest are dropped
+ * and counted in {@link VoiceMetrics}. The servlet handler cannot push back on Twilio without
+ * blocking a container thread, and audio that arrives late is of no use to the call anyway.
+ * Outbound writes go through a send buffer bounded in time and size that drops the oldest frames
+ * when the socket falls behind, so a slow client never stalls playout.
+ *
+ * Each socket needs a {@link CallAdmission} permit; without one it is closed straight away with
+ * status 1013 (try again later) and a retry hint in the reason.
+ */
+@Slf4j
+@Component
+public class TwilioMediaStreamHandler extends TextWebSocketHandler {
+
+    private static final String CALL_ATTRIBUTE = TwilioMediaStreamHandler.class.getName() + ".call";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final class Call {
+        final CallAdmission.Permit permit;
+        final CallBuffers buffers;
+        final Sinks.Many<byte[]> frames;
+        volatile Disposable pipeline;
+        long droppedFrames;
+
+        Call(CallAdmission.Permit permit, CallBuffers buffers, int maxQueuedFrames) {
+            this.permit = permit;
+            this.buffers = buffers;
+            this.frames = Sinks.many().unicast().onBackpressureBuffer(Queues.<byte[]>get(maxQueuedFrames).get());
+        }
+    }
+
+    private final VoiceOrchestrationService voiceOrchestrationService;
+    private final CallAdmission callAdmission;
+    private final AudioBufferPool audioBufferPool;
+    private final VoiceMetrics voiceMetrics;
+
+    @Value("${voice.twilio.stream.max-queued-frames:256}")
+    private int maxQueuedFrames;
+
+    @Value("${voice.twilio.stream.send-time-limit-ms:1000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${voice.twilio.stream.send-buffer-bytes:65536}")
+    private int sendBufferBytes;
+
+    public TwilioMediaStreamHandler(VoiceOrchestrationService voiceOrchestrationService, CallAdmission callAdmission,
+                                    AudioBufferPool audioBufferPool, VoiceMetrics voiceMetrics) {
+        this.voiceOrchestrationService = voiceOrchestrationService;
+        this.callAdmission = callAdmission;
+        this.audioBufferPool = audioBufferPool;
+        this.voiceMetrics = voiceMetrics;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        log.debug("Twilio media stream connected: {}", session.getId());
+        CallAdmission.Permit permit = callAdmission.tryAdmit();
+        if (permit == null) {
+            log.warn("Rejecting Twilio media stream {}: node is not admitting calls", session.getId());
+            close(session, CloseStatus.SERVICE_OVERLOAD.withReason("retry-after=" + callAdmission.retryAfter().toSeconds()));
+            return;
+        }
+        session.getAttributes().put(CALL_ATTRIBUTE, new Call(permit, audioBufferPool.lease(), maxQueuedFrames));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        Call call = (Call) session.getAttributes().get(CALL_ATTRIBUTE);
+        if (call == null) {
+            return;
+        }
+        String payload = message.getPayload();
+        if (call.pipeline == null) {
+            // Only the connected and start events precede the pipeline; parsing them is a one-off
+            JsonNode event = OBJECT_MAPPER.readTree(payload);
+            if (!"start".equals(event.path("event").asText())) {
+                return;
+            }
+            call.pipeline = start(session, call, event.path("start"));
+        }
+        byte[] frame = frame(call.buffers, payload);
+        if (call.frames.tryEmitNext(frame).isFailure()) {
+            call.buffers.release(frame);
+            voiceMetrics.droppedFrame();
+            if (call.droppedFrames++ == 0) {
+                log.warn("Twilio media stream {} is ahead of its call pipeline; dropping frames", session.getId());
+            }
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Twilio media stream {} transport error: {}", session.getId(), exception.toString());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Call call = (Call) session.getAttributes().remove(CALL_ATTRIBUTE);
+        if (call == null) {
+            return;
+        }
+        log.info("Twilio media stream {} closed ({}), {} frames dropped", session.getId(), status, call.droppedFrames);
+        call.permit.close();
+        call.frames.tryEmitComplete();
+        Disposable pipeline = call.pipeline;
+        if (pipeline != null) {
+            // Nothing left to play the reply to
+            pipeline.dispose();
+        }
+        // Frames still queued are abandoned to the garbage collector
+        call.buffers.close();
+    }
+
+    private Disposable start(WebSocketSession session, Call call, JsonNode start) {
+        String callSid = start.path("callSid").asText(session.getId());
+        JsonNode parameters = start.path("customParameters");
+        String from = parameters.path("From").asText(null);
+        String campaignId = parameters.path("CampaignId").asText(null);
+        TwilioMediaFrameEncoder encoder = new TwilioMediaFrameEncoder(start.path("streamSid").asText());
+        WebSocketSession sender = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, sendBufferBytes,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+
+        // A barge-in also clears the audio Twilio has buffered, or it keeps playing over the caller
+        return voiceOrchestrationService.handleMediaStream(callSid, from, campaignId, call.frames.asFlux(),
+                        () -> send(sender, encoder.clear()), call.buffers::release)
+                .subscribe(
+                        mulawFrame -> send(sender, encoder.media(mulawFrame, 0, mulawFrame.length)),
+                        error -> {
+                            log.error("Call pipeline failed for Twilio media stream {}", session.getId(), error);
+                            close(session, CloseStatus.SERVER_ERROR);
+                        },
+                        () -> close(session, CloseStatus.NORMAL));
+    }
+
+    /**
+     * Copies a text frame into a borrowed array of its exact length. Twilio's frames are ASCII, so
+     * each char is one byte; a frame with any other character is encoded as UTF-8 into a new array.
+     */
+    private static byte[] frame(CallBuffers buffers, String payload) {
+        int length = payload.length();
+        byte[] frame = buffers.borrow(length);
+        for (int i = 0; i < length; i++) {
+            char c = payload.charAt(i);
+            if (c >= 0x80) {
+                buffers.release(frame);
+                return payload.getBytes(StandardCharsets.UTF_8);
+            }
+            frame[i] = (byte) c;
+        }
+        return frame;
+    }
+
+    private static void send(WebSocketSession sender, String message) {
+        try {
+            sender.sendMessage(new TextMessage(message));
+        } catch (IOException e) {
+            log.debug("Dropped frame for Twilio media stream {}: {}", sender.getId(), e.toString());
+        }
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Error closing Twilio media stream {}: {}", session.getId(), e.toString());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package avash.oronno.voiceorchestrationservice.context;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The dialer and Twilio write the same number differently, so both must map to the same cache key
+ * or every call starts without the context that was pre-fetched for it.
+ */
+class CallContextCacheTest {
+
+    @Test
+    void nationalAndE164NumbersShareAKey() {
+        assertEquals("+12025550143", CallContextCache.key("+12025550143", "1"));
+        assertEquals("+12025550143", CallContextCache.key("(202) 555-0143", "1"));
+        assertEquals("+12025550143", CallContextCache.key("202.555.0143", "1"));
+        assertEquals("+12025550143", CallContextCache.key("1 202 555 0143", "1"));
+        assertEquals("+12025550143", CallContextCache.key("001 202 555 0143", "1"));
+    }
+
+    @Test
+    void dropsTheNationalTrunkPrefix() {
+        assertEquals("+447700900123", CallContextCache.key("+44 7700 900123", "44"));
+        assertEquals("+447700900123", CallContextCache.key("07700 900123", "44"));
+        assertEquals("+447700900123", CallContextCache.key("0044 7700 900123", "44"));
+        // An international number keeps its own country code
+        assertEquals("+12025550143", CallContextCache.key("+1 202 555 0143", "44"));
+    }
+
+    @Test
+    void rejectsInputThatIsNotANumber() {
+        assertNull(CallContextCache.key(null, "1"));
+        assertNull(CallContextCache.key("", "1"));
+        assertNull(CallContextCache.key("anonymous", "1"));
+        assertNull(CallContextCache.key("+0123456789", "1"));
+        assertNull(CallContextCache.key("+9999999999999999", "1"));
+        assertNull(CallContextCache.key("1+2025550143", "1"));
+    }
+}
@@ -0,0 +1,130 @@
+package avash.oronno.voiceorchestrationservice.twilio;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The hand-written scanner must pull the same event, stream SID and audio out of Twilio's frames as
+ * a JSON parser and {@link Base64} would, whatever the key order, nesting and escaping, and must
+ * drop a frame with a bad payload instead of failing the call.
+ */
+class TwilioMediaFrameDecoderTest {
+
+    private final TwilioMediaFrameDecoder decoder = new TwilioMediaFrameDecoder();
+
+    @Test
+    void decodesTwilioFrames() {
+        assertEquals(TwilioMediaFrameDecoder.Event.CONNECTED,
+                decode("{\"event\":\"connected\",\"protocol\":\"Call\",\"version\":\"1.0.0\"}"));
+
+        assertEquals(TwilioMediaFrameDecoder.Event.START, decode("""
+                {"event": "start", "sequenceNumber": "1",
+                 "start": {"accountSid": "AC123", "streamSid": "MZ18ad3ab5a668481ce02b83e7395059f0",
+                           "callSid": "CA123", "tracks": ["inbound"],
+                           "mediaFormat": {"encoding": "audio/x-mulaw", "sampleRate": 8000, "channels": 1}},
+                 "streamSid": "MZ18ad3ab5a668481ce02b83e7395059f0"}
+                """));
+        assertEquals("MZ18ad3ab5a668481ce02b83e7395059f0", decoder.streamSid());
+
+        byte[] audio = randomAudio(160);
+        assertEquals(TwilioMediaFrameDecoder.Event.MEDIA, decode(mediaFrame(Base64.getEncoder().encodeToString(audio))));
+        assertPayload(audio);
+
+        assertEquals(TwilioMediaFrameDecoder.Event.MARK,
+                decode("{\"event\":\"mark\",\"streamSid\":\"MZ1\",\"mark\":{\"name\":\"turn-1\"}}"));
+        assertEquals(0, decoder.payloadLength());
+        assertEquals(TwilioMediaFrameDecoder.Event.DTMF,
+                decode("{\"event\":\"dtmf\",\"streamSid\":\"MZ1\",\"dtmf\":{\"track\":\"inbound_track\",\"digit\":\"1\"}}"));
+        assertEquals(TwilioMediaFrameDecoder.Event.STOP,
+                decode("{\"event\":\"stop\",\"streamSid\":\"MZ1\",\"stop\":{\"callSid\":\"CA123\"}}"));
+        assertEquals(TwilioMediaFrameDecoder.Event.UNKNOWN, decode("{\"event\":\"clear\"}"));
+        assertEquals(TwilioMediaFrameDecoder.Event.UNKNOWN, decode("{}"));
+    }
+
+    @Test
+    void decodesEscapedSlashesAndPadding() {
+        for (int length = 0; length < 40; length++) {
+            byte[] audio = randomAudio(length);
+            String base64 = Base64.getEncoder().encodeToString(audio).replace("/", "\\/");
+            assertEquals(TwilioMediaFrameDecoder.Event.MEDIA, decode(mediaFrame(base64)), "length " + length);
+            assertPayload(audio);
+        }
+    }
+
+    @Test
+    void findsThePayloadWhateverTheKeyOrder() {
+        byte[] audio = randomAudio(160);
+        String payload = Base64.getEncoder().encodeToString(audio);
+        assertEquals(TwilioMediaFrameDecoder.Event.MEDIA, decode("{\"media\":{\"payload\":\"" + payload
+                + "\",\"chunk\":\"2\",\"track\":\"inbound\"},\"sequenceNumber\":\"3\",\"event\":\"media\"}"));
+        assertPayload(audio);
+    }
+
+    @Test
+    void ignoresPayloadKeysOutsideMedia() {
+        String payload = Base64.getEncoder().encodeToString(randomAudio(160));
+        assertEquals(TwilioMediaFrameDecoder.Event.MEDIA, decode("{\"event\":\"media\",\"payload\":\"" + payload
+                + "\",\"other\":{\"payload\":\"" + payload + "\"},\"media\":{\"track\":\"inbound\"}}"));
+        assertEquals(0, decoder.payloadLength());
+        // Strings that look like keys inside values are skipped
+        assertEquals(TwilioMediaFrameDecoder.Event.MARK,
+                decode("{\"mark\":{\"name\":\"\\\"event\\\":\\\"media\\\"\"},\"event\":\"mark\"}"));
+    }
+
+    @Test
+    void growsThePayloadBufferForLongFrames() {
+        byte[] audio = randomAudio(4000);
+        assertEquals(TwilioMediaFrameDecoder.Event.MEDIA, decode(mediaFrame(Base64.getEncoder().encodeToString(audio))));
+        assertPayload(audio);
+        byte[] shorter = randomAudio(160);
+        decode(mediaFrame(Base64.getEncoder().encodeToString(shorter)));
+        assertPayload(shorter);
+    }
+
+    @Test
+    void dropsAFrameWithAnInvalidPayload() {
+        assertNull(decoder.streamSid());
+        assertEquals(TwilioMediaFrameDecoder.Event.UNKNOWN, decode(mediaFrame("//7+/f3*8/Pz")));
+        assertEquals(0, decoder.payloadLength());
+        assertEquals(TwilioMediaFrameDecoder.Event.UNKNOWN, decode(mediaFrame("AAECéAwQF")));
+        assertEquals(2, decoder.malformedFrames());
+
+        // The next good frame decodes as usual
+        byte[] audio = randomAudio(160);
+        assertEquals(TwilioMediaFrameDecoder.Event.MEDIA, decode(mediaFrame(Base64.getEncoder().encodeToString(audio))));
+        assertPayload(audio);
+        assertEquals(2, decoder.malformedFrames());
+    }
+
+    private TwilioMediaFrameDecoder.Event decode(String json) {
+        // Decode from the middle of a larger array, as from a reused receive buffer
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        byte[] framed = new byte[bytes.length + 8];
+        Arrays.fill(framed, (byte) '}');
+        System.arraycopy(bytes, 0, framed, 3, bytes.length);
+        return decoder.decode(framed, 3, bytes.length);
+    }
+
+    private void assertPayload(byte[] expected) {
+        assertArrayEquals(expected, Arrays.copyOf(decoder.payload(), decoder.payloadLength()));
+    }
+
+    private static String mediaFrame(String payload) {
+        return "{\"event\":\"media\",\"sequenceNumber\":\"3\",\"media\":{\"track\":\"inbound\",\"chunk\":\"2\","
+                + "\"timestamp\":\"5\",\"payload\":\"" + payload + "\"},\"streamSid\":\"MZ1\"}";
+    }
+
+    private static byte[] randomAudio(int length) {
+        byte[] audio = new byte[length];
+        new SplittableRandom(length).nextBytes(audio);
+        return audio;
+    }
+}
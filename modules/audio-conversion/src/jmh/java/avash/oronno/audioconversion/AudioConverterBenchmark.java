@@ -0,0 +1,139 @@
+package avash.oronno.audioconversion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Throughput and allocation of the per-frame conversions on the voice path.
+ *
+ * The smallest parameter of each state is one 20ms frame as it arrives on the wire (160 bytes of
+ * 8kHz μ-law from Twilio, 960 bytes of 24kHz PCM from Gemini); the larger ones are bulk sizes of
+ * one and ten seconds. The allocating {@code byte[]} API is measured next to the caller-buffer and
+ * direct {@code ByteBuffer} overloads, so the gc profiler shows what each call costs in garbage.
+ */
+public class AudioConverterBenchmark {
+
+    /**
+     * Inbound audio: 8kHz μ-law from Twilio, converted to 16kHz PCM for Gemini.
+     */
+    @State(Scope.Thread)
+    public static class Inbound {
+
+        @Param({"160", "8000", "80000"})
+        int mulawBytes;
+
+        byte[] mulaw;
+        byte[] pcmOut;
+        short[] samples8k;
+        short[] samples16k;
+        ByteBuffer directMulaw;
+        ByteBuffer directPcmOut;
+
+        @Setup
+        public void setUp() {
+            samples8k = speech(mulawBytes, 8000);
+            mulaw = new byte[mulawBytes];
+            MulawCodec.encode(samples8k, 0, mulaw, 0, mulawBytes);
+            pcmOut = new byte[AudioConverter.mulawToPcmSampleCount(mulawBytes) * 2];
+            samples16k = new short[AudioConverter.resampledSampleCount(mulawBytes, 8000, 16000)];
+            directMulaw = ByteBuffer.allocateDirect(mulawBytes).put(mulaw).flip();
+            directPcmOut = ByteBuffer.allocateDirect(pcmOut.length);
+        }
+    }
+
+    /**
+     * Outbound audio: 24kHz PCM from Gemini, converted to 8kHz μ-law for Twilio.
+     */
+    @State(Scope.Thread)
+    public static class Outbound {
+
+        @Param({"960", "48000", "480000"})
+        int pcmBytes;
+
+        byte[] pcm;
+        byte[] mulawOut;
+        short[] samples24k;
+        short[] samples8k;
+        ByteBuffer directPcm;
+        ByteBuffer directMulawOut;
+
+        @Setup
+        public void setUp() {
+            samples24k = speech(pcmBytes / 2, 24000);
+            pcm = new byte[pcmBytes];
+            for (int i = 0; i < samples24k.length; i++) {
+                pcm[2 * i] = (byte) samples24k[i];
+                pcm[2 * i + 1] = (byte) (samples24k[i] >> 8);
+            }
+            mulawOut = new byte[AudioConverter.pcmToMulawSampleCount(pcmBytes)];
+            samples8k = new short[AudioConverter.resampledSampleCount(samples24k.length, 24000, 8000)];
+            directPcm = ByteBuffer.allocateDirect(pcmBytes).put(pcm).flip();
+            directMulawOut = ByteBuffer.allocateDirect(mulawOut.length);
+        }
+    }
+
+    @Benchmark
+    public byte[] mulawToPcm(Inbound state) {
+        return AudioConverter.convertMulawToPcm(state.mulaw);
+    }
+
+    @Benchmark
+    public int mulawToPcmInto(Inbound state) {
+        return AudioConverter.convertMulawToPcm(state.mulaw, 0, state.mulaw.length, state.pcmOut, 0);
+    }
+
+    @Benchmark
+    public int mulawToPcmDirect(Inbound state) {
+        return AudioConverter.convertMulawToPcm(state.directMulaw.clear(), state.directPcmOut.clear());
+    }
+
+    @Benchmark
+    public byte[] pcmToMulaw(Outbound state) {
+        return AudioConverter.convertPcmToMulaw(state.pcm);
+    }
+
+    @Benchmark
+    public int pcmToMulawInto(Outbound state) {
+        return AudioConverter.convertPcmToMulaw(state.pcm, 0, state.pcm.length, state.mulawOut, 0);
+    }
+
+    @Benchmark
+    public int pcmToMulawDirect(Outbound state) {
+        return AudioConverter.convertPcmToMulaw(state.directPcm.clear(), state.directMulawOut.clear());
+    }
+
+    @Benchmark
+    public int resample8kTo16k(Inbound state) {
+        return AudioConverter.resample(state.samples8k, 0, state.samples8k.length, 8000, 16000, state.samples16k, 0);
+    }
+
+    @Benchmark
+    public int resample24kTo8k(Outbound state) {
+        return AudioConverter.resample(state.samples24k, 0, state.samples24k.length, 24000, 8000, state.samples8k, 0);
+    }
+
+    /**
+     * Speech-like test signal: a few voice-band harmonics with a slow amplitude envelope and some
+     * noise, so the codec sees every segment rather than a constant level.
+     */
+    static short[] speech(int samples, int sampleRate) {
+        SplittableRandom random = new SplittableRandom(42);
+        short[] out = new short[samples];
+        for (int i = 0; i < samples; i++) {
+            double t = (double) i / sampleRate;
+            double envelope = 0.5 + 0.5 * Math.sin(2 * Math.PI * 3 * t);
+            double voice = 0.5 * Math.sin(2 * Math.PI * 180 * t)
+                    + 0.25 * Math.sin(2 * Math.PI * 720 * t)
+                    + 0.1 * Math.sin(2 * Math.PI * 2400 * t);
+            double noise = 0.02 * (random.nextDouble() * 2 - 1);
+            out[i] = (short) Math.round(Short.MAX_VALUE * 0.8 * (envelope * voice + noise));
+        }
+        return out;
+    }
+}
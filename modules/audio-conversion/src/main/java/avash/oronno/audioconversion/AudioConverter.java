@@ -2,10 +2,10 @@ package avash.oronno.audioconversion;
 
 import lombok.extern.slf4j.Slf4j;
 
-import javax.sound.sampled.*;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
 
 /**
  * Audio conversion utility for converting between Twilio/Phone and Gemini Live API formats.
@@ -24,32 +24,25 @@ public class AudioConverter {
     private static final int OUTPUT_SAMPLE_RATE_GEMINI = 24000;
     private static final int OUTPUT_SAMPLE_RATE_TWILIO = 8000;
 
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    // Per-thread sample arrays, grown on demand and reused across frames: the μ-law decode window
+    // and staging for non-array sample buffers
+    private static final ThreadLocal<short[]> SAMPLES_IN = ThreadLocal.withInitial(() -> new short[2048]);
+    private static final ThreadLocal<short[]> SAMPLES_OUT = ThreadLocal.withInitial(() -> new short[2048]);
+
     /**
      * Converts 8kHz μ-law audio from Twilio/Phone to 16kHz PCM for Gemini Live API.
      * 
      * @param mulawAudio μ-law encoded audio bytes at 8kHz
      * @return PCM audio bytes at 16kHz
-     * @throws IOException if conversion fails
      */
-    public static byte[] convertMulawToPcm(byte[] mulawAudio) throws IOException {
+    public static byte[] convertMulawToPcm(byte[] mulawAudio) {
         log.debug("Converting μ-law to PCM: {} bytes at {}Hz → {}Hz", 
                      mulawAudio.length, INPUT_SAMPLE_RATE_TWILIO, INPUT_SAMPLE_RATE_GEMINI);
 
-        // Step 1: Decode μ-law to PCM at 8kHz
-        AudioFormat mulawFormat = new AudioFormat(
-            AudioFormat.Encoding.ULAW,
-            INPUT_SAMPLE_RATE_TWILIO,
-            8,  // sample size in bits
-            1,  // channels (mono)
-            1,  // frame size
-            INPUT_SAMPLE_RATE_TWILIO,
-            false // little-endian
-        );
-
-        byte[] pcm8k = decodeMulaw(mulawAudio, mulawFormat);
-
-        // Step 2: Resample from 8kHz to 16kHz
-        byte[] pcm16k = resampleAudio(pcm8k, INPUT_SAMPLE_RATE_TWILIO, INPUT_SAMPLE_RATE_GEMINI, 1);
+        byte[] pcm16k = new byte[mulawToPcmSampleCount(mulawAudio.length) * BYTES_PER_SAMPLE];
+        convertMulawToPcm(mulawAudio, 0, mulawAudio.length, pcm16k, 0);
 
         log.debug("Conversion complete: {} bytes output", pcm16k.length);
         return pcm16k;
@@ -60,163 +53,352 @@ public class AudioConverter {
      * 
      * @param pcmAudio PCM audio bytes at 24kHz
      * @return μ-law encoded audio bytes at 8kHz
-     * @throws IOException if conversion fails
      */
-    public static byte[] convertPcmToMulaw(byte[] pcmAudio) throws IOException {
+    public static byte[] convertPcmToMulaw(byte[] pcmAudio) {
         log.debug("Converting PCM to μ-law: {} bytes at {}Hz → {}Hz", 
                      pcmAudio.length, OUTPUT_SAMPLE_RATE_GEMINI, OUTPUT_SAMPLE_RATE_TWILIO);
 
-        // Step 1: Resample from 24kHz to 8kHz
-        byte[] pcm8k = resampleAudio(pcmAudio, OUTPUT_SAMPLE_RATE_GEMINI, OUTPUT_SAMPLE_RATE_TWILIO, 2);
-
-        // Step 2: Encode PCM to μ-law at 8kHz
-        byte[] mulawAudio = encodeMulaw(pcm8k);
+        byte[] mulawAudio = new byte[pcmToMulawSampleCount(pcmAudio.length)];
+        convertPcmToMulaw(pcmAudio, 0, pcmAudio.length, mulawAudio, 0);
 
         log.debug("Conversion complete: {} bytes output", mulawAudio.length);
         return mulawAudio;
     }
 
     /**
-     * Decodes μ-law encoded audio to PCM.
+     * Converts 8kHz μ-law audio to 16kHz PCM, writing into a caller-supplied buffer.
+     * 
+     * @param mulawAudio μ-law source
+     * @param offset offset of the first μ-law byte
+     * @param length number of μ-law bytes to convert
+     * @param pcmOut destination for 16-bit little-endian PCM at 16kHz
+     * @param pcmOffset offset of the first PCM byte
+     * @return number of PCM samples written
+     */
+    public static int convertMulawToPcm(byte[] mulawAudio, int offset, int length, byte[] pcmOut, int pcmOffset) {
+        int samples = mulawToPcmSampleCount(length);
+        checkCapacity(pcmOut.length - pcmOffset, samples * BYTES_PER_SAMPLE);
+
+        // Decode μ-law once into the window and interpolate 8kHz → 16kHz straight into the output
+        short[] window = growSamples(SAMPLES_IN, length + 2 * FirKernels.UP_HALF_SPAN);
+        FirKernels.mulawToPcm2x(mulawAudio, offset, length, window, pcmOut, pcmOffset);
+        return samples;
+    }
+
+    /**
+     * Converts 24kHz PCM audio to 8kHz μ-law, writing into a caller-supplied buffer.
+     * 
+     * @param pcmAudio 16-bit little-endian PCM source at 24kHz
+     * @param offset offset of the first PCM byte
+     * @param length number of PCM bytes to convert
+     * @param mulawOut destination for μ-law bytes at 8kHz
+     * @param mulawOffset offset of the first μ-law byte
+     * @return number of μ-law samples written
      */
-    private static byte[] decodeMulaw(byte[] mulawData, AudioFormat mulawFormat) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(mulawData);
-             AudioInputStream mulawStream = new AudioInputStream(bais, mulawFormat, mulawData.length)) {
+    public static int convertPcmToMulaw(byte[] pcmAudio, int offset, int length, byte[] mulawOut, int mulawOffset) {
+        int samples = pcmToMulawSampleCount(length);
+        checkCapacity(mulawOut.length - mulawOffset, samples);
 
-            // Create PCM format (16-bit, signed, little-endian)
-            AudioFormat pcmFormat = new AudioFormat(
-                AudioFormat.Encoding.PCM_SIGNED,
-                mulawFormat.getSampleRate(),
-                16,  // 16-bit
-                1,   // mono
-                2,   // 2 bytes per frame
-                mulawFormat.getSampleRate(),
-                false // little-endian
-            );
+        // Decimate 24kHz → 8kHz and encode to μ-law in one pass
+        FirKernels.pcmToMulaw3x(pcmAudio, offset, length / BYTES_PER_SAMPLE, mulawOut, mulawOffset, samples);
+        return samples;
+    }
 
-            try (AudioInputStream pcmStream = AudioSystem.getAudioInputStream(pcmFormat, mulawStream);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+    /**
+     * Converts one chunk of an 8kHz μ-law stream to 16kHz PCM through the stream's own resampler,
+     * which carries the filter history across chunks, so chunk boundaries leave no edge artifacts.
+     * The resampler holds back the samples whose filter window is not complete yet.
+     *
+     * @param resampler the stream's 8kHz → 16kHz resampler from {@link #mulawToPcmResampler()}
+     * @param mulawAudio μ-law source
+     * @param offset offset of the first μ-law byte
+     * @param length number of μ-law bytes to convert
+     * @param pcmOut destination for 16-bit little-endian PCM at 16kHz, with room for
+     *               {@code resampler.maxOutputSamples(length)} samples
+     * @param pcmOffset offset of the first PCM byte
+     * @return number of PCM samples written
+     */
+    public static int convertMulawToPcm(Resampler resampler, byte[] mulawAudio, int offset, int length,
+                                        byte[] pcmOut, int pcmOffset) {
+        checkCapacity(pcmOut.length - pcmOffset, (long) resampler.maxOutputSamples(length) * BYTES_PER_SAMPLE);
 
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = pcmStream.read(buffer)) != -1) {
-                    baos.write(buffer, 0, bytesRead);
-                }
+        short[] decoded = growSamples(SAMPLES_IN, length);
+        short[] resampled = growSamples(SAMPLES_OUT, resampler.maxOutputSamples(length));
+        MulawCodec.decode(mulawAudio, offset, decoded, 0, length);
+        int samples = resampler.process(decoded, 0, length, resampled, 0);
+        for (int i = 0; i < samples; i++) {
+            FirKernels.PCM16.set(pcmOut, pcmOffset + i * BYTES_PER_SAMPLE, resampled[i]);
+        }
+        return samples;
+    }
 
-                return baos.toByteArray();
-            }
+    /**
+     * Converts one chunk of a 24kHz PCM stream to 8kHz μ-law through the stream's own resampler,
+     * which keeps the 3:1 decimation phase across chunks of any size.
+     *
+     * @param resampler the stream's 24kHz → 8kHz resampler from {@link #pcmToMulawResampler()}
+     * @param pcmAudio 16-bit little-endian PCM source at 24kHz
+     * @param offset offset of the first PCM byte
+     * @param length number of PCM bytes to convert
+     * @param mulawOut destination for μ-law bytes at 8kHz, with room for
+     *                 {@code resampler.maxOutputSamples(length / 2)} samples
+     * @param mulawOffset offset of the first μ-law byte
+     * @return number of μ-law samples written
+     */
+    public static int convertPcmToMulaw(Resampler resampler, byte[] pcmAudio, int offset, int length,
+                                        byte[] mulawOut, int mulawOffset) {
+        int inputSamples = length / BYTES_PER_SAMPLE;
+        checkCapacity(mulawOut.length - mulawOffset, resampler.maxOutputSamples(inputSamples));
+
+        short[] staged = growSamples(SAMPLES_IN, inputSamples);
+        short[] resampled = growSamples(SAMPLES_OUT, resampler.maxOutputSamples(inputSamples));
+        for (int i = 0; i < inputSamples; i++) {
+            staged[i] = (short) FirKernels.PCM16.get(pcmAudio, offset + i * BYTES_PER_SAMPLE);
         }
+        int samples = resampler.process(staged, 0, inputSamples, resampled, 0);
+        MulawCodec.encode(resampled, 0, mulawOut, mulawOffset, samples);
+        return samples;
     }
 
     /**
-     * Encodes PCM audio to μ-law.
-     */
-    private static byte[] encodeMulaw(byte[] pcmData) throws IOException {
-        // Create PCM format (16-bit, signed, little-endian, 8kHz)
-        AudioFormat pcmFormat = new AudioFormat(
-            AudioFormat.Encoding.PCM_SIGNED,
-            OUTPUT_SAMPLE_RATE_TWILIO,
-            16,  // 16-bit
-            1,   // mono
-            2,   // 2 bytes per frame
-            OUTPUT_SAMPLE_RATE_TWILIO,
-            false // little-endian
-        );
-
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(pcmData);
-             AudioInputStream pcmStream = new AudioInputStream(bais, pcmFormat, pcmData.length / 2)) {
-
-            // Create μ-law format
-            AudioFormat mulawFormat = new AudioFormat(
-                AudioFormat.Encoding.ULAW,
-                OUTPUT_SAMPLE_RATE_TWILIO,
-                8,   // 8-bit
-                1,   // mono
-                1,   // 1 byte per frame
-                OUTPUT_SAMPLE_RATE_TWILIO,
-                false
-            );
-
-            try (AudioInputStream mulawStream = AudioSystem.getAudioInputStream(mulawFormat, pcmStream);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = mulawStream.read(buffer)) != -1) {
-                    baos.write(buffer, 0, bytesRead);
-                }
-
-                return baos.toByteArray();
-            }
+     * Creates the per-call resampler for {@link #convertMulawToPcm(Resampler, byte[], int, int, byte[], int)}.
+     */
+    public static Resampler mulawToPcmResampler() {
+        return Resampler.create(INPUT_SAMPLE_RATE_TWILIO, INPUT_SAMPLE_RATE_GEMINI);
+    }
+
+    /**
+     * Creates the per-call resampler for {@link #convertPcmToMulaw(Resampler, byte[], int, int, byte[], int)}.
+     */
+    public static Resampler pcmToMulawResampler() {
+        return Resampler.create(OUTPUT_SAMPLE_RATE_GEMINI, OUTPUT_SAMPLE_RATE_TWILIO);
+    }
+
+    /**
+     * Converts 8kHz μ-law audio to 16kHz PCM between buffers. Reads from the source position
+     * to its limit and advances both positions.
+     * 
+     * @param mulawAudio μ-law source
+     * @param pcmOut destination for 16-bit little-endian PCM at 16kHz
+     * @return number of PCM samples written
+     */
+    public static int convertMulawToPcm(ByteBuffer mulawAudio, ByteBuffer pcmOut) {
+        int length = mulawAudio.remaining();
+        int samples = mulawToPcmSampleCount(length);
+        checkCapacity(pcmOut.remaining(), samples * BYTES_PER_SAMPLE);
+
+        if (mulawAudio.hasArray() && pcmOut.hasArray()) {
+            convertMulawToPcm(mulawAudio.array(), mulawAudio.arrayOffset() + mulawAudio.position(), length,
+                    pcmOut.array(), pcmOut.arrayOffset() + pcmOut.position());
+        } else {
+            // Direct or read-only buffers are converted in place through segment views
+            convertMulawToPcm(MemorySegment.ofBuffer(mulawAudio), MemorySegment.ofBuffer(pcmOut));
         }
+        mulawAudio.position(mulawAudio.limit());
+        pcmOut.position(pcmOut.position() + samples * BYTES_PER_SAMPLE);
+        return samples;
     }
 
     /**
-     * Resamples audio from one sample rate to another using linear interpolation.
+     * Converts 24kHz PCM audio to 8kHz μ-law between buffers. Reads from the source position
+     * to its limit and advances both positions.
      * 
-     * @param audioData Original audio data
-     * @param sourceRate Source sample rate
-     * @param targetRate Target sample rate
-     * @param bytesPerSample Bytes per sample (2 for 16-bit PCM)
-     * @return Resampled audio data
-     */
-    private static byte[] resampleAudio(byte[] audioData, float sourceRate, float targetRate, int bytesPerSample) {
-        if (sourceRate == targetRate) {
-            return audioData;
+     * @param pcmAudio 16-bit little-endian PCM source at 24kHz
+     * @param mulawOut destination for μ-law bytes at 8kHz
+     * @return number of μ-law samples written
+     */
+    public static int convertPcmToMulaw(ByteBuffer pcmAudio, ByteBuffer mulawOut) {
+        int length = pcmAudio.remaining() & ~1;
+        int samples = pcmToMulawSampleCount(length);
+        checkCapacity(mulawOut.remaining(), samples);
+
+        if (pcmAudio.hasArray() && mulawOut.hasArray()) {
+            convertPcmToMulaw(pcmAudio.array(), pcmAudio.arrayOffset() + pcmAudio.position(), length,
+                    mulawOut.array(), mulawOut.arrayOffset() + mulawOut.position());
+        } else {
+            convertPcmToMulaw(MemorySegment.ofBuffer(pcmAudio).asSlice(0, length), MemorySegment.ofBuffer(mulawOut));
         }
+        pcmAudio.position(pcmAudio.position() + length);
+        mulawOut.position(mulawOut.position() + samples);
+        return samples;
+    }
+
+    /**
+     * Converts 8kHz μ-law audio to 16kHz PCM between memory segments, reading the whole source
+     * segment and writing from the start of the destination. Works on native memory such as
+     * network buffers without copying it onto the heap.
+     * 
+     * @param mulawAudio μ-law source
+     * @param pcmOut destination for 16-bit little-endian PCM at 16kHz
+     * @return number of PCM samples written
+     */
+    public static int convertMulawToPcm(MemorySegment mulawAudio, MemorySegment pcmOut) {
+        int length = Math.toIntExact(mulawAudio.byteSize());
+        int samples = mulawToPcmSampleCount(length);
+        checkCapacity(pcmOut.byteSize(), (long) samples * BYTES_PER_SAMPLE);
+
+        short[] window = growSamples(SAMPLES_IN, length + 2 * FirKernels.UP_HALF_SPAN);
+        FirKernels.mulawToPcm2x(mulawAudio, length, window, pcmOut);
+        return samples;
+    }
+
+    /**
+     * Converts 24kHz PCM audio to 8kHz μ-law between memory segments, reading the whole source
+     * segment and writing from the start of the destination.
+     * 
+     * @param pcmAudio 16-bit little-endian PCM source at 24kHz
+     * @param mulawOut destination for μ-law bytes at 8kHz
+     * @return number of μ-law samples written
+     */
+    public static int convertPcmToMulaw(MemorySegment pcmAudio, MemorySegment mulawOut) {
+        int length = Math.toIntExact(pcmAudio.byteSize());
+        int samples = pcmToMulawSampleCount(length);
+        checkCapacity(mulawOut.byteSize(), samples);
 
-        int sourceSamples = audioData.length / bytesPerSample;
-        int targetSamples = Math.round(sourceSamples * (targetRate / sourceRate));
-        byte[] resampled = new byte[targetSamples * bytesPerSample];
+        FirKernels.pcmToMulaw3x(pcmAudio, length / BYTES_PER_SAMPLE, mulawOut, samples);
+        return samples;
+    }
 
-        double ratio = sourceRate / targetRate;
+    /**
+     * Resamples 16-bit samples, writing into a caller-supplied array. Exact 2x interpolation and
+     * 3x decimation use the polyphase FIR kernels; other ratios fall back to linear interpolation.
+     * 
+     * @param source source samples
+     * @param sourceOffset index of the first source sample
+     * @param sourceSamples number of source samples
+     * @param sourceRate source sample rate
+     * @param targetRate target sample rate
+     * @param target destination samples
+     * @param targetOffset index of the first destination sample
+     * @return number of samples written
+     */
+    public static int resample(short[] source, int sourceOffset, int sourceSamples, int sourceRate, int targetRate,
+                               short[] target, int targetOffset) {
+        int targetSamples = resampledSampleCount(sourceSamples, sourceRate, targetRate);
+        checkCapacity(target.length - targetOffset, targetSamples);
 
+        if (targetRate == sourceRate * 2) {
+            FirKernels.upsample2x(source, sourceOffset, sourceSamples, target, targetOffset);
+            return targetSamples;
+        }
+        if (sourceRate == targetRate * 3) {
+            FirKernels.downsample3x(source, sourceOffset, sourceSamples, target, targetOffset, targetSamples);
+            return targetSamples;
+        }
+
+        double ratio = (double) sourceRate / targetRate;
         for (int i = 0; i < targetSamples; i++) {
             double sourceIndex = i * ratio;
             int sourceIndexInt = (int) sourceIndex;
-            double fraction = sourceIndex - sourceIndexInt;
 
             if (sourceIndexInt + 1 < sourceSamples) {
-                // Linear interpolation for 16-bit PCM (little-endian, signed)
-                if (bytesPerSample == 2) {
-                    int idx1 = sourceIndexInt * 2;
-                    int idx2 = (sourceIndexInt + 1) * 2;
-                    
-                    // Read 16-bit samples (little-endian, signed)
-                    short sample1 = (short) ((audioData[idx1] & 0xFF) | ((audioData[idx1 + 1] & 0xFF) << 8));
-                    short sample2 = (short) ((audioData[idx2] & 0xFF) | ((audioData[idx2 + 1] & 0xFF) << 8));
-                    
-                    // Interpolate (convert to int for calculation, then back to short)
-                    int interpolated = (int) (sample1 + (sample2 - sample1) * fraction);
-                    
-                    // Clamp to short range
-                    if (interpolated > Short.MAX_VALUE) interpolated = Short.MAX_VALUE;
-                    if (interpolated < Short.MIN_VALUE) interpolated = Short.MIN_VALUE;
-                    
-                    // Write 16-bit sample (little-endian)
-                    int outIdx = i * 2;
-                    resampled[outIdx] = (byte) (interpolated & 0xFF);
-                    resampled[outIdx + 1] = (byte) ((interpolated >> 8) & 0xFF);
-                } else {
-                    // Handle other sample sizes (8-bit, etc.)
-                    for (int b = 0; b < bytesPerSample; b++) {
-                        int byteIndex = sourceIndexInt * bytesPerSample + b;
-                        int nextByteIndex = (sourceIndexInt + 1) * bytesPerSample + b;
-                        
-                        int sample1 = audioData[byteIndex] & 0xFF;
-                        int sample2 = audioData[nextByteIndex] & 0xFF;
-                        int interpolated = (int) (sample1 + (sample2 - sample1) * fraction);
-                        resampled[i * bytesPerSample + b] = (byte) interpolated;
-                    }
-                }
+                int sample1 = source[sourceOffset + sourceIndexInt];
+                int sample2 = source[sourceOffset + sourceIndexInt + 1];
+                target[targetOffset + i] = interpolate(sample1, sample2, sourceIndex - sourceIndexInt);
             } else {
                 // Copy last sample
-                System.arraycopy(audioData, sourceIndexInt * bytesPerSample, 
-                               resampled, i * bytesPerSample, bytesPerSample);
+                target[targetOffset + i] = source[sourceOffset + sourceSamples - 1];
             }
         }
+        return targetSamples;
+    }
+
+    /**
+     * Resamples 16-bit samples between buffers. Reads from the source position to its limit and
+     * advances both positions.
+     * 
+     * @param source source samples
+     * @param sourceRate source sample rate
+     * @param targetRate target sample rate
+     * @param target destination samples
+     * @return number of samples written
+     */
+    public static int resample(ShortBuffer source, int sourceRate, int targetRate, ShortBuffer target) {
+        int sourceSamples = source.remaining();
+        int targetSamples = resampledSampleCount(sourceSamples, sourceRate, targetRate);
+        checkCapacity(target.remaining(), targetSamples);
+
+        if (source.hasArray() && target.hasArray()) {
+            resample(source.array(), source.arrayOffset() + source.position(), sourceSamples, sourceRate, targetRate,
+                    target.array(), target.arrayOffset() + target.position());
+        } else {
+            short[] staged = growSamples(SAMPLES_IN, sourceSamples);
+            short[] resampled = growSamples(SAMPLES_OUT, targetSamples);
+            source.get(source.position(), staged, 0, sourceSamples);
+            resample(staged, 0, sourceSamples, sourceRate, targetRate, resampled, 0);
+            target.put(target.position(), resampled, 0, targetSamples);
+        }
+        source.position(source.limit());
+        target.position(target.position() + targetSamples);
+        return targetSamples;
+    }
 
-        return resampled;
+    /**
+     * Resamples 16-bit little-endian PCM between byte buffers. Reads from the source position to
+     * its limit and advances both positions.
+     * 
+     * @param source source PCM bytes
+     * @param sourceRate source sample rate
+     * @param targetRate target sample rate
+     * @param target destination PCM bytes
+     * @return number of samples written
+     */
+    public static int resample(ByteBuffer source, int sourceRate, int targetRate, ByteBuffer target) {
+        int sourceSamples = source.remaining() / BYTES_PER_SAMPLE;
+        int targetSamples = resampledSampleCount(sourceSamples, sourceRate, targetRate);
+        checkCapacity(target.remaining(), targetSamples * BYTES_PER_SAMPLE);
+
+        resample(source.duplicate().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer(), sourceRate, targetRate,
+                target.duplicate().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+        source.position(source.position() + sourceSamples * BYTES_PER_SAMPLE);
+        target.position(target.position() + targetSamples * BYTES_PER_SAMPLE);
+        return targetSamples;
     }
-}
 
+    /**
+     * Number of 16kHz PCM samples produced from the given number of 8kHz μ-law bytes.
+     */
+    public static int mulawToPcmSampleCount(int mulawBytes) {
+        return resampledSampleCount(mulawBytes, INPUT_SAMPLE_RATE_TWILIO, INPUT_SAMPLE_RATE_GEMINI);
+    }
+
+    /**
+     * Number of 8kHz μ-law samples produced from the given number of 24kHz PCM bytes.
+     */
+    public static int pcmToMulawSampleCount(int pcmBytes) {
+        return resampledSampleCount(pcmBytes / BYTES_PER_SAMPLE, OUTPUT_SAMPLE_RATE_GEMINI, OUTPUT_SAMPLE_RATE_TWILIO);
+    }
+
+    /**
+     * Number of samples produced when resampling {@code sourceSamples} between the given rates.
+     */
+    public static int resampledSampleCount(int sourceSamples, int sourceRate, int targetRate) {
+        return (int) (((long) sourceSamples * targetRate + sourceRate / 2) / sourceRate);
+    }
+
+    /**
+     * Linearly interpolates between two samples, clamped to the 16-bit range.
+     */
+    private static short interpolate(int sample1, int sample2, double fraction) {
+        int interpolated = (int) (sample1 + (sample2 - sample1) * fraction);
+        if (interpolated > Short.MAX_VALUE) interpolated = Short.MAX_VALUE;
+        if (interpolated < Short.MIN_VALUE) interpolated = Short.MIN_VALUE;
+        return (short) interpolated;
+    }
+
+    private static short[] growSamples(ThreadLocal<short[]> holder, int samples) {
+        short[] buffer = holder.get();
+        if (buffer.length < samples) {
+            buffer = new short[Math.max(samples, buffer.length * 2)];
+            holder.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static void checkCapacity(long available, long required) {
+        if (available < required) {
+            throw new IllegalArgumentException(
+                    "Destination buffer too small: " + required + " required, " + available + " available");
+        }
+    }
+}
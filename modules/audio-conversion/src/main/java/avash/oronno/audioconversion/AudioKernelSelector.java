@@ -0,0 +1,44 @@
+package avash.oronno.audioconversion;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the {@link AudioKernels} implementation once per JVM.
+ *
+ * The Vector API kernels are used only when {@code jdk.incubator.vector} is in the boot layer
+ * (start the JVM with {@code --add-modules jdk.incubator.vector}) and load on this hardware; they
+ * are tested to reproduce the scalar kernels bit for bit. Any failure falls back to the scalar
+ * kernels. Set {@value #SIMD_PROPERTY}{@code =false} to force scalar.
+ */
+@Slf4j
+final class AudioKernelSelector {
+
+    static final String SIMD_PROPERTY = "audio.conversion.simd";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNELS = "avash.oronno.audioconversion.VectorAudioKernels";
+
+    private AudioKernelSelector() {
+    }
+
+    static AudioKernels select() {
+        AudioKernels scalar = new ScalarAudioKernels();
+        if (!Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))) {
+            log.info("SIMD audio kernels disabled by -D{}=false", SIMD_PROPERTY);
+            return scalar;
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("Module {} not present, using scalar audio kernels", VECTOR_MODULE);
+            return scalar;
+        }
+        try {
+            AudioKernels vector = (AudioKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+            log.info("Using Vector API audio kernels");
+            return vector;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.info("Vector API audio kernels unavailable ({}), using scalar audio kernels", cause.toString());
+            return scalar;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package avash.oronno.audioconversion;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Bulk inner loops shared by the codec, the stateless conversions and the streaming resamplers.
+ *
+ * The resampling methods are unclamped: every center must have the full filter context
+ * ({@link FirKernels#UP_HALF_SPAN} or {@link FirKernels#DOWN_HALF_SPAN} samples) on both sides.
+ * Callers handle chunk edges themselves, either by padding or with the clamped scalar kernels.
+ *
+ * {@link #ACTIVE} is chosen once per JVM by {@link AudioKernelSelector}: the Vector API
+ * implementation when {@code jdk.incubator.vector} is available and produces exactly the scalar
+ * output, otherwise the scalar one.
+ */
+interface AudioKernels {
+
+    AudioKernels ACTIVE = AudioKernelSelector.select();
+
+    /**
+     * Decodes μ-law bytes into linear samples.
+     */
+    void decodeMulaw(byte[] src, int srcOffset, short[] dst, int dstOffset, int samples);
+
+    /**
+     * Encodes linear samples into μ-law bytes.
+     */
+    void encodeMulaw(short[] src, int srcOffset, byte[] dst, int dstOffset, int samples);
+
+    /**
+     * Writes the even and odd 2x interpolation outputs for centers {@code first .. first + count - 1}.
+     */
+    void interpolate2x(short[] x, int first, int count, short[] out, int outOffset);
+
+    /**
+     * Same as {@link #interpolate2x(short[], int, int, short[], int)}, writing little-endian PCM.
+     */
+    void interpolate2x(short[] x, int first, int count, byte[] pcm, int pcmOffset);
+
+    /**
+     * Same as {@link #interpolate2x(short[], int, int, short[], int)}, writing little-endian PCM into
+     * a memory segment at byte offset {@code pcmOffset}.
+     */
+    void interpolate2x(short[] x, int first, int count, MemorySegment pcm, long pcmOffset);
+
+    /**
+     * Writes the 3x decimation outputs for centers {@code first, first + 3, ...}, {@code count} in all.
+     */
+    void decimate3x(short[] x, int first, int count, short[] out, int outOffset);
+
+    /**
+     * Decimates little-endian PCM by 3 and encodes the outputs to μ-law. {@code first} is the sample
+     * index of the first center relative to {@code pcmOffset}.
+     */
+    void decimate3xToMulaw(byte[] pcm, int pcmOffset, int first, int count, byte[] mulaw, int mulawOffset);
+
+    /**
+     * Same as {@link #decimate3xToMulaw(byte[], int, int, int, byte[], int)} over memory segments.
+     */
+    void decimate3xToMulaw(MemorySegment pcm, long pcmOffset, int first, int count, MemorySegment mulaw, long mulawOffset);
+}
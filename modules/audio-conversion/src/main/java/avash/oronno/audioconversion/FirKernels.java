@@ -0,0 +1,335 @@
+package avash.oronno.audioconversion;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-ratio polyphase FIR kernels for the two conversions the voice pipeline needs:
+ * 2x interpolation (8kHz → 16kHz) and 3x decimation (24kHz → 8kHz).
+ *
+ * Coefficients are Kaiser-windowed sinc low-pass filters quantized to Q14 once at class
+ * initialization; the kernels themselves use integer multiply-accumulate only, folding the
+ * symmetric taps so each coefficient is multiplied once per output. Every output is
+ * centered on its input position, so {@code out[2m]} lines up with {@code x[m]} for interpolation
+ * and {@code out[m]} with {@code x[3m]} for decimation, with no added delay.
+ *
+ * The fused variants convert straight between the byte formats on the wire. Decimation reads
+ * little-endian PCM inside the tap loop and encodes each output to μ-law, with no intermediate
+ * array. Interpolation decodes each μ-law byte once into a small edge-padded window, since every
+ * input feeds 49 taps, and writes little-endian PCM directly from the tap loop.
+ *
+ * Only the clamped chunk edges are computed here; the interior loops run on
+ * {@link AudioKernels#ACTIVE}, which may be the Vector API implementation.
+ */
+final class FirKernels {
+
+    /** Input samples of context needed either side of a 2x interpolation center. */
+    static final int UP_HALF_SPAN = 12;
+
+    /** Input samples of context needed either side of a 3x decimation center. */
+    static final int DOWN_HALF_SPAN = 36;
+
+    static final int Q = 14;
+    static final int ROUNDING = 1 << (Q - 1);
+
+    // Low-pass cutoffs in cycles per sample at the higher of the two rates, just under 4kHz
+    private static final double UP_CUTOFF = 0.23;
+    private static final double DOWN_CUTOFF = 0.155;
+    private static final double KAISER_BETA = 6.0;
+
+    // UP_EVEN[i] weights x[c - 12 + i] for out[2m]; UP_ODD[i] weights x[c - 11 + i] for out[2m + 1]
+    static final int[] UP_EVEN = new int[2 * UP_HALF_SPAN + 1];
+    static final int[] UP_ODD = new int[2 * UP_HALF_SPAN];
+    // DOWN[i] weights x[3m - 36 + i]
+    static final int[] DOWN = new int[2 * DOWN_HALF_SPAN + 1];
+
+    static final VarHandle PCM16 = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfShort PCM16_LE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        // Interpolation prototype runs at the output rate, split into even and odd phases
+        double upRadius = 2 * UP_HALF_SPAN + 1;
+        double[] even = new double[UP_EVEN.length];
+        for (int i = 0; i < even.length; i++) {
+            even[i] = lowPass(2 * (i - UP_HALF_SPAN), UP_CUTOFF, upRadius);
+        }
+        double[] odd = new double[UP_ODD.length];
+        for (int i = 0; i < odd.length; i++) {
+            odd[i] = lowPass(2 * (i - UP_HALF_SPAN + 1) - 1, UP_CUTOFF, upRadius);
+        }
+        double[] down = new double[DOWN.length];
+        for (int i = 0; i < down.length; i++) {
+            down[i] = lowPass(i - DOWN_HALF_SPAN, DOWN_CUTOFF, DOWN_HALF_SPAN + 1);
+        }
+        quantize(even, UP_EVEN);
+        quantize(odd, UP_ODD);
+        quantize(down, DOWN);
+    }
+
+    private FirKernels() {
+    }
+
+    /**
+     * Interpolates {@code samples} inputs to {@code 2 * samples} outputs, clamping at the chunk edges.
+     */
+    static void upsample2x(short[] x, int offset, int samples, short[] out, int outOffset) {
+        int lo = Math.min(UP_HALF_SPAN, samples);
+        int hi = Math.max(lo, interiorEnd(samples, UP_HALF_SPAN, 1));
+        // Clamped edge outputs [0, lo) and [hi, end) here; the interior runs on the active kernels
+        for (int m = 0; m < samples; m = m == lo - 1 ? hi : m + 1) {
+            int o = outOffset + 2 * m;
+            out[o] = dotClamped(UP_EVEN, x, offset, samples, m - UP_HALF_SPAN);
+            out[o + 1] = dotClamped(UP_ODD, x, offset, samples, m - UP_HALF_SPAN + 1);
+        }
+        AudioKernels.ACTIVE.interpolate2x(x, offset + lo, hi - lo, out, outOffset + 2 * lo);
+    }
+
+    /**
+     * Decimates {@code samples} inputs to {@code outputs} outputs centered on every third input,
+     * clamping at the chunk edges.
+     */
+    static void downsample3x(short[] x, int offset, int samples, short[] out, int outOffset, int outputs) {
+        int lo = Math.min(DOWN_HALF_SPAN / 3, outputs);
+        int hi = Math.min(Math.max(lo, interiorEnd(samples, DOWN_HALF_SPAN, 3)), outputs);
+        // Clamped edge outputs [0, lo) and [hi, end) here; the interior runs on the active kernels
+        for (int m = 0; m < outputs; m = m == lo - 1 ? hi : m + 1) {
+            out[outOffset + m] = dotClamped(DOWN, x, offset, samples, 3 * m - DOWN_HALF_SPAN);
+        }
+        AudioKernels.ACTIVE.decimate3x(x, offset + 3 * lo, hi - lo, out, outOffset + lo);
+    }
+
+    /**
+     * Decodes {@code samples} μ-law bytes and interpolates them to {@code 2 * samples} little-endian
+     * PCM samples.
+     *
+     * @param window decode window, must hold {@code samples + 2 * UP_HALF_SPAN} samples
+     */
+    static void mulawToPcm2x(byte[] mulaw, int offset, int samples, short[] window, byte[] pcm, int pcmOffset) {
+        if (samples <= 0) {
+            return;
+        }
+        // Repeat the edge samples so every output takes the unclamped kernel
+        short first = MulawCodec.decode(mulaw[offset]);
+        short last = MulawCodec.decode(mulaw[offset + samples - 1]);
+        for (int i = 0; i < UP_HALF_SPAN; i++) {
+            window[i] = first;
+            window[UP_HALF_SPAN + samples + i] = last;
+        }
+        AudioKernels.ACTIVE.decodeMulaw(mulaw, offset, window, UP_HALF_SPAN, samples);
+        AudioKernels.ACTIVE.interpolate2x(window, UP_HALF_SPAN, samples, pcm, pcmOffset);
+    }
+
+    /**
+     * Decimates {@code samples} little-endian PCM samples by 3 and encodes the {@code outputs}
+     * results to μ-law in a single pass.
+     */
+    static void pcmToMulaw3x(byte[] pcm, int offset, int samples, byte[] mulaw, int mulawOffset, int outputs) {
+        int lo = Math.min(DOWN_HALF_SPAN / 3, outputs);
+        int hi = Math.min(Math.max(lo, interiorEnd(samples, DOWN_HALF_SPAN, 3)), outputs);
+        // Clamped edge outputs [0, lo) and [hi, end) here; the interior runs on the active kernels
+        for (int m = 0; m < outputs; m = m == lo - 1 ? hi : m + 1) {
+            short sample = dotPcmClamped(DOWN, pcm, offset, samples, 3 * m - DOWN_HALF_SPAN);
+            mulaw[mulawOffset + m] = MulawCodec.encode(sample);
+        }
+        AudioKernels.ACTIVE.decimate3xToMulaw(pcm, offset, 3 * lo, hi - lo, mulaw, mulawOffset + lo);
+    }
+
+    /**
+     * Same as {@link #mulawToPcm2x(byte[], int, int, short[], byte[], int)} over whole memory
+     * segments, so direct buffers are converted in place without staging copies.
+     */
+    static void mulawToPcm2x(MemorySegment mulaw, int samples, short[] window, MemorySegment pcm) {
+        if (samples <= 0) {
+            return;
+        }
+        for (int i = 0; i < samples; i++) {
+            window[UP_HALF_SPAN + i] = MulawCodec.decode(mulaw.get(ValueLayout.JAVA_BYTE, i));
+        }
+        short first = window[UP_HALF_SPAN];
+        short last = window[UP_HALF_SPAN + samples - 1];
+        for (int i = 0; i < UP_HALF_SPAN; i++) {
+            window[i] = first;
+            window[UP_HALF_SPAN + samples + i] = last;
+        }
+        AudioKernels.ACTIVE.interpolate2x(window, UP_HALF_SPAN, samples, pcm, 0);
+    }
+
+    /**
+     * Same as {@link #pcmToMulaw3x(byte[], int, int, byte[], int, int)} over whole memory segments.
+     */
+    static void pcmToMulaw3x(MemorySegment pcm, int samples, MemorySegment mulaw, int outputs) {
+        int lo = Math.min(DOWN_HALF_SPAN / 3, outputs);
+        int hi = Math.min(Math.max(lo, interiorEnd(samples, DOWN_HALF_SPAN, 3)), outputs);
+        // Clamped edge outputs [0, lo) and [hi, end) here; the interior runs on the active kernels
+        for (int m = 0; m < outputs; m = m == lo - 1 ? hi : m + 1) {
+            short sample = dotSegmentClamped(DOWN, pcm, samples, 3 * m - DOWN_HALF_SPAN);
+            mulaw.set(ValueLayout.JAVA_BYTE, m, MulawCodec.encode(sample));
+        }
+        AudioKernels.ACTIVE.decimate3xToMulaw(pcm, 0, 3 * lo, hi - lo, mulaw, lo);
+    }
+
+    /**
+     * Even-phase interpolation output for center {@code c}; needs {@link #UP_HALF_SPAN} samples either side.
+     */
+    static short upsampleEven(short[] x, int c) {
+        int acc = ROUNDING + UP_EVEN[UP_HALF_SPAN] * x[c];
+        int base = c - UP_HALF_SPAN;
+        int last = base + UP_EVEN.length - 1;
+        for (int i = 0; i < UP_HALF_SPAN; i++) {
+            acc += UP_EVEN[i] * (x[base + i] + x[last - i]);
+        }
+        return saturate(acc >> Q);
+    }
+
+    /**
+     * Odd-phase interpolation output half a sample after center {@code c}.
+     */
+    static short upsampleOdd(short[] x, int c) {
+        int acc = ROUNDING;
+        int base = c - UP_HALF_SPAN + 1;
+        int last = base + UP_ODD.length - 1;
+        for (int i = 0; i < UP_HALF_SPAN; i++) {
+            acc += UP_ODD[i] * (x[base + i] + x[last - i]);
+        }
+        return saturate(acc >> Q);
+    }
+
+    /**
+     * Decimation output for center {@code c}; needs {@link #DOWN_HALF_SPAN} samples either side.
+     */
+    static short downsample(short[] x, int c) {
+        int acc = ROUNDING + DOWN[DOWN_HALF_SPAN] * x[c];
+        int base = c - DOWN_HALF_SPAN;
+        int last = base + DOWN.length - 1;
+        for (int i = 0; i < DOWN_HALF_SPAN; i++) {
+            acc += DOWN[i] * (x[base + i] + x[last - i]);
+        }
+        return saturate(acc >> Q);
+    }
+
+    static short saturate(int value) {
+        if (value > Short.MAX_VALUE) return Short.MAX_VALUE;
+        if (value < Short.MIN_VALUE) return Short.MIN_VALUE;
+        return (short) value;
+    }
+
+    /**
+     * Number of leading centers {@code stride * m} that have {@code halfSpan} samples of right context.
+     */
+    private static int interiorEnd(int samples, int halfSpan, int stride) {
+        return samples > halfSpan ? (samples - halfSpan - 1) / stride + 1 : 0;
+    }
+
+    private static short dotClamped(int[] taps, short[] x, int offset, int samples, int start) {
+        int acc = ROUNDING;
+        for (int i = 0; i < taps.length; i++) {
+            int index = Math.min(Math.max(start + i, 0), samples - 1);
+            acc += taps[i] * x[offset + index];
+        }
+        return saturate(acc >> Q);
+    }
+
+    /**
+     * Decimation output for center {@code c} of little-endian PCM starting at byte {@code offset}.
+     */
+    static short downsample(byte[] pcm, int offset, int c) {
+        int acc = ROUNDING + DOWN[DOWN_HALF_SPAN] * (short) PCM16.get(pcm, offset + 2 * c);
+        int base = offset + 2 * (c - DOWN_HALF_SPAN);
+        int last = base + 2 * (DOWN.length - 1);
+        for (int i = 0; i < DOWN_HALF_SPAN; i++) {
+            acc += DOWN[i] * ((short) PCM16.get(pcm, base + 2 * i) + (short) PCM16.get(pcm, last - 2 * i));
+        }
+        return saturate(acc >> Q);
+    }
+
+    /**
+     * Decimation output for center {@code c} of little-endian PCM starting at byte {@code offset}.
+     */
+    static short downsample(MemorySegment pcm, long offset, int c) {
+        int acc = ROUNDING + DOWN[DOWN_HALF_SPAN] * pcm.get(PCM16_LE, offset + 2L * c);
+        long base = offset + 2L * (c - DOWN_HALF_SPAN);
+        long last = base + 2L * (DOWN.length - 1);
+        for (int i = 0; i < DOWN_HALF_SPAN; i++) {
+            acc += DOWN[i] * (pcm.get(PCM16_LE, base + 2L * i) + pcm.get(PCM16_LE, last - 2L * i));
+        }
+        return saturate(acc >> Q);
+    }
+
+    private static short dotPcmClamped(int[] taps, byte[] pcm, int offset, int samples, int start) {
+        int acc = ROUNDING;
+        for (int i = 0; i < taps.length; i++) {
+            int index = Math.min(Math.max(start + i, 0), samples - 1);
+            acc += taps[i] * (short) PCM16.get(pcm, offset + 2 * index);
+        }
+        return saturate(acc >> Q);
+    }
+
+    private static short dotSegmentClamped(int[] taps, MemorySegment pcm, int samples, int start) {
+        int acc = ROUNDING;
+        for (int i = 0; i < taps.length; i++) {
+            int index = Math.min(Math.max(start + i, 0), samples - 1);
+            acc += taps[i] * pcm.get(PCM16_LE, 2L * index);
+        }
+        return saturate(acc >> Q);
+    }
+
+    /**
+     * Kaiser-windowed sinc low-pass tap at offset {@code t} samples from the center.
+     */
+    private static double lowPass(double t, double cutoff, double radius) {
+        double x = 2 * cutoff * t;
+        double sinc = x == 0 ? 1.0 : Math.sin(Math.PI * x) / (Math.PI * x);
+        double r = t / radius;
+        double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r))) / besselI0(KAISER_BETA);
+        return 2 * cutoff * sinc * window;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1.0;
+        double term = 1.0;
+        for (int k = 1; k < 32; k++) {
+            term *= (x / (2 * k)) * (x / (2 * k));
+            sum += term;
+        }
+        return sum;
+    }
+
+    /**
+     * Normalizes taps to unity DC gain and rounds them to Q14, keeping them exactly symmetric.
+     * The rounding error is folded into the central tap (or split across the central pair for an
+     * even length, within one LSB) so a constant input passes through unchanged.
+     */
+    private static void quantize(double[] taps, int[] out) {
+        double sum = 0;
+        for (double tap : taps) {
+            sum += tap;
+        }
+        int n = taps.length;
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            // Mirror the first half so rounding cannot break the symmetry the kernels rely on
+            int source = Math.min(i, n - 1 - i);
+            out[i] = (int) Math.round(taps[source] / sum * (1 << Q));
+            total += out[i];
+        }
+        int residual = (1 << Q) - total;
+        if (n % 2 == 1) {
+            out[n / 2] += residual;
+        } else {
+            out[n / 2 - 1] += residual / 2;
+            out[n / 2] += residual / 2;
+        }
+
+        int absTotal = 0;
+        for (int tap : out) {
+            absTotal += Math.abs(tap);
+        }
+        // Keeps every accumulation of full-scale samples within int range
+        if (absTotal >= 1 << 16) {
+            throw new IllegalStateException("FIR taps overflow the accumulator: " + absTotal);
+        }
+    }
+}
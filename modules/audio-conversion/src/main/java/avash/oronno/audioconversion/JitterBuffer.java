@@ -0,0 +1,208 @@
+package avash.oronno.audioconversion;
+
+import java.util.Arrays;
+
+/**
+ * Playout buffer that re-slices an audio byte stream arriving in arbitrarily sized chunks into
+ * fixed-size frames, such as 20ms (160-byte) μ-law frames for Twilio.
+ *
+ * Playout starts once {@code targetDepth} frames are buffered, and restarts the same way after an
+ * underrun (a frame was due during a burst of audio, such as a model turn, but less than one was
+ * buffered). Writes that would take the buffer past {@code maxDepth} frames are overruns: the oldest
+ * whole frames are dropped to make room. When the writer marks the end of a burst with
+ * {@link #endTurn()}, or of all input with {@link #finish()}, the remaining audio plays out without
+ * waiting for the target depth, a final partial frame is padded with silence, and running dry
+ * afterwards is not an underrun.
+ *
+ * One instance per audio stream. Methods are synchronized, so the writer and the playout clock may
+ * run on different threads.
+ */
+public final class JitterBuffer {
+
+    /**
+     * One 20ms frame of 8kHz μ-law.
+     */
+    public static final int MULAW_FRAME_BYTES = 160;
+
+    /**
+     * μ-law encoding of a zero sample.
+     */
+    public static final byte MULAW_SILENCE = (byte) 0xFF;
+
+    private final int frameBytes;
+    private final int targetBytes;
+    private final byte silence;
+    private final byte[] ring;
+
+    private int head;
+    private int size;
+    private boolean playing;
+    private boolean turnEnded;
+    private boolean finished;
+
+    private long framesOut;
+    private long underruns;
+    private long overruns;
+    private long droppedBytes;
+
+    /**
+     * Buffer of 20ms μ-law frames.
+     */
+    public static JitterBuffer forMulaw(int targetDepth, int maxDepth) {
+        return new JitterBuffer(MULAW_FRAME_BYTES, targetDepth, maxDepth, MULAW_SILENCE);
+    }
+
+    /**
+     * @param frameBytes bytes per output frame
+     * @param targetDepth frames to buffer before playout starts
+     * @param maxDepth frames the buffer holds before dropping the oldest
+     * @param silence byte value used to pad a final partial frame
+     */
+    public JitterBuffer(int frameBytes, int targetDepth, int maxDepth, byte silence) {
+        if (frameBytes <= 0 || targetDepth <= 0 || maxDepth < targetDepth) {
+            throw new IllegalArgumentException("Invalid jitter buffer geometry: frameBytes=" + frameBytes
+                    + ", targetDepth=" + targetDepth + ", maxDepth=" + maxDepth);
+        }
+        this.frameBytes = frameBytes;
+        this.targetBytes = targetDepth * frameBytes;
+        this.silence = silence;
+        this.ring = new byte[maxDepth * frameBytes];
+    }
+
+    /**
+     * Appends audio, dropping the oldest buffered frames if it does not fit.
+     */
+    public synchronized void write(byte[] src, int offset, int length) {
+        if (length > ring.length) {
+            // Not even an empty buffer could hold it all; keep the newest audio
+            overruns++;
+            droppedBytes += size + length - ring.length;
+            offset += length - ring.length;
+            length = ring.length;
+            head = 0;
+            size = 0;
+        }
+        int excess = size + length - ring.length;
+        if (excess > 0) {
+            int drop = Math.min(size, (excess + frameBytes - 1) / frameBytes * frameBytes);
+            head = (head + drop) % ring.length;
+            size -= drop;
+            overruns++;
+            droppedBytes += drop;
+        }
+
+        int tail = (head + size) % ring.length;
+        int first = Math.min(length, ring.length - tail);
+        System.arraycopy(src, offset, ring, tail, first);
+        System.arraycopy(src, offset + first, ring, 0, length - first);
+        size += length;
+        turnEnded = false;
+    }
+
+    /**
+     * Takes the next frame due for playout.
+     *
+     * @return a new frame, or {@code null} while buffering (before playout, after an underrun, or once drained)
+     */
+    public byte[] poll() {
+        byte[] frame = new byte[frameBytes];
+        return poll(frame, 0) ? frame : null;
+    }
+
+    /**
+     * Copies the next frame due for playout into {@code frame}, so the caller can reuse one array.
+     *
+     * @return whether a frame was written; false while buffering (before playout, after an underrun, or once drained)
+     */
+    public synchronized boolean poll(byte[] frame, int offset) {
+        boolean draining = finished || turnEnded;
+        if (!playing) {
+            if (size >= targetBytes || (draining && size > 0)) {
+                playing = true;
+            } else {
+                return false;
+            }
+        }
+        if (size < frameBytes && !(draining && size > 0)) {
+            if (!draining) {
+                underruns++;
+            }
+            playing = false;
+            return false;
+        }
+
+        int length = Math.min(size, frameBytes);
+        int first = Math.min(length, ring.length - head);
+        System.arraycopy(ring, head, frame, offset, first);
+        System.arraycopy(ring, 0, frame, offset + first, length - first);
+        Arrays.fill(frame, offset + length, offset + frameBytes, silence);
+        head = (head + length) % ring.length;
+        size -= length;
+        framesOut++;
+        return true;
+    }
+
+    /**
+     * Marks the end of a burst of input, such as a model turn; what is buffered plays out without
+     * waiting for the target depth. The next write starts a new burst.
+     */
+    public synchronized void endTurn() {
+        turnEnded = true;
+    }
+
+    /**
+     * Marks the end of input; remaining audio plays out without waiting for the target depth.
+     */
+    public synchronized void finish() {
+        finished = true;
+    }
+
+    /**
+     * Whether input has finished and every buffered byte has been played out.
+     */
+    public synchronized boolean isDrained() {
+        return finished && size == 0;
+    }
+
+    /**
+     * Discards all buffered audio and goes back to buffering up to the target depth.
+     *
+     * @return number of bytes discarded
+     */
+    public synchronized int flush() {
+        int discarded = size;
+        head = 0;
+        size = 0;
+        playing = false;
+        return discarded;
+    }
+
+    /**
+     * Buffered audio in whole frames.
+     */
+    public synchronized int depth() {
+        return size / frameBytes;
+    }
+
+    public synchronized long framesOut() {
+        return framesOut;
+    }
+
+    /**
+     * Times a frame was due during a burst but less than one frame was buffered.
+     */
+    public synchronized long underruns() {
+        return underruns;
+    }
+
+    /**
+     * Writes that found the buffer full and dropped old audio.
+     */
+    public synchronized long overruns() {
+        return overruns;
+    }
+
+    public synchronized long droppedBytes() {
+        return droppedBytes;
+    }
+}
@@ -0,0 +1,107 @@
+package avash.oronno.audioconversion;
+
+/**
+ * Linear-interpolating {@link Resampler} with exact rational phase.
+ *
+ * The read position is kept as an integer numerator over {@code targetRate / gcd}, relative to
+ * the last sample of the previous chunk, so no rounding error accumulates over a call.
+ */
+final class LinearResampler implements Resampler {
+
+    private final int step;
+    private final int denominator;
+
+    // Position of the next output, in 1/denominator units, relative to the history sample
+    private long position;
+    private short history;
+    private boolean primed;
+
+    LinearResampler(int sourceRate, int targetRate) {
+        if (sourceRate <= 0 || targetRate <= 0) {
+            throw new IllegalArgumentException("Sample rates must be positive: " + sourceRate + " → " + targetRate);
+        }
+        int gcd = gcd(sourceRate, targetRate);
+        this.step = sourceRate / gcd;
+        this.denominator = targetRate / gcd;
+    }
+
+    @Override
+    public int process(short[] input, int inputOffset, int inputSamples, short[] output, int outputOffset) {
+        if (inputSamples <= 0) {
+            return 0;
+        }
+        int required = maxOutputSamples(inputSamples);
+        if (output.length - outputOffset < required) {
+            throw new IllegalArgumentException(
+                    "Destination buffer too small: " + required + " required, " + (output.length - outputOffset) + " available");
+        }
+
+        int base = inputOffset;
+        int available = inputSamples;
+        if (!primed) {
+            // The very first sample of the stream becomes the history sample
+            history = input[inputOffset];
+            primed = true;
+            base++;
+            available--;
+        }
+
+        // Virtual stream: index 0 is the history sample, index k >= 1 is input[base + k - 1]
+        long limit = (long) available * denominator;
+        int written = 0;
+        while (position < limit) {
+            int index = (int) (position / denominator);
+            int fraction = (int) (position - (long) index * denominator);
+            int sample1 = index == 0 ? history : input[base + index - 1];
+            int sample2 = input[base + index];
+            output[outputOffset + written++] = (short) (sample1 + (int) ((long) (sample2 - sample1) * fraction / denominator));
+            position += step;
+        }
+
+        if (available > 0) {
+            history = input[base + available - 1];
+            position -= limit;
+        }
+        return written;
+    }
+
+    @Override
+    public int flush(short[] output, int outputOffset) {
+        int written = 0;
+        if (primed) {
+            // Hold the last sample for the outputs that fall after it
+            while (position < denominator) {
+                output[outputOffset + written++] = history;
+                position += step;
+            }
+        }
+        reset();
+        return written;
+    }
+
+    @Override
+    public int maxOutputSamples(int inputSamples) {
+        return (int) (((long) inputSamples * denominator + step - 1) / step);
+    }
+
+    @Override
+    public int maxFlushSamples() {
+        return maxOutputSamples(1);
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+        history = 0;
+        primed = false;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,125 @@
+package avash.oronno.audioconversion;
+
+/**
+ * Table-driven G.711 μ-law codec for 16-bit signed little-endian PCM.
+ *
+ * Decoding uses a 256-entry table of linear samples; encoding uses a 64K-entry table
+ * indexed by the unsigned 16-bit sample value, so both directions are a single array
+ * load per sample with no per-call format objects or stream wrappers. The bulk
+ * {@code short[]} overloads run on {@link AudioKernels#ACTIVE}, which computes the same
+ * codes arithmetically with the Vector API where available.
+ */
+public final class MulawCodec {
+
+    static final int BIAS = 0x84;
+    static final int MAX_MAGNITUDE = 0x7FFF;
+
+    private static final short[] DECODE_TABLE = new short[256];
+    private static final byte[] ENCODE_TABLE = new byte[65536];
+
+    static {
+        for (int i = 0; i < DECODE_TABLE.length; i++) {
+            DECODE_TABLE[i] = decodeSample(i);
+        }
+        for (int i = 0; i < ENCODE_TABLE.length; i++) {
+            ENCODE_TABLE[i] = encodeSample((short) i);
+        }
+    }
+
+    private MulawCodec() {
+    }
+
+    /**
+     * Decodes a single μ-law byte to a linear 16-bit sample.
+     */
+    public static short decode(byte mulaw) {
+        return DECODE_TABLE[mulaw & 0xFF];
+    }
+
+    /**
+     * Encodes a single linear 16-bit sample to μ-law.
+     */
+    public static byte encode(short sample) {
+        return ENCODE_TABLE[sample & 0xFFFF];
+    }
+
+    /**
+     * Decodes μ-law bytes into 16-bit signed little-endian PCM.
+     *
+     * @param src μ-law source
+     * @param srcOffset offset of the first μ-law byte
+     * @param dst PCM destination, must have room for {@code samples * 2} bytes
+     * @param dstOffset offset of the first PCM byte
+     * @param samples number of samples to decode
+     */
+    public static void decode(byte[] src, int srcOffset, byte[] dst, int dstOffset, int samples) {
+        for (int i = 0; i < samples; i++) {
+            short sample = DECODE_TABLE[src[srcOffset + i] & 0xFF];
+            int outIdx = dstOffset + i * 2;
+            dst[outIdx] = (byte) sample;
+            dst[outIdx + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    /**
+     * Encodes 16-bit signed little-endian PCM into μ-law bytes.
+     *
+     * @param src PCM source
+     * @param srcOffset offset of the first PCM byte
+     * @param dst μ-law destination, must have room for {@code samples} bytes
+     * @param dstOffset offset of the first μ-law byte
+     * @param samples number of samples to encode
+     */
+    public static void encode(byte[] src, int srcOffset, byte[] dst, int dstOffset, int samples) {
+        for (int i = 0; i < samples; i++) {
+            int inIdx = srcOffset + i * 2;
+            int sample = (src[inIdx] & 0xFF) | ((src[inIdx + 1] & 0xFF) << 8);
+            dst[dstOffset + i] = ENCODE_TABLE[sample];
+        }
+    }
+
+    /**
+     * Decodes μ-law bytes into linear samples.
+     */
+    public static void decode(byte[] src, int srcOffset, short[] dst, int dstOffset, int samples) {
+        AudioKernels.ACTIVE.decodeMulaw(src, srcOffset, dst, dstOffset, samples);
+    }
+
+    /**
+     * Encodes linear samples into μ-law bytes.
+     */
+    public static void encode(short[] src, int srcOffset, byte[] dst, int dstOffset, int samples) {
+        AudioKernels.ACTIVE.encodeMulaw(src, srcOffset, dst, dstOffset, samples);
+    }
+
+    private static short decodeSample(int mulaw) {
+        int inverted = ~mulaw & 0xFF;
+        int exponent = (inverted >> 4) & 0x07;
+        int mantissa = inverted & 0x0F;
+        int magnitude = (((mantissa << 3) + BIAS) << exponent) - BIAS;
+        return (short) ((inverted & 0x80) != 0 ? -magnitude : magnitude);
+    }
+
+    private static byte encodeSample(short sample) {
+        int magnitude;
+        int mask;
+        if (sample < 0) {
+            magnitude = BIAS - sample;
+            mask = 0x7F;
+        } else {
+            magnitude = sample + BIAS;
+            mask = 0xFF;
+        }
+        // Saturate instead of wrapping so full-scale samples stay full-scale
+        if (magnitude > MAX_MAGNITUDE) {
+            magnitude = MAX_MAGNITUDE;
+        }
+
+        int exponent = 0;
+        for (int segmentEnd = 0xFF; magnitude > segmentEnd; segmentEnd = (segmentEnd << 1) | 1) {
+            exponent++;
+        }
+        int mantissa = (magnitude >> (exponent + 3)) & 0x0F;
+        return (byte) (((exponent << 4) | mantissa) ^ mask);
+    }
+}
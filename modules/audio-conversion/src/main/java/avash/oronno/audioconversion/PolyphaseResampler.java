@@ -0,0 +1,166 @@
+package avash.oronno.audioconversion;
+
+/**
+ * Streaming {@link Resampler} built on the fixed-ratio {@link FirKernels}, running the
+ * {@link AudioKernels#ACTIVE} inner loops over every center that is ready.
+ *
+ * Input is appended to a delay line that keeps just enough left context for the next output.
+ * The stream edges are padded by repeating the first and last samples, and {@link #flush} stops at
+ * the stateless output count, rounded like {@link AudioConverter#resampledSampleCount}, so a whole
+ * stream processed through {@link #process} and {@link #flush} matches the stateless kernels exactly.
+ */
+abstract class PolyphaseResampler implements Resampler {
+
+    private final int halfSpan;
+    private final int stride;
+    private final int outputsPerStep;
+
+    private short[] line;
+    private int length;
+    // Index in the delay line of the input sample the next output is centered on
+    private int center;
+    private short last;
+    private boolean primed;
+    private long consumed;
+    private long produced;
+
+    PolyphaseResampler(int halfSpan, int stride, int outputsPerStep) {
+        this.halfSpan = halfSpan;
+        this.stride = stride;
+        this.outputsPerStep = outputsPerStep;
+        this.line = new short[4 * halfSpan + 1024];
+    }
+
+    /**
+     * Writes the outputs for {@code count} consecutive centers starting at {@code c} and returns
+     * how many samples were written.
+     */
+    abstract int emit(short[] x, int c, int count, short[] output, int outputOffset);
+
+    @Override
+    public int process(short[] input, int inputOffset, int inputSamples, short[] output, int outputOffset) {
+        if (inputSamples <= 0) {
+            return 0;
+        }
+        int required = maxOutputSamples(inputSamples);
+        if (output.length - outputOffset < required) {
+            throw new IllegalArgumentException(
+                    "Destination buffer too small: " + required + " required, " + (output.length - outputOffset) + " available");
+        }
+
+        if (!primed) {
+            pad(input[inputOffset]);
+            center = halfSpan;
+            primed = true;
+        }
+        ensureCapacity(length + inputSamples);
+        System.arraycopy(input, inputOffset, line, length, inputSamples);
+        length += inputSamples;
+        last = input[inputOffset + inputSamples - 1];
+        consumed += inputSamples;
+
+        return drain(output, outputOffset, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int flush(short[] output, int outputOffset) {
+        int written = 0;
+        if (primed) {
+            pad(last);
+            // A decimated stream ends on the output nearest its length, not on every started step
+            long total = (consumed * outputsPerStep + stride / 2) / stride;
+            written = drain(output, outputOffset, (int) ((total - produced) / outputsPerStep));
+        }
+        reset();
+        return written;
+    }
+
+    @Override
+    public int maxOutputSamples(int inputSamples) {
+        return outputsPerStep * ((inputSamples + stride - 1) / stride);
+    }
+
+    @Override
+    public int maxFlushSamples() {
+        return maxOutputSamples(halfSpan);
+    }
+
+    @Override
+    public void reset() {
+        length = 0;
+        center = 0;
+        last = 0;
+        primed = false;
+        consumed = 0;
+        produced = 0;
+    }
+
+    private int drain(short[] output, int outputOffset, int maxCenters) {
+        int written = 0;
+        int ready = length - halfSpan - center;
+        if (ready > 0) {
+            int count = Math.min((ready - 1) / stride + 1, maxCenters);
+            if (count > 0) {
+                written = emit(line, center, count, output, outputOffset);
+                center += count * stride;
+            }
+        }
+        produced += written;
+
+        // Keep only the left context of the next center
+        int discard = Math.min(center - halfSpan, length);
+        if (discard > 0) {
+            System.arraycopy(line, discard, line, 0, length - discard);
+            length -= discard;
+            center -= discard;
+        }
+        return written;
+    }
+
+    private void pad(short sample) {
+        ensureCapacity(length + halfSpan);
+        for (int i = 0; i < halfSpan; i++) {
+            line[length++] = sample;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (line.length < capacity) {
+            short[] grown = new short[Math.max(capacity, line.length * 2)];
+            System.arraycopy(line, 0, grown, 0, length);
+            line = grown;
+        }
+    }
+
+    /**
+     * 2x interpolator: every input sample yields an even and an odd output.
+     */
+    static final class Interpolator2x extends PolyphaseResampler {
+
+        Interpolator2x() {
+            super(FirKernels.UP_HALF_SPAN, 1, 2);
+        }
+
+        @Override
+        int emit(short[] x, int c, int count, short[] output, int outputOffset) {
+            AudioKernels.ACTIVE.interpolate2x(x, c, count, output, outputOffset);
+            return 2 * count;
+        }
+    }
+
+    /**
+     * 3x decimator: one output centered on every third input sample.
+     */
+    static final class Decimator3x extends PolyphaseResampler {
+
+        Decimator3x() {
+            super(FirKernels.DOWN_HALF_SPAN, 3, 1);
+        }
+
+        @Override
+        int emit(short[] x, int c, int count, short[] output, int outputOffset) {
+            AudioKernels.ACTIVE.decimate3x(x, c, count, output, outputOffset);
+            return count;
+        }
+    }
+}
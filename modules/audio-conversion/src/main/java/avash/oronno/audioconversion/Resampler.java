@@ -0,0 +1,69 @@
+package avash.oronno.audioconversion;
+
+/**
+ * Stateful sample-rate converter for a single 16-bit mono audio stream.
+ *
+ * Unlike {@link AudioConverter#resample}, which treats every chunk independently, a resampler
+ * carries its phase and history samples across {@link #process} calls, so feeding a stream in
+ * arbitrary chunks produces exactly the same output as feeding it in one piece. Keep one
+ * instance per call session; instances are not thread-safe.
+ */
+public interface Resampler {
+
+    /**
+     * Consumes input samples and writes every output sample that can be produced so far.
+     *
+     * @param input source samples
+     * @param inputOffset index of the first source sample
+     * @param inputSamples number of source samples
+     * @param output destination, must have room for {@link #maxOutputSamples(int)} samples
+     * @param outputOffset index of the first destination sample
+     * @return number of samples written
+     */
+    int process(short[] input, int inputOffset, int inputSamples, short[] output, int outputOffset);
+
+    /**
+     * Writes the samples still held back at the end of the stream and resets the resampler.
+     *
+     * @param output destination, must have room for {@link #maxFlushSamples()} samples
+     * @param outputOffset index of the first destination sample
+     * @return number of samples written
+     */
+    int flush(short[] output, int outputOffset);
+
+    /**
+     * Upper bound on the samples a single {@link #process} call can write for the given input size.
+     */
+    int maxOutputSamples(int inputSamples);
+
+    /**
+     * Upper bound on the samples {@link #flush} can write.
+     */
+    int maxFlushSamples();
+
+    /**
+     * Discards all carried state so the instance can be reused for a new stream.
+     */
+    void reset();
+
+    /**
+     * Creates a resampler for the given rates, using the polyphase FIR kernels for exact 2x
+     * interpolation and 3x decimation and linear interpolation for any other ratio.
+     */
+    static Resampler create(int sourceRate, int targetRate) {
+        if (targetRate == sourceRate * 2) {
+            return new PolyphaseResampler.Interpolator2x();
+        }
+        if (sourceRate == targetRate * 3) {
+            return new PolyphaseResampler.Decimator3x();
+        }
+        return linear(sourceRate, targetRate);
+    }
+
+    /**
+     * Creates a linear-interpolating resampler for arbitrary rates.
+     */
+    static Resampler linear(int sourceRate, int targetRate) {
+        return new LinearResampler(sourceRate, targetRate);
+    }
+}
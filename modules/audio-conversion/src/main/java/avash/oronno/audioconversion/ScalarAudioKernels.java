@@ -0,0 +1,73 @@
+package avash.oronno.audioconversion;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Portable {@link AudioKernels}: table lookups for G.711 and the folded-tap FIR loops in
+ * {@link FirKernels}. Always available, and the reference the Vector API kernels are checked against.
+ */
+final class ScalarAudioKernels implements AudioKernels {
+
+    @Override
+    public void decodeMulaw(byte[] src, int srcOffset, short[] dst, int dstOffset, int samples) {
+        for (int i = 0; i < samples; i++) {
+            dst[dstOffset + i] = MulawCodec.decode(src[srcOffset + i]);
+        }
+    }
+
+    @Override
+    public void encodeMulaw(short[] src, int srcOffset, byte[] dst, int dstOffset, int samples) {
+        for (int i = 0; i < samples; i++) {
+            dst[dstOffset + i] = MulawCodec.encode(src[srcOffset + i]);
+        }
+    }
+
+    @Override
+    public void interpolate2x(short[] x, int first, int count, short[] out, int outOffset) {
+        for (int m = 0; m < count; m++) {
+            out[outOffset + 2 * m] = FirKernels.upsampleEven(x, first + m);
+            out[outOffset + 2 * m + 1] = FirKernels.upsampleOdd(x, first + m);
+        }
+    }
+
+    @Override
+    public void interpolate2x(short[] x, int first, int count, byte[] pcm, int pcmOffset) {
+        for (int m = 0; m < count; m++) {
+            int o = pcmOffset + 4 * m;
+            FirKernels.PCM16.set(pcm, o, FirKernels.upsampleEven(x, first + m));
+            FirKernels.PCM16.set(pcm, o + 2, FirKernels.upsampleOdd(x, first + m));
+        }
+    }
+
+    @Override
+    public void interpolate2x(short[] x, int first, int count, MemorySegment pcm, long pcmOffset) {
+        for (int m = 0; m < count; m++) {
+            long o = pcmOffset + 4L * m;
+            pcm.set(FirKernels.PCM16_LE, o, FirKernels.upsampleEven(x, first + m));
+            pcm.set(FirKernels.PCM16_LE, o + 2, FirKernels.upsampleOdd(x, first + m));
+        }
+    }
+
+    @Override
+    public void decimate3x(short[] x, int first, int count, short[] out, int outOffset) {
+        for (int m = 0; m < count; m++) {
+            out[outOffset + m] = FirKernels.downsample(x, first + 3 * m);
+        }
+    }
+
+    @Override
+    public void decimate3xToMulaw(byte[] pcm, int pcmOffset, int first, int count, byte[] mulaw, int mulawOffset) {
+        for (int m = 0; m < count; m++) {
+            mulaw[mulawOffset + m] = MulawCodec.encode(FirKernels.downsample(pcm, pcmOffset, first + 3 * m));
+        }
+    }
+
+    @Override
+    public void decimate3xToMulaw(MemorySegment pcm, long pcmOffset, int first, int count, MemorySegment mulaw, long mulawOffset) {
+        for (int m = 0; m < count; m++) {
+            byte code = MulawCodec.encode(FirKernels.downsample(pcm, pcmOffset, first + 3 * m));
+            mulaw.set(ValueLayout.JAVA_BYTE, mulawOffset + m, code);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package avash.oronno.audioconversion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Silence suppression for a stream of 16-bit little-endian PCM frames, gated by a
+ * {@link VoiceActivityDetector}.
+ *
+ * Frames are forwarded while the detector is active (speech plus its hangover). Silent frames are
+ * held back in a short pre-roll; when speech starts, the pre-roll is forwarded ahead of the onset
+ * frame, so the first syllable is not clipped by the detector's reaction time. Silent frames that
+ * age out of the pre-roll are dropped, or in {@link Mode#COMPACT} one in every {@code keepEvery}
+ * is still forwarded, so the receiver keeps seeing a thinned-out stream of silence.
+ *
+ * One instance per audio stream; instances are not thread-safe.
+ */
+public final class SilenceSuppressor {
+
+    /**
+     * What happens to silent frames once they leave the pre-roll.
+     */
+    public enum Mode {
+        DROP, COMPACT
+    }
+
+    private final VoiceActivityDetector detector;
+    private final int preRollBytes;
+    private final Mode mode;
+    private final int keepEvery;
+    private final Consumer<byte[]> discarded;
+
+    private final ArrayDeque<byte[]> preRoll = new ArrayDeque<>();
+    private int preRollLength;
+    private int silentSinceKept;
+
+    private long framesIn;
+    private long framesForwarded;
+    private long bytesIn;
+    private long bytesForwarded;
+
+    /**
+     * @param detector detector for this stream
+     * @param sampleRate sample rate of the PCM frames
+     * @param preRollMillis how much audio before a speech onset to forward with it
+     * @param mode what to do with silent frames leaving the pre-roll
+     * @param keepEvery in {@link Mode#COMPACT}, forward one in this many silent frames
+     */
+    public SilenceSuppressor(VoiceActivityDetector detector, int sampleRate, int preRollMillis, Mode mode, int keepEvery) {
+        this(detector, sampleRate, preRollMillis, mode, keepEvery, frame -> {
+        });
+    }
+
+    /**
+     * @param discarded receives each frame that is suppressed, e.g. to recycle its array
+     */
+    public SilenceSuppressor(VoiceActivityDetector detector, int sampleRate, int preRollMillis, Mode mode, int keepEvery,
+                             Consumer<byte[]> discarded) {
+        if (keepEvery <= 0) {
+            throw new IllegalArgumentException("keepEvery must be positive: " + keepEvery);
+        }
+        this.detector = detector;
+        this.preRollBytes = (int) ((long) sampleRate * preRollMillis / 1000) * 2;
+        this.mode = mode;
+        this.keepEvery = keepEvery;
+        this.discarded = discarded;
+    }
+
+    /**
+     * Offers one frame and returns the frames to forward, in order: nothing, the frame itself, or on
+     * a speech onset the buffered pre-roll followed by the frame. Frames are not copied, so the
+     * caller must not reuse the array it offers.
+     */
+    public List<byte[]> offer(byte[] pcmFrame) {
+        framesIn++;
+        bytesIn += pcmFrame.length;
+
+        if (detector.process(pcmFrame, 0, pcmFrame.length)) {
+            silentSinceKept = 0;
+            if (preRoll.isEmpty()) {
+                return forward(List.of(pcmFrame));
+            }
+            List<byte[]> frames = new ArrayList<>(preRoll.size() + 1);
+            frames.addAll(preRoll);
+            frames.add(pcmFrame);
+            preRoll.clear();
+            preRollLength = 0;
+            return forward(frames);
+        }
+
+        preRoll.addLast(pcmFrame);
+        preRollLength += pcmFrame.length;
+        byte[] kept = null;
+        while (preRollLength > preRollBytes) {
+            byte[] aged = preRoll.removeFirst();
+            preRollLength -= aged.length;
+            if (mode == Mode.COMPACT && ++silentSinceKept >= keepEvery) {
+                silentSinceKept = 0;
+                if (kept != null) {
+                    discarded.accept(kept);
+                }
+                kept = aged;
+            } else {
+                discarded.accept(aged);
+            }
+        }
+        return kept == null ? List.of() : forward(List.of(kept));
+    }
+
+    public long framesIn() {
+        return framesIn;
+    }
+
+    public long framesForwarded() {
+        return framesForwarded;
+    }
+
+    public long bytesIn() {
+        return bytesIn;
+    }
+
+    public long bytesForwarded() {
+        return bytesForwarded;
+    }
+
+    private List<byte[]> forward(List<byte[]> frames) {
+        for (byte[] frame : frames) {
+            framesForwarded++;
+            bytesForwarded += frame.length;
+        }
+        return frames;
+    }
+}
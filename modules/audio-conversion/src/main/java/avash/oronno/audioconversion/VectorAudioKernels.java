@@ -0,0 +1,203 @@
+package avash.oronno.audioconversion;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * {@link AudioKernels} on the incubating Vector API, eight 32-bit lanes at a time.
+ *
+ * μ-law encoding is computed arithmetically per lane (leading-zero count for the segment) instead
+ * of through the 64K lookup table; decoding keeps the 256-entry table, which measured faster than
+ * any lane arithmetic for it. Interpolation runs across outputs: each lane accumulates one center,
+ * every tap is a broadcast multiply-add over eight adjacent inputs, and the even and odd results are
+ * packed into one int per lane so a single store writes them interleaved.
+ * Decimation inputs are three apart per output, so there the lanes run across taps instead and each
+ * output is a horizontal sum.
+ *
+ * Only instantiated reflectively by {@link AudioKernelSelector}, so this class is never linked when
+ * {@code jdk.incubator.vector} is not in the boot layer.
+ */
+final class VectorAudioKernels implements AudioKernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_256;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_128;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Byte> PCM_BYTES = ByteVector.SPECIES_128;
+    private static final int LANES = INTS.length();
+
+    private static final int[] UP_EVEN = FirKernels.UP_EVEN;
+    private static final int[] UP_ODD = FirKernels.UP_ODD;
+    private static final int[] DOWN = FirKernels.DOWN;
+    private static final int DOWN_VECTOR_TAPS = INTS.loopBound(DOWN.length);
+
+    VectorAudioKernels() {
+        // Narrower hardware would emulate the 256-bit shapes and lose to the scalar loops, and the
+        // packed stores and PCM loads reinterpret lanes in native byte order
+        if (IntVector.SPECIES_PREFERRED.vectorBitSize() < INTS.vectorBitSize()) {
+            throw new UnsupportedOperationException("Preferred vector size is " + IntVector.SPECIES_PREFERRED.vectorBitSize() + " bits");
+        }
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new UnsupportedOperationException("Native byte order is " + ByteOrder.nativeOrder());
+        }
+    }
+
+    @Override
+    public void decodeMulaw(byte[] src, int srcOffset, short[] dst, int dstOffset, int samples) {
+        // A 256-entry table stays in L1 and beats widening, shifting and negating per lane
+        for (int i = 0; i < samples; i++) {
+            dst[dstOffset + i] = MulawCodec.decode(src[srcOffset + i]);
+        }
+    }
+
+    @Override
+    public void encodeMulaw(short[] src, int srcOffset, byte[] dst, int dstOffset, int samples) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(samples); i < bound; i += LANES) {
+            IntVector sample = widen(src, srcOffset + i);
+            VectorMask<Integer> negative = sample.compare(VectorOperators.LT, 0);
+            IntVector magnitude = sample.add(MulawCodec.BIAS)
+                    .blend(sample.neg().add(MulawCodec.BIAS), negative)
+                    .min(MulawCodec.MAX_MAGNITUDE);
+            // Magnitude is at least BIAS, so its top bit sits in 7..14 and maps to segments 0..7
+            IntVector exponent = magnitude.lanewise(VectorOperators.LEADING_ZEROS_COUNT).neg().add(24);
+            IntVector mantissa = magnitude.lanewise(VectorOperators.ASHR, exponent.add(3)).and(0x0F);
+            IntVector mask = IntVector.broadcast(INTS, 0xFF).blend(0x7F, negative);
+            exponent.lanewise(VectorOperators.LSHL, 4)
+                    .or(mantissa)
+                    .lanewise(VectorOperators.XOR, mask)
+                    .convertShape(VectorOperators.I2B, BYTES, 0)
+                    .reinterpretAsBytes()
+                    .intoArray(dst, dstOffset + i);
+        }
+        for (; i < samples; i++) {
+            dst[dstOffset + i] = MulawCodec.encode(src[srcOffset + i]);
+        }
+    }
+
+    @Override
+    public void interpolate2x(short[] x, int first, int count, short[] out, int outOffset) {
+        interpolate(x, first, count, out, null, outOffset);
+    }
+
+    @Override
+    public void interpolate2x(short[] x, int first, int count, byte[] pcm, int pcmOffset) {
+        interpolate(x, first, count, null, MemorySegment.ofArray(pcm), pcmOffset);
+    }
+
+    @Override
+    public void interpolate2x(short[] x, int first, int count, MemorySegment pcm, long pcmOffset) {
+        interpolate(x, first, count, null, pcm, pcmOffset);
+    }
+
+    @Override
+    public void decimate3x(short[] x, int first, int count, short[] out, int outOffset) {
+        for (int m = 0; m < count; m++) {
+            int base = first + 3 * m - FirKernels.DOWN_HALF_SPAN;
+            IntVector acc = IntVector.zero(INTS);
+            for (int i = 0; i < DOWN_VECTOR_TAPS; i += LANES) {
+                acc = acc.add(widen(x, base + i).mul(IntVector.fromArray(INTS, DOWN, i)));
+            }
+            int sum = FirKernels.ROUNDING + acc.reduceLanes(VectorOperators.ADD);
+            for (int i = DOWN_VECTOR_TAPS; i < DOWN.length; i++) {
+                sum += DOWN[i] * x[base + i];
+            }
+            out[outOffset + m] = FirKernels.saturate(sum >> FirKernels.Q);
+        }
+    }
+
+    @Override
+    public void decimate3xToMulaw(byte[] pcm, int pcmOffset, int first, int count, byte[] mulaw, int mulawOffset) {
+        for (int m = 0; m < count; m++) {
+            int base = pcmOffset + 2 * (first + 3 * m - FirKernels.DOWN_HALF_SPAN);
+            IntVector acc = IntVector.zero(INTS);
+            for (int i = 0; i < DOWN_VECTOR_TAPS; i += LANES) {
+                acc = acc.add(widenPcm(pcm, base + 2 * i).mul(IntVector.fromArray(INTS, DOWN, i)));
+            }
+            int sum = FirKernels.ROUNDING + acc.reduceLanes(VectorOperators.ADD);
+            for (int i = DOWN_VECTOR_TAPS; i < DOWN.length; i++) {
+                sum += DOWN[i] * (short) FirKernels.PCM16.get(pcm, base + 2 * i);
+            }
+            mulaw[mulawOffset + m] = MulawCodec.encode(FirKernels.saturate(sum >> FirKernels.Q));
+        }
+    }
+
+    @Override
+    public void decimate3xToMulaw(MemorySegment pcm, long pcmOffset, int first, int count, MemorySegment mulaw, long mulawOffset) {
+        for (int m = 0; m < count; m++) {
+            long base = pcmOffset + 2L * (first + 3 * m - FirKernels.DOWN_HALF_SPAN);
+            IntVector acc = IntVector.zero(INTS);
+            for (int i = 0; i < DOWN_VECTOR_TAPS; i += LANES) {
+                IntVector input = (IntVector) ShortVector.fromMemorySegment(SHORTS, pcm, base + 2L * i, ByteOrder.LITTLE_ENDIAN)
+                        .convertShape(VectorOperators.S2I, INTS, 0);
+                acc = acc.add(input.mul(IntVector.fromArray(INTS, DOWN, i)));
+            }
+            int sum = FirKernels.ROUNDING + acc.reduceLanes(VectorOperators.ADD);
+            for (int i = DOWN_VECTOR_TAPS; i < DOWN.length; i++) {
+                sum += DOWN[i] * pcm.get(FirKernels.PCM16_LE, base + 2L * i);
+            }
+            mulaw.set(ValueLayout.JAVA_BYTE, mulawOffset + m, MulawCodec.encode(FirKernels.saturate(sum >> FirKernels.Q)));
+        }
+    }
+
+    /**
+     * Shared body of the {@code interpolate2x} overloads, writing samples to {@code out} if it is
+     * non-null and little-endian PCM to {@code pcm} otherwise ({@code offset} in samples or bytes).
+     * Kept as one method so the vector values never cross a call boundary, which would box them if
+     * C2 declined to inline.
+     */
+    private static void interpolate(short[] x, int first, int count, short[] out, MemorySegment pcm, long offset) {
+        int m = 0;
+        for (int bound = count - LANES; m <= bound; m += LANES) {
+            int base = first + m - FirKernels.UP_HALF_SPAN;
+            IntVector even = IntVector.broadcast(INTS, FirKernels.ROUNDING);
+            IntVector odd = even;
+            even = even.add(widen(x, base).mul(UP_EVEN[0]));
+            // UP_ODD[i] weights the same input as UP_EVEN[i + 1], so each load feeds both phases
+            for (int i = 1; i < UP_EVEN.length; i++) {
+                IntVector input = widen(x, base + i);
+                even = even.add(input.mul(UP_EVEN[i]));
+                odd = odd.add(input.mul(UP_ODD[i - 1]));
+            }
+            // even | odd << 16 per lane is the two samples interleaved in little-endian memory
+            IntVector packed = clamp(even).and(0xFFFF).or(clamp(odd).lanewise(VectorOperators.LSHL, 16));
+            if (out != null) {
+                packed.reinterpretAsShorts().intoArray(out, (int) offset + 2 * m);
+            } else {
+                packed.intoMemorySegment(pcm, offset + 4L * m, ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        for (; m < count; m++) {
+            short even = FirKernels.upsampleEven(x, first + m);
+            short odd = FirKernels.upsampleOdd(x, first + m);
+            if (out != null) {
+                out[(int) offset + 2 * m] = even;
+                out[(int) offset + 2 * m + 1] = odd;
+            } else {
+                pcm.set(FirKernels.PCM16_LE, offset + 4L * m, even);
+                pcm.set(FirKernels.PCM16_LE, offset + 4L * m + 2, odd);
+            }
+        }
+    }
+
+    private static IntVector clamp(IntVector acc) {
+        return acc.lanewise(VectorOperators.ASHR, FirKernels.Q).max(Short.MIN_VALUE).min(Short.MAX_VALUE);
+    }
+
+    private static IntVector widen(short[] x, int index) {
+        return (IntVector) ShortVector.fromArray(SHORTS, x, index).convertShape(VectorOperators.S2I, INTS, 0);
+    }
+
+    private static IntVector widenPcm(byte[] pcm, int index) {
+        return (IntVector) ByteVector.fromArray(PCM_BYTES, pcm, index)
+                .reinterpretAsShorts()
+                .convertShape(VectorOperators.S2I, INTS, 0);
+    }
+}
@@ -0,0 +1,166 @@
+package avash.oronno.audioconversion;
+
+/**
+ * Energy and zero-crossing voice activity detector for 16-bit mono PCM frames.
+ *
+ * A frame counts as speech when its energy clears both an absolute floor and an adaptive noise
+ * floor by a margin, and its zero-crossing rate is voice-like; a frame far above the noise floor
+ * counts regardless of zero crossings, so loud fricatives are kept. The noise floor tracks
+ * non-speech frames, falling quickly and rising slowly, and creeps up very slowly during speech
+ * so a permanent rise in background noise is eventually absorbed. After the last speech frame the
+ * detector stays active for a hangover period, so word gaps and trailing syllables are kept.
+ *
+ * One instance per audio stream; instances are not thread-safe.
+ */
+public final class VoiceActivityDetector {
+
+    /**
+     * Detector tuning.
+     *
+     * @param marginDb how far above the noise floor a frame must be to count as speech
+     * @param speechFloorDbfs absolute level below which nothing counts as speech
+     * @param maxZeroCrossingRate highest zero crossings per sample for a frame near the margin
+     * @param hangoverMillis how long the detector stays active after the last speech frame
+     */
+    public record Config(double marginDb, double speechFloorDbfs, double maxZeroCrossingRate, int hangoverMillis) {
+
+        public static Config defaults() {
+            return new Config(9.0, -50.0, 0.35, 300);
+        }
+
+        public Config withHangoverMillis(int hangoverMillis) {
+            return new Config(marginDb, speechFloorDbfs, maxZeroCrossingRate, hangoverMillis);
+        }
+    }
+
+    private static final double FULL_SCALE_SQUARED = 32768.0 * 32768.0;
+    private static final double INITIAL_NOISE_FLOOR_DBFS = -70.0;
+    // Per-frame smoothing of the noise floor towards the frame level
+    private static final double FLOOR_FALL = 0.5;
+    private static final double FLOOR_RISE = 0.05;
+    private static final double FLOOR_RISE_DURING_SPEECH = 0.002;
+
+    private final Config config;
+    private final int hangoverSamples;
+
+    private double noiseFloorDbfs = INITIAL_NOISE_FLOOR_DBFS;
+    private int hangoverRemaining;
+    private boolean active;
+    private boolean speech;
+    private double lastLevelDbfs = INITIAL_NOISE_FLOOR_DBFS;
+
+    public VoiceActivityDetector(int sampleRate) {
+        this(sampleRate, Config.defaults());
+    }
+
+    public VoiceActivityDetector(int sampleRate, Config config) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + sampleRate);
+        }
+        this.config = config;
+        this.hangoverSamples = (int) ((long) sampleRate * config.hangoverMillis() / 1000);
+    }
+
+    /**
+     * Classifies one frame of 16-bit little-endian PCM.
+     *
+     * @return whether the stream is active (speech or hangover) after this frame
+     */
+    public boolean process(byte[] pcm, int offset, int length) {
+        int samples = length / 2;
+        long sumSquares = 0;
+        int crossings = 0;
+        boolean negative = false;
+        for (int i = 0; i < samples; i++) {
+            int sample = (short) FirKernels.PCM16.get(pcm, offset + 2 * i);
+            sumSquares += (long) sample * sample;
+            if (i > 0 && (sample < 0) != negative) {
+                crossings++;
+            }
+            negative = sample < 0;
+        }
+        return update(samples, sumSquares, crossings);
+    }
+
+    /**
+     * Classifies one frame of samples.
+     *
+     * @return whether the stream is active (speech or hangover) after this frame
+     */
+    public boolean process(short[] samples, int offset, int count) {
+        long sumSquares = 0;
+        int crossings = 0;
+        for (int i = 0; i < count; i++) {
+            int sample = samples[offset + i];
+            sumSquares += (long) sample * sample;
+            if (i > 0 && (sample < 0) != (samples[offset + i - 1] < 0)) {
+                crossings++;
+            }
+        }
+        return update(count, sumSquares, crossings);
+    }
+
+    /**
+     * Whether the last frame left the detector active (speech or hangover).
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Whether the last frame itself was classified as speech, as opposed to falling in the hangover.
+     */
+    public boolean isSpeech() {
+        return speech;
+    }
+
+    /**
+     * Level of the last frame in dB relative to full scale.
+     */
+    public double lastLevelDbfs() {
+        return lastLevelDbfs;
+    }
+
+    /**
+     * Current noise floor estimate in dB relative to full scale.
+     */
+    public double noiseFloorDbfs() {
+        return noiseFloorDbfs;
+    }
+
+    public void reset() {
+        noiseFloorDbfs = INITIAL_NOISE_FLOOR_DBFS;
+        lastLevelDbfs = INITIAL_NOISE_FLOOR_DBFS;
+        hangoverRemaining = 0;
+        active = false;
+        speech = false;
+    }
+
+    private boolean update(int samples, long sumSquares, int crossings) {
+        if (samples <= 0) {
+            return active;
+        }
+        double level = 10 * Math.log10((double) sumSquares / samples / FULL_SCALE_SQUARED + 1e-12);
+        double zeroCrossingRate = (double) crossings / samples;
+        lastLevelDbfs = level;
+
+        double aboveFloor = level - noiseFloorDbfs;
+        speech = level > config.speechFloorDbfs()
+                && aboveFloor > config.marginDb()
+                && (zeroCrossingRate <= config.maxZeroCrossingRate() || aboveFloor > 2 * config.marginDb());
+
+        double rate = speech ? FLOOR_RISE_DURING_SPEECH : aboveFloor < 0 ? FLOOR_FALL : FLOOR_RISE;
+        noiseFloorDbfs += rate * aboveFloor;
+
+        if (speech) {
+            hangoverRemaining = hangoverSamples;
+            active = true;
+        } else if (hangoverRemaining > 0) {
+            hangoverRemaining -= samples;
+            active = true;
+        } else {
+            active = false;
+        }
+        return active;
+    }
+}
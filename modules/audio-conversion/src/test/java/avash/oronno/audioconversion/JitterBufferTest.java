@@ -0,0 +1,141 @@
+package avash.oronno.audioconversion;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Audio written in chunks of any size must play out as the same bytes, in order, in whole frames
+ * across ring wrap-around; buffering, underruns and overruns must follow the target and maximum
+ * depth.
+ */
+class JitterBufferTest {
+
+    private static final int FRAME = JitterBuffer.MULAW_FRAME_BYTES;
+
+    @Test
+    void reslicesChunksIntoFramesInOrder() {
+        SplittableRandom random = new SplittableRandom(3);
+        byte[] audio = new byte[100 * FRAME + 37];
+        random.nextBytes(audio);
+        JitterBuffer buffer = JitterBuffer.forMulaw(3, 8);
+        ByteArrayOutputStream played = new ByteArrayOutputStream();
+        byte[] frame = new byte[FRAME + 2];
+
+        int written = 0;
+        while (written < audio.length) {
+            int chunk = Math.min(audio.length - written, random.nextInt(1, 3 * FRAME));
+            buffer.write(audio, written, chunk);
+            written += chunk;
+            // Play out at most what is buffered, so nothing overruns and the ring wraps many times
+            while (buffer.depth() > 3 && buffer.poll(frame, 1)) {
+                played.write(frame, 1, FRAME);
+            }
+        }
+        buffer.finish();
+        while (buffer.poll(frame, 1)) {
+            played.write(frame, 1, FRAME);
+        }
+
+        assertTrue(buffer.isDrained());
+        assertEquals(0, buffer.overruns());
+        byte[] expected = Arrays.copyOf(audio, 101 * FRAME);
+        // The final partial frame is padded with silence
+        Arrays.fill(expected, audio.length, expected.length, JitterBuffer.MULAW_SILENCE);
+        assertArrayEquals(expected, played.toByteArray());
+        assertEquals(101, buffer.framesOut());
+    }
+
+    @Test
+    void buffersUpToTheTargetDepthBeforePlayout() {
+        JitterBuffer buffer = JitterBuffer.forMulaw(3, 8);
+        buffer.write(frames(1, 2), 0, 2 * FRAME);
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.underruns());
+        buffer.write(frames(3, 1), 0, FRAME);
+        assertEquals(1, buffer.poll()[0]);
+        assertEquals(2, buffer.poll()[0]);
+        assertEquals(3, buffer.poll()[0]);
+    }
+
+    @Test
+    void countsAnUnderrunAndRebuffers() {
+        JitterBuffer buffer = JitterBuffer.forMulaw(2, 8);
+        buffer.write(frames(1, 2), 0, 2 * FRAME);
+        assertEquals(1, buffer.poll()[0]);
+        assertEquals(2, buffer.poll()[0]);
+        // Half a frame is not enough mid-burst
+        buffer.write(frames(3, 1), 0, FRAME / 2);
+        assertNull(buffer.poll());
+        assertEquals(1, buffer.underruns());
+        // Playout waits for the target depth again, then resumes without losing the half frame
+        buffer.write(frames(3, 1), FRAME / 2, FRAME / 2);
+        assertNull(buffer.poll());
+        buffer.write(frames(4, 1), 0, FRAME);
+        assertEquals(3, buffer.poll()[0]);
+        assertEquals(4, buffer.poll()[0]);
+        assertEquals(1, buffer.underruns());
+    }
+
+    @Test
+    void runningDryAfterATurnIsNotAnUnderrun() {
+        JitterBuffer buffer = JitterBuffer.forMulaw(4, 8);
+        buffer.write(frames(1, 2), 0, FRAME + 10);
+        buffer.endTurn();
+        assertEquals(1, buffer.poll()[0]);
+        byte[] last = buffer.poll();
+        assertEquals(2, last[9]);
+        assertEquals(JitterBuffer.MULAW_SILENCE, last[10]);
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.underruns());
+        assertFalse(buffer.isDrained());
+    }
+
+    @Test
+    void dropsTheOldestWholeFramesOnOverrun() {
+        JitterBuffer buffer = JitterBuffer.forMulaw(1, 4);
+        buffer.write(frames(1, 4), 0, 4 * FRAME);
+        buffer.write(frames(5, 1), 0, FRAME / 2);
+        assertEquals(1, buffer.overruns());
+        assertEquals(FRAME, buffer.droppedBytes());
+        assertEquals(2, buffer.poll()[0]);
+
+        // A write larger than the whole buffer keeps only its newest audio
+        byte[] burst = frames(10, 6);
+        buffer.write(burst, 0, burst.length);
+        assertEquals(2, buffer.overruns());
+        for (int i = 12; i < 16; i++) {
+            assertEquals(i, buffer.poll()[0]);
+        }
+    }
+
+    @Test
+    void flushDiscardsAndRebuffers() {
+        JitterBuffer buffer = JitterBuffer.forMulaw(2, 8);
+        buffer.write(frames(1, 3), 0, 3 * FRAME);
+        assertEquals(1, buffer.poll()[0]);
+        assertEquals(2 * FRAME, buffer.flush());
+        assertEquals(0, buffer.depth());
+        buffer.write(frames(7, 1), 0, FRAME);
+        assertNull(buffer.poll());
+    }
+
+    /**
+     * {@code count} frames whose bytes all hold the frame's number, starting at {@code first}.
+     */
+    private static byte[] frames(int first, int count) {
+        byte[] audio = new byte[count * FRAME];
+        for (int i = 0; i < count; i++) {
+            Arrays.fill(audio, i * FRAME, (i + 1) * FRAME, (byte) (first + i));
+        }
+        return audio;
+    }
+}
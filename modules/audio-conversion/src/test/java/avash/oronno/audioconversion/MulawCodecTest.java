@@ -0,0 +1,88 @@
+package avash.oronno.audioconversion;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The table codec must reproduce the JDK's G.711 codec it replaced: every μ-law code decodes to the
+ * same sample, and every 16-bit sample encodes to the same code except beyond ±32635, where the JDK
+ * wraps to near-silence and the table saturates to full scale.
+ */
+class MulawCodecTest {
+
+    private static final int JDK_CLIP = 32635;
+
+    private static final AudioFormat PCM = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 8000, 16, 1, 2, 8000, false);
+    private static final AudioFormat ULAW = new AudioFormat(AudioFormat.Encoding.ULAW, 8000, 8, 1, 1, 8000, false);
+
+    @Test
+    void decodesEveryCodeLikeTheJdk() throws IOException {
+        byte[] codes = new byte[256];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) i;
+        }
+        byte[] expected = convert(codes, ULAW, PCM);
+
+        byte[] pcm = new byte[2 * codes.length];
+        MulawCodec.decode(codes, 0, pcm, 0, codes.length);
+        assertArrayEquals(expected, pcm);
+
+        short[] samples = new short[codes.length];
+        MulawCodec.decode(codes, 0, samples, 0, codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals((short) FirKernels.PCM16.get(expected, 2 * i), samples[i], "code " + i);
+            assertEquals(samples[i], MulawCodec.decode(codes[i]), "code " + i);
+        }
+    }
+
+    @Test
+    void encodesEverySampleLikeTheJdk() throws IOException {
+        byte[] pcm = new byte[2 * 65536];
+        short[] samples = new short[65536];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) i;
+            FirKernels.PCM16.set(pcm, 2 * i, samples[i]);
+        }
+        byte[] expected = convert(pcm, PCM, ULAW);
+
+        byte[] fromPcm = new byte[samples.length];
+        MulawCodec.encode(pcm, 0, fromPcm, 0, samples.length);
+        byte[] fromSamples = new byte[samples.length];
+        MulawCodec.encode(samples, 0, fromSamples, 0, samples.length);
+        for (int i = 0; i < samples.length; i++) {
+            short sample = samples[i];
+            byte code = Math.abs(sample) > JDK_CLIP
+                    ? (byte) (sample > 0 ? 0x80 : 0x00)
+                    : expected[i];
+            assertEquals(code, fromPcm[i], "sample " + sample);
+            assertEquals(code, fromSamples[i], "sample " + sample);
+            assertEquals(code, MulawCodec.encode(sample), "sample " + sample);
+        }
+    }
+
+    @Test
+    void roundTripsEveryCode() {
+        for (int i = 0; i < 256; i++) {
+            byte code = (byte) i;
+            byte roundTripped = MulawCodec.encode(MulawCodec.decode(code));
+            // 0x7F and 0xFF are negative and positive zero; both encode back to positive zero
+            assertEquals(i == 0x7F ? (byte) 0xFF : code, roundTripped, "code " + i);
+        }
+    }
+
+    private static byte[] convert(byte[] audio, AudioFormat from, AudioFormat to) throws IOException {
+        try (AudioInputStream source = new AudioInputStream(new ByteArrayInputStream(audio), from,
+                audio.length / from.getFrameSize());
+             AudioInputStream converted = AudioSystem.getAudioInputStream(to, source)) {
+            return converted.readAllBytes();
+        }
+    }
+}
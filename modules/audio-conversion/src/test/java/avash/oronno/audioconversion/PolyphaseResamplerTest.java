@@ -0,0 +1,65 @@
+package avash.oronno.audioconversion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A stream pushed through a polyphase resampler and flushed must end on the stateless output count
+ * and match the stateless FIR kernels sample for sample, so a call's audio is neither cut short nor
+ * padded at the end whatever its length.
+ */
+class PolyphaseResamplerTest {
+
+    @ParameterizedTest(name = "8k→16k, {0} samples")
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 31, 32, 33, 160, 161, 1000})
+    void interpolatorMatchesTheStatelessKernel(int length) {
+        assertMatchesStateless(8000, 16000, length);
+    }
+
+    @ParameterizedTest(name = "24k→8k, {0} samples")
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 95, 96, 97, 98, 480, 481, 482, 3000})
+    void decimatorMatchesTheStatelessKernel(int length) {
+        assertMatchesStateless(24000, 8000, length);
+    }
+
+    @Test
+    void flushWritesOnlyTheHeldBackTail() {
+        for (int length = 1; length <= 200; length++) {
+            SplittableRandom random = new SplittableRandom(length);
+            short[] input = ResamplerTest.randomSamples(random, length);
+            for (int[] rates : new int[][] {{8000, 16000}, {24000, 8000}}) {
+                Resampler resampler = Resampler.create(rates[0], rates[1]);
+                short[] output = new short[resampler.maxOutputSamples(length)];
+                int processed = resampler.process(input, 0, length, output, 0);
+                short[] tail = new short[resampler.maxFlushSamples()];
+                int flushed = resampler.flush(tail, 0);
+                assertEquals(AudioConverter.resampledSampleCount(length, rates[0], rates[1]), processed + flushed,
+                        rates[0] + "→" + rates[1] + ", " + length + " samples");
+                // Flushing again with nothing new writes nothing
+                assertEquals(0, resampler.flush(tail, 0));
+            }
+        }
+    }
+
+    private static void assertMatchesStateless(int sourceRate, int targetRate, int length) {
+        SplittableRandom random = new SplittableRandom(length);
+        short[] input = ResamplerTest.randomSamples(random, length);
+        short[] expected = new short[AudioConverter.resampledSampleCount(length, sourceRate, targetRate)];
+        AudioConverter.resample(input, 0, length, sourceRate, targetRate, expected, 0);
+
+        assertArrayEquals(expected, ResamplerTest.resample(Resampler.create(sourceRate, targetRate), input, new int[] {length}),
+                "in one piece");
+        int[] frames = new int[(length + 159) / 160];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = Math.min(160, length - 160 * i);
+        }
+        assertArrayEquals(expected, ResamplerTest.resample(Resampler.create(sourceRate, targetRate), input, frames),
+                "in 20ms frames");
+    }
+}
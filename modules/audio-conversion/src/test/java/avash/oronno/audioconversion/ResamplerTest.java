@@ -0,0 +1,118 @@
+package avash.oronno.audioconversion;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A stream resampled in chunks of any size, down to single samples, must come out exactly as if it
+ * had been resampled in one piece, for the polyphase resamplers and the linear fallback alike.
+ */
+class ResamplerTest {
+
+    private static final int[] LENGTHS = {1, 2, 3, 5, 160, 479, 480, 4801};
+
+    static Stream<Arguments> resamplers() {
+        return Stream.of(
+                Arguments.of("polyphase 8k→16k", (Supplier<Resampler>) () -> Resampler.create(8000, 16000)),
+                Arguments.of("polyphase 24k→8k", (Supplier<Resampler>) () -> Resampler.create(24000, 8000)),
+                Arguments.of("linear 8k→16k", (Supplier<Resampler>) () -> Resampler.linear(8000, 16000)),
+                Arguments.of("linear 24k→8k", (Supplier<Resampler>) () -> Resampler.linear(24000, 8000)),
+                Arguments.of("linear 16k→24k", (Supplier<Resampler>) () -> Resampler.linear(16000, 24000)),
+                Arguments.of("linear 44.1k→16k", (Supplier<Resampler>) () -> Resampler.linear(44100, 16000)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("resamplers")
+    void chunkingDoesNotChangeTheOutput(String name, Supplier<Resampler> factory) {
+        for (int length : LENGTHS) {
+            SplittableRandom random = new SplittableRandom(length);
+            short[] input = randomSamples(random, length);
+            short[] whole = resample(factory.get(), input, new int[] {length});
+
+            assertArrayEquals(whole, resample(factory.get(), input, ones(length)), name + ", one sample at a time, length " + length);
+            for (int trial = 0; trial < 5; trial++) {
+                assertArrayEquals(whole, resample(factory.get(), input, randomChunks(random, length)),
+                        name + ", random chunks, length " + length);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("resamplers")
+    void flushResetsForTheNextStream(String name, Supplier<Resampler> factory) {
+        SplittableRandom random = new SplittableRandom(1);
+        short[] first = randomSamples(random, 777);
+        short[] second = randomSamples(random, 555);
+        Resampler reused = factory.get();
+        resample(reused, first, randomChunks(random, first.length));
+        assertArrayEquals(resample(factory.get(), second, new int[] {second.length}),
+                resample(reused, second, randomChunks(random, second.length)), name);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("resamplers")
+    void staysWithinItsOutputBounds(String name, Supplier<Resampler> factory) {
+        SplittableRandom random = new SplittableRandom(2);
+        Resampler resampler = factory.get();
+        short[] input = randomSamples(random, 2000);
+        int offset = 0;
+        for (int chunk : randomChunks(random, input.length)) {
+            // Exactly the promised room, so a longer write would throw
+            short[] output = new short[resampler.maxOutputSamples(chunk)];
+            int written = resampler.process(input, offset, chunk, output, 0);
+            assertTrue(written <= output.length, name);
+            offset += chunk;
+        }
+        short[] tail = new short[resampler.maxFlushSamples()];
+        assertTrue(resampler.flush(tail, 0) <= tail.length, name);
+    }
+
+    /**
+     * Resamples {@code input} in the given chunk sizes and flushes, returning everything written.
+     */
+    static short[] resample(Resampler resampler, short[] input, int[] chunks) {
+        short[] output = new short[resampler.maxOutputSamples(input.length) + chunks.length * 4 + resampler.maxFlushSamples()];
+        int written = 0;
+        int offset = 0;
+        for (int chunk : chunks) {
+            written += resampler.process(input, offset, chunk, output, written);
+            offset += chunk;
+        }
+        written += resampler.flush(output, written);
+        return Arrays.copyOf(output, written);
+    }
+
+    static short[] randomSamples(SplittableRandom random, int length) {
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (short) random.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1);
+        }
+        return samples;
+    }
+
+    private static int[] ones(int length) {
+        int[] chunks = new int[length];
+        Arrays.fill(chunks, 1);
+        return chunks;
+    }
+
+    private static int[] randomChunks(SplittableRandom random, int length) {
+        int[] chunks = new int[length];
+        int count = 0;
+        for (int remaining = length; remaining > 0; ) {
+            int chunk = Math.min(remaining, random.nextInt(1, 400));
+            chunks[count++] = chunk;
+            remaining -= chunk;
+        }
+        return Arrays.copyOf(chunks, count);
+    }
+}
@@ -0,0 +1,146 @@
+package avash.oronno.audioconversion;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The Vector API kernels must reproduce the scalar kernels bit for bit: every μ-law code and every
+ * 16-bit sample exhaustively, and the resampling loops, over arrays and native segments, on random
+ * and full-scale input at lengths around the vector block sizes.
+ */
+class VectorAudioKernelsTest {
+
+    private static final int[] COUNTS = {0, 1, 7, 8, 9, 15, 16, 17, 160, 333};
+
+    private static final AudioKernels scalar = new ScalarAudioKernels();
+    private static AudioKernels vector;
+
+    @BeforeAll
+    static void loadVectorKernels() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "needs --add-modules jdk.incubator.vector");
+        try {
+            vector = new VectorAudioKernels();
+        } catch (UnsupportedOperationException e) {
+            assumeTrue(false, e.getMessage());
+        }
+    }
+
+    static Stream<Arguments> resamplingCases() {
+        return Stream.of(false, true)
+                .flatMap(fullScale -> Arrays.stream(COUNTS).mapToObj(count -> Arguments.of(count, fullScale)));
+    }
+
+    @Test
+    void decodesEveryMulawCode() {
+        byte[] codes = new byte[256];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) i;
+        }
+        short[] expected = new short[codes.length];
+        short[] actual = new short[codes.length];
+        scalar.decodeMulaw(codes, 0, expected, 0, codes.length);
+        vector.decodeMulaw(codes, 0, actual, 0, codes.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void encodesEverySample() {
+        short[] samples = new short[65536];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) i;
+        }
+        byte[] expected = new byte[samples.length];
+        byte[] actual = new byte[samples.length];
+        scalar.encodeMulaw(samples, 0, expected, 0, samples.length);
+        vector.encodeMulaw(samples, 0, actual, 0, samples.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    @ParameterizedTest(name = "{0} centers, full scale {1}")
+    @MethodSource("resamplingCases")
+    void interpolates(int count, boolean fullScale) {
+        SplittableRandom random = new SplittableRandom(count);
+        int offset = 1 + random.nextInt(8);
+        short[] x = randomSamples(random, offset + count + 2 * FirKernels.UP_HALF_SPAN, fullScale);
+        int first = offset + FirKernels.UP_HALF_SPAN;
+
+        short[] expected = new short[2 * count + 1];
+        short[] actual = new short[2 * count + 1];
+        scalar.interpolate2x(x, first, count, expected, 1);
+        vector.interpolate2x(x, first, count, actual, 1);
+        assertArrayEquals(expected, actual, "to samples");
+
+        byte[] pcmExpected = new byte[4 * count + 3];
+        byte[] pcmActual = new byte[4 * count + 3];
+        scalar.interpolate2x(x, first, count, pcmExpected, 3);
+        vector.interpolate2x(x, first, count, pcmActual, 3);
+        assertArrayEquals(pcmExpected, pcmActual, "to PCM");
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(pcmActual.length);
+            vector.interpolate2x(x, first, count, segment, 3);
+            assertArrayEquals(Arrays.copyOfRange(pcmExpected, 3, pcmExpected.length),
+                    Arrays.copyOfRange(segment.toArray(ValueLayout.JAVA_BYTE), 3, pcmActual.length), "to segment");
+        }
+    }
+
+    @ParameterizedTest(name = "{0} centers, full scale {1}")
+    @MethodSource("resamplingCases")
+    void decimates(int count, boolean fullScale) {
+        SplittableRandom random = new SplittableRandom(count);
+        int offset = 1 + random.nextInt(8);
+        short[] x = randomSamples(random, offset + 3 * count + 2 * FirKernels.DOWN_HALF_SPAN, fullScale);
+        int first = offset + FirKernels.DOWN_HALF_SPAN;
+
+        short[] expected = new short[count + 1];
+        short[] actual = new short[count + 1];
+        scalar.decimate3x(x, first, count, expected, 1);
+        vector.decimate3x(x, first, count, actual, 1);
+        assertArrayEquals(expected, actual, "to samples");
+
+        byte[] pcm = new byte[1 + 2 * x.length];
+        for (int i = 0; i < x.length; i++) {
+            FirKernels.PCM16.set(pcm, 1 + 2 * i, x[i]);
+        }
+        byte[] mulawExpected = new byte[count + 1];
+        byte[] mulawActual = new byte[count + 1];
+        scalar.decimate3xToMulaw(pcm, 1, first, count, mulawExpected, 1);
+        vector.decimate3xToMulaw(pcm, 1, first, count, mulawActual, 1);
+        assertArrayEquals(mulawExpected, mulawActual, "to μ-law");
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment pcmSegment = arena.allocate(pcm.length);
+            MemorySegment.copy(pcm, 0, pcmSegment, ValueLayout.JAVA_BYTE, 0, pcm.length);
+            MemorySegment mulawSegment = arena.allocate(mulawActual.length);
+            vector.decimate3xToMulaw(pcmSegment, 1, first, count, mulawSegment, 1);
+            assertArrayEquals(Arrays.copyOfRange(mulawExpected, 1, mulawExpected.length),
+                    Arrays.copyOfRange(mulawSegment.toArray(ValueLayout.JAVA_BYTE), 1, mulawActual.length),
+                    "over segments");
+        }
+    }
+
+    private static short[] randomSamples(SplittableRandom random, int length, boolean fullScale) {
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) {
+            // Full-scale square waves drive the accumulators into saturation
+            samples[i] = fullScale
+                    ? (random.nextBoolean() ? Short.MAX_VALUE : Short.MIN_VALUE)
+                    : (short) random.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1);
+        }
+        return samples;
+    }
+}
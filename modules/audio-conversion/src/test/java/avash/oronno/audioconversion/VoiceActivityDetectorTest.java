@@ -0,0 +1,147 @@
+package avash.oronno.audioconversion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The detector must stay active for exactly its hangover after the last speech frame, and the
+ * suppressor must forward the pre-roll ahead of a speech onset, so neither word gaps nor the first
+ * syllable are cut.
+ */
+class VoiceActivityDetectorTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    // 20ms
+    private static final int FRAME_SAMPLES = 320;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void staysActiveForTheHangoverAfterSpeech() {
+        VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE,
+                VoiceActivityDetector.Config.defaults().withHangoverMillis(300));
+        for (int i = 0; i < 50; i++) {
+            assertFalse(detector.process(noise(), 0, FRAME_SAMPLES), "noise frame " + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertTrue(detector.process(tone(i), 0, FRAME_SAMPLES), "speech frame " + i);
+            assertTrue(detector.isSpeech(), "speech frame " + i);
+        }
+        // 300ms of 20ms frames
+        for (int i = 0; i < 15; i++) {
+            assertTrue(detector.process(noise(), 0, FRAME_SAMPLES), "hangover frame " + i);
+            assertFalse(detector.isSpeech(), "hangover frame " + i);
+        }
+        assertFalse(detector.process(noise(), 0, FRAME_SAMPLES), "after the hangover");
+        assertFalse(detector.isActive());
+    }
+
+    @Test
+    void speechDuringTheHangoverRestartsIt() {
+        VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE,
+                VoiceActivityDetector.Config.defaults().withHangoverMillis(100));
+        for (int i = 0; i < 50; i++) {
+            detector.process(noise(), 0, FRAME_SAMPLES);
+        }
+        detector.process(tone(0), 0, FRAME_SAMPLES);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(detector.process(noise(), 0, FRAME_SAMPLES));
+        }
+        assertTrue(detector.process(tone(1), 0, FRAME_SAMPLES));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(detector.process(noise(), 0, FRAME_SAMPLES), "restarted hangover frame " + i);
+        }
+        assertFalse(detector.process(noise(), 0, FRAME_SAMPLES));
+    }
+
+    @Test
+    void classifiesPcmBytesLikeSamples() {
+        VoiceActivityDetector fromSamples = new VoiceActivityDetector(SAMPLE_RATE);
+        VoiceActivityDetector fromBytes = new VoiceActivityDetector(SAMPLE_RATE);
+        for (int i = 0; i < 100; i++) {
+            short[] frame = i % 20 < 8 ? tone(i) : noise();
+            assertEquals(fromSamples.process(frame, 0, FRAME_SAMPLES), fromBytes.process(pcm(frame), 0, 2 * FRAME_SAMPLES),
+                    "frame " + i);
+            assertEquals(fromSamples.lastLevelDbfs(), fromBytes.lastLevelDbfs(), 1e-9);
+        }
+    }
+
+    @Test
+    void forwardsThePreRollAheadOfASpeechOnset() {
+        VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE,
+                VoiceActivityDetector.Config.defaults().withHangoverMillis(40));
+        List<byte[]> discarded = new ArrayList<>();
+        SilenceSuppressor suppressor = new SilenceSuppressor(detector, SAMPLE_RATE, 60,
+                SilenceSuppressor.Mode.DROP, 1, discarded::add);
+
+        List<byte[]> silence = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            byte[] frame = pcm(noise());
+            silence.add(frame);
+            assertTrue(suppressor.offer(frame).isEmpty(), "silent frame " + i);
+        }
+        assertEquals(47, discarded.size());
+
+        byte[] onset = pcm(tone(0));
+        List<byte[]> forwarded = suppressor.offer(onset);
+        // The last 60ms of silence, then the onset
+        assertEquals(4, forwarded.size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(silence.get(47 + i), forwarded.get(i));
+        }
+        assertSame(onset, forwarded.get(3));
+
+        // Two hangover frames, then silence is held back again
+        assertEquals(1, suppressor.offer(pcm(noise())).size());
+        assertEquals(1, suppressor.offer(pcm(noise())).size());
+        assertTrue(suppressor.offer(pcm(noise())).isEmpty());
+        assertEquals(54, suppressor.framesIn());
+        assertEquals(6, suppressor.framesForwarded());
+    }
+
+    @Test
+    void compactModeKeepsEveryNthSilentFrame() {
+        SilenceSuppressor suppressor = new SilenceSuppressor(new VoiceActivityDetector(SAMPLE_RATE), SAMPLE_RATE, 0,
+                SilenceSuppressor.Mode.COMPACT, 5);
+        int forwarded = 0;
+        for (int i = 0; i < 100; i++) {
+            forwarded += suppressor.offer(pcm(noise())).size();
+        }
+        assertEquals(20, forwarded);
+    }
+
+    // Background noise around -65 dBFS
+    private short[] noise() {
+        short[] frame = new short[FRAME_SAMPLES];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) random.nextInt(-30, 31);
+        }
+        return frame;
+    }
+
+    // A 300Hz tone around -24 dBFS, voice-like in level and zero crossings
+    private static short[] tone(int frameIndex) {
+        short[] frame = new short[FRAME_SAMPLES];
+        for (int i = 0; i < frame.length; i++) {
+            double t = (double) (frameIndex * FRAME_SAMPLES + i) / SAMPLE_RATE;
+            frame[i] = (short) (3000 * Math.sin(2 * Math.PI * 300 * t));
+        }
+        return frame;
+    }
+
+    private static byte[] pcm(short[] samples) {
+        byte[] pcm = new byte[2 * samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            FirKernels.PCM16.set(pcm, 2 * i, samples[i]);
+        }
+        return pcm;
+    }
+}